@@ -5,26 +5,49 @@ import burp.api.montoya.MontoyaApi;
 import burp.api.montoya.extension.ExtensionUnloadingHandler;
 import burp.api.montoya.http.handler.*;
 import burp.api.montoya.http.message.HttpRequestResponse;
+import burp.api.montoya.http.message.requests.HttpRequest;
 import burp.api.montoya.http.message.responses.HttpResponse;
-import burp.api.montoya.proxy.ProxyHttpRequestResponse;
 import com.burp.custom.model.RegexRule;
 import com.burp.custom.model.EvidenceRecord;
 import com.burp.custom.model.EntropyPolicy;
+import com.burp.custom.model.Finding;
+import com.burp.custom.scan.BulkScanFilter;
+import com.burp.custom.scan.BulkSource;
+import com.burp.custom.scan.DeferredScans;
+import com.burp.custom.scan.NoiseFilter;
+import com.burp.custom.scan.ProxyHistorySource;
+import com.burp.custom.scan.RuleGovernor;
+import com.burp.custom.scan.RuleProfiler;
+import com.burp.custom.scan.RulesetDelta;
+import com.burp.custom.scan.ScanBudget;
+import com.burp.custom.scan.ScanEvents;
+import com.burp.custom.scan.ScanMetrics;
+import com.burp.custom.scan.SiteMapSource;
 import com.burp.custom.ui.ConfigTab;
+import com.burp.custom.ui.PerformanceTab;
 import com.burp.custom.ui.ResultsTab;
 import com.burp.custom.ui.StatsTab;
 import com.burp.custom.util.EntropyAnalyzer;
+import com.burp.custom.util.HeapPressureMonitor;
+import com.burp.custom.util.UrlUtils;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
 import com.google.re2j.Matcher;
 import com.google.re2j.Pattern;
 
 import javax.swing.*;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -34,37 +57,134 @@ public class JsMinerExtension implements BurpExtension, HttpHandler, ExtensionUn
     private ConfigTab configTab;
     private ResultsTab resultsTab;
     private StatsTab statsTab;
+    private PerformanceTab performanceTab;
+    private final ScanMetrics metrics = new ScanMetrics();
+    private final RuleProfiler ruleProfiler = new RuleProfiler();
+    private final RuleGovernor ruleGovernor = new RuleGovernor(MAX_MATCHES_PER_RULE);
+    // Per-response time budget; config changes and unload cancel every scan in flight
+    private final ScanBudget.Scope scanScope = new ScanBudget.Scope();
+    private volatile long scanBudgetNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_SCAN_BUDGET_MS);
 
     // Thread-safe noise pattern storage — replaced atomically on config save
     private final AtomicReference<ScannerConfig> activeConfig =
-        new AtomicReference<>(new ScannerConfig(true, 2_000_000L, List.of(), "", List.of(), List.of(), List.of(), List.of()));
+        new AtomicReference<>(new ScannerConfig(true, 2_000_000L, List.of(), "", NoiseFilter.NONE, List.of()));
 
     // Main analysis thread pool (background scanning)
     private ExecutorService executorService;
+    // Non-secret rules over live responses, run when the pool has spare capacity
+    private DeferredScans<DeferredScan> deferredScans;
+    private volatile boolean deferLiveExtraction = true;
 
     private ScheduledExecutorService autoSaveScheduler;
     private volatile boolean clearFindingsOnProjectClose;
     private final AtomicLong droppedResponses = new AtomicLong();
     private final AtomicLong lastDropWarningMillis = new AtomicLong();
-    private final AtomicBoolean historyScanRunning = new AtomicBoolean();
+    private final AtomicBoolean bulkScanRunning = new AtomicBoolean();
     private final AtomicBoolean acceptingResponses = new AtomicBoolean(true);
-    private final Map<String, Boolean> responseDedupCache = Collections.synchronizedMap(
+    private volatile int dedupCacheLimit = DEDUP_CACHE_SIZE;
+    // Response key -> version of the ruleset that last scanned it
+    private final Map<String, String> responseDedupCache = Collections.synchronizedMap(
         new LinkedHashMap<>(256, 0.75f, true) {
-            @Override protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) { return size() > 1_024; }
+            @Override protected boolean removeEldestEntry(Map.Entry<String, String> eldest) { return size() > dedupCacheLimit; }
         });
+    // Ruleset version -> keys of its rules, so a response scanned by a recent ruleset only gets the rules it lacked
+    private final Map<String, Set<String>> rulesetHistory = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<String, Set<String>> eldest) { return size() > RULESET_HISTORY; }
+        });
+    // The rules the stored findings were mined with; null until the first config is applied
+    private volatile List<RulesetDelta.RuleVersion> ruleBaseline;
+    // Load shedding driven by heap use after garbage collection
+    private HeapPressureMonitor heapMonitor;
+    private volatile HeapPressureMonitor.Level heapPressure = HeapPressureMonitor.Level.NORMAL;
+    private final AtomicLong shedResponses = new AtomicLong();
+    // Live responses that arrive before the rules are first compiled, latest per URL
+    private final CountDownLatch rulesCompiled = new CountDownLatch(1);
+    private final Map<String, HttpResponseReceived> startupBacklog = new LinkedHashMap<>();
+    private Thread startupThread;
 
-    public static final int CONTEXT_WINDOW = 100;
+    public static final int CONTEXT_WINDOW = Finding.CONTEXT_WINDOW;
     private static final int MAX_MATCHES_PER_RULE = 100;
     private static final int MAX_FINDINGS_PER_RESPONSE = 500;
+    // Bulk items in flight at once — bounds the decoded bodies and findings a bulk scan holds
+    private static final int BULK_IN_FLIGHT = 16;
+    private static final int NOT_SCANNED = -1;
+    // Responses held while the rules compile; the analysis queue takes 1000, so all of them fit
+    private static final int STARTUP_BACKLOG_LIMIT = 500;
+    private static final int DEDUP_CACHE_SIZE = 1_024;
+    private static final int DEDUP_CACHE_SIZE_UNDER_PRESSURE = 128;
+    private static final int RULESET_HISTORY = 32;
+    private static final String RULE_BASELINE_KEY = "jsminer_rule_baseline";
+    // How often rule order and match caps follow the measured rule stats
+    private static final int RULE_RETUNE_SECONDS = 5;
+    private static final int DEFAULT_SCAN_BUDGET_MS = 10_000;
+    // Response bodies held for the deferred pass; beyond this, live responses are scanned in full at once
+    private static final long DEFERRED_SCAN_BYTES = 64L << 20;
+    // Bodies at least this long are matched through the budget's guarded view, so a single
+    // regex pass can be preempted; shorter ones keep RE2J's String fast paths
+    private static final int GUARDED_BODY_CHARS = 64 * 1024;
 
     public enum LogLevel { DEBUG, INFO, WARN, ERROR }
     private volatile LogLevel currentLogLevel = LogLevel.INFO;
 
-    record CompiledRule(String name, String type, String severity, EntropyPolicy entropyPolicy, Pattern pattern) { }
+    /** Which rules a scan runs: live traffic gets secrets first and the rest when the scanner is idle. */
+    enum ScanPhase {
+        ALL, SECRETS, DEFERRED;
+
+        boolean includes(CompiledRule rule) {
+            return this == ALL || (this == SECRETS) == "SECRET".equals(rule.type());
+        }
+
+        int ruleCount(ScannerConfig config) {
+            int count = 0;
+            for (CompiledRule rule : config.rules()) {
+                if (includes(rule)) count++;
+            }
+            return count;
+        }
+    }
+
+    // A live response waiting for its deferred pass; the body is held as already decoded.
+    // Config is the one the secret pass used, possibly narrowed to the rules the response lacked;
+    // findingAllowance is what the secret pass left of the per-response finding cap.
+    private record DeferredScan(String url, String body, HttpRequestResponse reqResp, ScannerConfig config,
+                                int findingAllowance) { }
+
+    record CompiledRule(String id, String version, String name, String type, String severity, EntropyPolicy entropyPolicy,
+                        Pattern pattern, RuleProfiler.Profile profile, RuleGovernor.Control control) {
+
+        // Identifies this version of this rule across rulesets
+        String key() { return id + "@" + version; }
+
+        RulesetDelta.RuleVersion ruleVersion() { return new RulesetDelta.RuleVersion(id, name, version); }
+    }
 
+    // Rules are in evaluation order, which the governor changes as stats accumulate
     record ScannerConfig(boolean scopeOnly, long maxBytes, List<String> mimeTypes, String rulesetVersion,
-                         List<Pattern> noisePatterns, List<String> noiseDomains,
-                         List<String> modulePrefixes, List<CompiledRule> rules) { }
+                         NoiseFilter noise, List<CompiledRule> rules) {
+
+        ScannerConfig withRules(List<CompiledRule> reordered) {
+            return new ScannerConfig(scopeOnly, maxBytes, mimeTypes, rulesetVersion, noise, List.copyOf(reordered));
+        }
+
+        boolean anyDeferred() {
+            for (CompiledRule rule : rules) {
+                if (ScanPhase.DEFERRED.includes(rule)) return true;
+            }
+            return false;
+        }
+
+        List<RulesetDelta.RuleVersion> ruleVersions() {
+            return rules.stream().map(CompiledRule::ruleVersion).toList();
+        }
+
+        // Same rules and settings, whatever the evaluation order
+        boolean sameResults(ScannerConfig other) {
+            return other != null && scopeOnly == other.scopeOnly && maxBytes == other.maxBytes
+                && mimeTypes.equals(other.mimeTypes) && rulesetVersion.equals(other.rulesetVersion)
+                && noise.equals(other.noise);
+        }
+    }
 
     @Override
     public void initialize(MontoyaApi api) {
@@ -75,46 +195,199 @@ public class JsMinerExtension implements BurpExtension, HttpHandler, ExtensionUn
         resultsTab = new ResultsTab(api, this);
         statsTab   = new StatsTab(api);
         resultsTab.setStatsTab(statsTab);
-        configTab.applyScannerConfig();
-        resultsTab.loadPersistedFindings();
+        performanceTab = new PerformanceTab(metrics, ruleGovernor);
 
         BlockingQueue<Runnable> workQueue = new LinkedBlockingQueue<>(1000);
-        this.executorService = new ThreadPoolExecutor(
+        metrics.setQueueDepth(workQueue::size);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
             2, 4, 60L, TimeUnit.SECONDS, workQueue,
             (task, executor) -> {
-                if (!executor.isShutdown()) recordDroppedResponse();
                 throw new RejectedExecutionException("Analysis queue full");
             }
         );
+        this.executorService = pool;
+        // Idle: nothing queued and a core worker free. Heap pressure does not hold the pass
+        // back, since finishing it is what releases the bodies it holds.
+        deferredScans = new DeferredScans<>(DEFERRED_SCAN_BYTES,
+            () -> workQueue.isEmpty() && pool.getActiveCount() < pool.getCorePoolSize(),
+            this::scanDeferred);
+        deferredScans.start("jsminer-deferred-scan");
+        metrics.setDeferredDepth(deferredScans::size);
 
         this.autoSaveScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
             Thread t = new Thread(r, "jsminer-autosave");
             t.setDaemon(true);
             return t;
         });
-        autoSaveScheduler.scheduleAtFixedRate(() -> {
-            if (resultsTab != null) resultsTab.saveAllFindings();
-        }, 5, 5, TimeUnit.MINUTES);
+        // Journal flushes cost time proportional to the changes, so they can run often
+        autoSaveScheduler.scheduleWithFixedDelay(() -> {
+            if (resultsTab != null) resultsTab.persistChanges();
+        }, 5, 5, TimeUnit.SECONDS);
+        autoSaveScheduler.scheduleWithFixedDelay(this::retuneRules, RULE_RETUNE_SECONDS, RULE_RETUNE_SECONDS, TimeUnit.SECONDS);
+        heapMonitor = new HeapPressureMonitor(this::applyHeapPressure);
+        heapMonitor.start(autoSaveScheduler);
 
         JTabbedPane tabs = new JTabbedPane();
         tabs.addTab("Results",       resultsTab);
         tabs.addTab("Stats",         statsTab);
+        tabs.addTab("Performance",   performanceTab);
         tabs.addTab("Configuration", configTab);
 
         api.userInterface().registerSuiteTab("JS Miner Pro", tabs);
         api.http().registerHttpHandler(this);
         api.extension().registerUnloadingHandler(this);
 
+        // Rule compilation and findings recovery scale with the project, so they run
+        // after registration; live traffic is held until the rules are ready.
+        startupThread = new Thread(this::completeStartup, "jsminer-startup");
+        startupThread.setDaemon(true);
+        startupThread.start();
+
         log(LogLevel.INFO, "JS Miner Pro loaded successfully.");
     }
 
+    private void completeStartup() {
+        try {
+            resultsTab.showLoading("Compiling rules...", 0, 0);
+            long started = System.nanoTime();
+            configTab.applyScannerConfig();
+            int buffered = releaseStartupBacklog();
+            log(LogLevel.INFO, "Compiled " + activeConfig.get().rules().size() + " rule(s) in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) + " ms; "
+                + buffered + " buffered response(s) queued.");
+            resultsTab.loadPersistedFindings();
+        } catch (Exception e) {
+            log(LogLevel.ERROR, "Startup failed: " + e.getMessage());
+            releaseStartupBacklog();
+        } finally {
+            resultsTab.showLoading(null, 0, 0);
+        }
+    }
+
+    // Opens the gate for live traffic and queues what arrived while it was closed
+    private int releaseStartupBacklog() {
+        List<HttpResponseReceived> buffered;
+        synchronized (startupBacklog) {
+            rulesCompiled.countDown();
+            buffered = new ArrayList<>(startupBacklog.values());
+            startupBacklog.clear();
+        }
+        for (HttpResponseReceived response : buffered) {
+            if (!acceptingResponses.get()) break;
+            queueLiveResponse(response);
+        }
+        return buffered.size();
+    }
+
+    // Holds a live response until the rules are compiled; false once they are
+    private boolean bufferUntilRulesCompiled(HttpResponseReceived responseReceived) {
+        synchronized (startupBacklog) {
+            if (rulesCompiled.getCount() == 0) return false;
+            String url = responseReceived.initiatingRequest().url();
+            if (startupBacklog.size() >= STARTUP_BACKLOG_LIMIT && !startupBacklog.containsKey(url)) {
+                recordDroppedResponse();
+            } else {
+                startupBacklog.put(url, responseReceived);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Sheds or restores load for a new heap pressure level, on the auto-save thread.
+     * Each step keeps the ones before it: bulk scans wait, full evidence messages are
+     * released down to their match windows, the scan dedup cache shrinks, and finally
+     * live responses are passed through unscanned.
+     */
+    private void applyHeapPressure(HeapPressureMonitor.Level level) {
+        HeapPressureMonitor.Level previous = heapPressure;
+        heapPressure = level;
+        resultsTab.setEvidenceReduced(level.atLeast(HeapPressureMonitor.Level.DROP_EVIDENCE));
+        if (level.atLeast(HeapPressureMonitor.Level.SHRINK_CACHES)) {
+            dedupCacheLimit = DEDUP_CACHE_SIZE_UNDER_PRESSURE;
+            synchronized (responseDedupCache) {
+                Iterator<String> eldest = responseDedupCache.keySet().iterator();
+                while (responseDedupCache.size() > dedupCacheLimit && eldest.hasNext()) {
+                    eldest.next();
+                    eldest.remove();
+                }
+            }
+        } else {
+            dedupCacheLimit = DEDUP_CACHE_SIZE;
+        }
+
+        String heap = String.format("%.0f%%", heapMonitor.usedFraction() * 100);
+        if (level == HeapPressureMonitor.Level.NORMAL) {
+            resultsTab.showPressureStatus(null);
+            long shed = shedResponses.getAndSet(0);
+            log(LogLevel.INFO, "Heap pressure cleared (" + heap + " used after GC); scanning resumed"
+                + (shed > 0 ? ", " + shed + " live response(s) were skipped." : "."));
+            return;
+        }
+        resultsTab.showPressureStatus("Low memory (" + heap + "): " + level.description());
+        log(level.ordinal() > previous.ordinal() ? LogLevel.WARN : LogLevel.INFO,
+            "Heap " + heap + " used after GC: " + level.description() + ".");
+    }
+
+    // Bulk enumeration holds here while heap pressure has bulk scans paused
+    private void awaitBulkHeadroom() {
+        while (heapPressure.atLeast(HeapPressureMonitor.Level.PAUSE_BULK) && acceptingResponses.get()) {
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Queues a task on the auto-save thread, after any save already running there.
+     *
+     * @return false when the extension is unloading and the task will not run
+     */
+    public boolean runOnAutoSaveThread(Runnable task) {
+        try {
+            autoSaveScheduler.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    public ScanMetrics metrics() { return metrics; }
+    public RuleProfiler ruleProfiler() { return ruleProfiler; }
+    public RuleGovernor ruleGovernor() { return ruleGovernor; }
+
     public void setLogLevel(LogLevel level) { this.currentLogLevel = level; }
+
+    public void setDeferLiveExtraction(boolean defer) {
+        this.deferLiveExtraction = defer;
+    }
+
+    public void setScanBudget(int millis) {
+        this.scanBudgetNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    public void setFlightRecorderEvents(boolean on) {
+        if (on == ScanEvents.enabled()) return;
+        if (ScanEvents.setEnabled(on)) {
+            log(LogLevel.INFO, "Flight Recorder events enabled (category \"JS Miner Pro\").");
+        } else if (on) {
+            log(LogLevel.WARN, "Flight Recorder is not available in this Java runtime; events stay off.");
+        } else {
+            log(LogLevel.INFO, "Flight Recorder events disabled.");
+        }
+    }
     public LogLevel getLogLevel()           { return currentLogLevel; }
 
-    public void updateFindingRetentionOptions(int globalLimit, int perHostLimit,
-                                              boolean persistRawHttp, boolean clearOnProjectClose) {
+    public void updateFindingRetentionOptions(int findingsMemoryMb, int perHostLimit, boolean persistRawHttp,
+                                              boolean clearOnProjectClose, boolean overflowToDisk, int evidenceMemoryMb) {
         this.clearFindingsOnProjectClose = clearOnProjectClose;
-        if (resultsTab != null) resultsTab.setRetentionOptions(globalLimit, perHostLimit, persistRawHttp);
+        if (resultsTab != null) {
+            resultsTab.setRetentionOptions((long) findingsMemoryMb << 20, perHostLimit, persistRawHttp, overflowToDisk,
+                (long) evidenceMemoryMb << 20);
+        }
     }
 
     public void log(LogLevel level, String message) {
@@ -127,8 +400,8 @@ public class JsMinerExtension implements BurpExtension, HttpHandler, ExtensionUn
         }
     }
 
-    // Atomically replaces the noise pattern list — background threads always
-    // see either the old complete list or the new one, never a partial build.
+    // Atomically replaces the compiled noise filter and rules — background threads
+    // always see either the old complete config or the new one, never a partial build.
     public void updateScannerConfig(boolean scopeOnly, double maxFileSizeMb, String[] mimeTypes,
                                     String[] noisePatternStrings, List<String> noiseDomains,
                                     List<String> modulePrefixes, List<RegexRule> rules) {
@@ -143,24 +416,79 @@ public class JsMinerExtension implements BurpExtension, HttpHandler, ExtensionUn
         }
 
         List<CompiledRule> compiledRules = new ArrayList<>();
+        Set<String> ruleIds = new HashSet<>();
         for (RegexRule rule : rules) {
+            ruleIds.add(rule.getId());
             if (!rule.isActive()) continue;
             Pattern pattern = rule.getPattern();
             if (pattern == null) {
                 log(LogLevel.WARN, "Invalid rule skipped: " + rule.getName() + " (" + rule.getPatternError() + ")");
                 continue;
             }
-            compiledRules.add(new CompiledRule(rule.getName(), rule.getType(), rule.getSeverity(), rule.getEntropyPolicy(), pattern));
+            compiledRules.add(new CompiledRule(rule.getId(), rule.getVersion(), rule.getName(), rule.getType(), rule.getSeverity(),
+                rule.getEntropyPolicy(), pattern, ruleProfiler.profile(rule.getId()), ruleGovernor.control(rule.getId(), rule.getName())));
         }
+        // Deactivated rules keep their history; deleted ones take it with them
+        ruleProfiler.retainOnly(ruleIds);
+        ruleGovernor.retainOnly(ruleIds);
 
         long maxBytes = Double.isFinite(maxFileSizeMb) && maxFileSizeMb >= 0
             ? (long) (maxFileSizeMb * 1_000_000) : 2_000_000L;
-        String rulesetVersion = Integer.toHexString(compiledRules.hashCode());
-        activeConfig.set(new ScannerConfig(scopeOnly, maxBytes, normalize(mimeTypes), rulesetVersion, List.copyOf(noisePatterns),
-            List.copyOf(noiseDomains), List.copyOf(modulePrefixes), List.copyOf(compiledRules)));
+        // Built from the per-rule versions, so reordering the table or re-saving unchanged rules keeps it
+        Set<String> ruleKeys = new HashSet<>();
+        for (CompiledRule rule : compiledRules) ruleKeys.add(rule.key());
+        String rulesetVersion = EvidenceRecord.sha256(String.join("\n", ruleKeys.stream().sorted().toList())).substring(0, 16);
+        rulesetHistory.put(rulesetVersion, Set.copyOf(ruleKeys));
+        NoiseFilter noise = NoiseFilter.compile(noisePatterns, noiseDomains, modulePrefixes);
+        ScannerConfig next = new ScannerConfig(scopeOnly, maxBytes, normalize(mimeTypes), rulesetVersion, noise,
+            prioritize(compiledRules, ruleProfiler.stats()));
+        // Scans still running on the old settings stop at their next check and keep what they found
+        if (!next.sameResults(activeConfig.getAndSet(next))) scanScope.cancelAll();
+        if (ruleBaseline == null) ruleBaseline = loadRuleBaseline(next);
+    }
+
+    // The stored baseline, or the first ruleset applied in a project that has none yet
+    private List<RulesetDelta.RuleVersion> loadRuleBaseline(ScannerConfig config) {
+        try {
+            String json = api.persistence().extensionData().getString(RULE_BASELINE_KEY);
+            if (json != null && !json.isEmpty()) {
+                List<RulesetDelta.RuleVersion> stored = new Gson().fromJson(json,
+                    new TypeToken<List<RulesetDelta.RuleVersion>>(){}.getType());
+                if (stored != null) return List.copyOf(stored);
+            }
+        } catch (Exception e) {
+            log(LogLevel.WARN, "Stored rule baseline unreadable, starting from the current rules: " + e.getMessage());
+        }
+        List<RulesetDelta.RuleVersion> current = config.ruleVersions();
+        saveRuleBaseline(current);
+        return current;
+    }
+
+    private void saveRuleBaseline(List<RulesetDelta.RuleVersion> baseline) {
+        try {
+            api.persistence().extensionData().setString(RULE_BASELINE_KEY, new Gson().toJson(baseline));
+        } catch (Exception e) {
+            log(LogLevel.WARN, "Failed to save rule baseline: " + e.getMessage());
+        }
+    }
+
+    private List<CompiledRule> prioritize(List<CompiledRule> rules, Map<String, RuleProfiler.Stats> stats) {
+        return List.copyOf(ruleGovernor.prioritize(rules, CompiledRule::id, CompiledRule::severity, stats));
+    }
+
+    // Follows the measured stats: match caps from noise rates, evaluation order from severity and selectivity
+    private void retuneRules() {
+        try {
+            Map<String, RuleProfiler.Stats> stats = ruleProfiler.stats();
+            ruleGovernor.refresh(stats);
+            activeConfig.updateAndGet(config -> config.withRules(prioritize(config.rules(), stats)));
+        } catch (RuntimeException e) {
+            log(LogLevel.DEBUG, "Rule retuning failed: " + e.getMessage());
+        }
     }
 
     private void recordDroppedResponse() {
+        metrics.responseDropped();
         long dropped = droppedResponses.incrementAndGet();
         long now = System.currentTimeMillis();
         long previous = lastDropWarningMillis.get();
@@ -178,16 +506,16 @@ public class JsMinerExtension implements BurpExtension, HttpHandler, ExtensionUn
     }
 
 
-    // Single shared gate used by both live handler and proxy history scanner
-    private boolean shouldAnalyze(String url, HttpResponse response, ScannerConfig config) {
-        if (config.scopeOnly() && !api.scope().isInScope(url)) return false;
-        if (!isMimeTypeAllowed(response, url, config)) return false;
+    // Single shared gate used by both live handler and bulk scanner; null when the response passes
+    private ScanMetrics.Gate gateResponse(String url, HttpResponse response, ScannerConfig config) {
+        if (config.scopeOnly() && !api.scope().isInScope(url)) return ScanMetrics.Gate.OUT_OF_SCOPE;
+        if (!isMimeTypeAllowed(response, url, config)) return ScanMetrics.Gate.MIME_TYPE;
         // Use byte length (not char length) to avoid chars-vs-bytes mismatch bug
         if (response.body().length() > config.maxBytes()) {
             log(LogLevel.DEBUG, "Skipping oversized file (" + response.body().length() + " bytes): " + url);
-            return false;
+            return ScanMetrics.Gate.OVERSIZE;
         }
-        return true;
+        return null;
     }
 
     public void scanProxyHistory() {
@@ -195,53 +523,215 @@ public class JsMinerExtension implements BurpExtension, HttpHandler, ExtensionUn
     }
 
     public void scanProxyHistory(Runnable completion) {
-        if (!historyScanRunning.compareAndSet(false, true)) {
-            log(LogLevel.WARN, "Proxy history scan already running.");
+        scanBulk(List.of(new ProxyHistorySource(api)), BulkScanFilter.ALL, completion);
+    }
+
+    public List<BulkSource> bulkSources() {
+        return List.of(new SiteMapSource(api), new ProxyHistorySource(api));
+    }
+
+    /**
+     * Feeds items from each source into the shared analysis pool. At most
+     * BULK_IN_FLIGHT items are being decoded and scanned at once, which bounds the
+     * body text and match state a bulk scan holds. The sources themselves cannot be
+     * paged: Burp returns the whole (filtered) list of item handles up front, so that
+     * list is held for the length of each source's pass.
+     */
+    public void scanBulk(List<BulkSource> sources, BulkScanFilter filter, Runnable completion) {
+        if (!bulkScanRunning.compareAndSet(false, true)) {
+            log(LogLevel.WARN, "Bulk scan already running.");
             SwingUtilities.invokeLater(completion);
             return;
         }
-        try {
-            executorService.submit(() -> {
+        String sourceNames = sources.stream().map(BulkSource::name).collect(java.util.stream.Collectors.joining(" + "));
+        Thread enumerator = new Thread(() -> {
+            Semaphore inFlight = new Semaphore(BULK_IN_FLIGHT);
+            AtomicInteger scanned = new AtomicInteger();
+            AtomicInteger matched = new AtomicInteger();
             try {
-            log(LogLevel.INFO, "Starting proxy history scan...");
-            List<ProxyHttpRequestResponse> history = api.proxy().history();
-            int scanned = 0, matched = 0;
-
-            for (ProxyHttpRequestResponse item : history) {
-                try {
-                    if (item.finalRequest() == null || item.response() == null) continue;
-                    String url = item.finalRequest().url();
-                    HttpResponse response = item.response();
-                    ScannerConfig config = activeConfig.get();
-                    if (!shouldAnalyze(url, response, config)) continue;
-                    String body = response.bodyToString();
-                    if (body == null || body.isEmpty()) continue;
-                    if (!isMostlyPrintable(body)) continue;
-                    if (!shouldScanResponse(url, body, config)) continue;
-                    scanned++;
-                    HttpRequestResponse reqResp = HttpRequestResponse.httpRequestResponse(item.finalRequest(), response);
-                    if (analyzeContent(url, body, reqResp, config) > 0) matched++;
-                } catch (Exception e) {
-                    log(LogLevel.DEBUG, "Error processing history item: " + e.getMessage());
+                if (rulesCompiled.getCount() > 0) {
+                    log(LogLevel.INFO, "Bulk scan waiting for rules to compile...");
+                    rulesCompiled.await();
                 }
-            }
+                log(LogLevel.INFO, "Starting bulk scan of " + sourceNames + " (" + filter + ")...");
+                for (BulkSource source : sources) {
+                    source.enumerate(filter, item -> submitBulkItem(item, inFlight, scanned, matched));
+                    if (!acceptingResponses.get()) break;
+                }
+                inFlight.acquireUninterruptibly(BULK_IN_FLIGHT);
 
-            final int fs = scanned, fm = matched;
-            log(LogLevel.INFO, "Scan complete. Scanned: " + fs + ", Matched: " + fm);
-            SwingUtilities.invokeLater(() ->
-                JOptionPane.showMessageDialog(resultsTab,
-                    "Scan complete!\n\nScanned: " + fs + " items\nItems with matches: " + fm,
-                    "Proxy History Scan", JOptionPane.INFORMATION_MESSAGE)
-            );
+                final int fs = scanned.get(), fm = matched.get();
+                log(LogLevel.INFO, "Scan complete. Scanned: " + fs + ", Matched: " + fm);
+                if (acceptingResponses.get()) {
+                    SwingUtilities.invokeLater(() ->
+                        JOptionPane.showMessageDialog(resultsTab,
+                            "Scan complete!\n\nScanned: " + fs + " items\nItems with matches: " + fm,
+                            sourceNames + " Scan", JOptionPane.INFORMATION_MESSAGE)
+                    );
+                }
+            } catch (Exception e) {
+                log(LogLevel.ERROR, "Bulk scan failed: " + e.getMessage());
             } finally {
-                historyScanRunning.set(false);
+                bulkScanRunning.set(false);
                 SwingUtilities.invokeLater(completion);
             }
+        }, "jsminer-bulk-scan");
+        enumerator.setDaemon(true);
+        enumerator.start();
+    }
+
+    private boolean submitBulkItem(HttpRequestResponse item, Semaphore inFlight,
+                                   AtomicInteger scanned, AtomicInteger matched) {
+        if (!acceptingResponses.get()) return false;
+        metrics.responseSeen();
+        return submitBounded(inFlight, "bulk", () -> {
+            int result = scanResponse(item.request(), item.response(), false);
+            if (result != NOT_SCANNED) scanned.incrementAndGet();
+            if (result > 0) matched.incrementAndGet();
         });
+    }
+
+    // Runs scan on the pool once one of the in-flight permits is free
+    private boolean submitBounded(Semaphore inFlight, String source, Runnable scan) {
+        awaitBulkHeadroom();
+        inFlight.acquireUninterruptibly();
+        long queuedAt = System.nanoTime();
+        Runnable task = () -> {
+            metrics.queueWait(System.nanoTime() - queuedAt);
+            try {
+                scan.run();
+            } catch (Exception e) {
+                log(LogLevel.DEBUG, "Error processing " + source + " item: " + e.getMessage());
+            } finally {
+                inFlight.release();
+            }
+        };
+        try {
+            executorService.submit(task);
+            metrics.responseQueued();
         } catch (RejectedExecutionException e) {
-            historyScanRunning.set(false);
+            // Queue is saturated by live traffic — scan on the enumerator thread instead of dropping.
+            if (executorService.isShutdown()) {
+                inFlight.release();
+                return false;
+            }
+            ScanEvents.queueRejected(source, metrics.queueDepth(), true);
+            task.run();
+        }
+        return true;
+    }
+
+    /** Rules added, changed or removed since the stored findings were last brought up to date. */
+    public RulesetDelta pendingRuleChanges() {
+        return pendingRuleChanges(activeConfig.get());
+    }
+
+    private RulesetDelta pendingRuleChanges(ScannerConfig config) {
+        List<RulesetDelta.RuleVersion> baseline = ruleBaseline;
+        return RulesetDelta.between(baseline != null ? baseline : config.ruleVersions(), config.ruleVersions());
+    }
+
+    /**
+     * Brings the stored findings up to date with the current rules without a full re-mine:
+     * findings of removed and changed rules are retracted, then the evidence behind the stored
+     * findings is scanned with the added and changed rules only. Responses that never produced
+     * a finding have no stored evidence and are left to the next live or bulk scan.
+     */
+    public void rescanChangedRules(Runnable completion) {
+        if (!bulkScanRunning.compareAndSet(false, true)) {
+            log(LogLevel.WARN, "Bulk scan already running.");
             SwingUtilities.invokeLater(completion);
+            return;
         }
+        Thread rescanner = new Thread(() -> {
+            try {
+                rulesCompiled.await();
+                ScannerConfig config = activeConfig.get();
+                RulesetDelta delta = pendingRuleChanges(config);
+                if (delta.isEmpty()) {
+                    log(LogLevel.INFO, "No rule changes to rescan.");
+                    return;
+                }
+                Set<String> changedIds = delta.idsToRun();
+                List<CompiledRule> changed = config.rules().stream().filter(rule -> changedIds.contains(rule.id())).toList();
+                AtomicInteger scanned = new AtomicInteger();
+                AtomicInteger matched = new AtomicInteger();
+                AtomicInteger unavailable = new AtomicInteger();
+                // Taken before retracting: the retracted findings may be the only ones holding their evidence
+                List<EvidenceRecord> evidence = new ArrayList<>();
+                Set<String> rescannedIds = new HashSet<>();
+                for (EvidenceRecord record : changed.isEmpty() ? List.<EvidenceRecord>of() : resultsTab.evidenceSnapshot()) {
+                    if (!record.hasMessages()) {
+                        unavailable.incrementAndGet();
+                        continue;
+                    }
+                    evidence.add(record);
+                    rescannedIds.add(record.getId());
+                }
+                // Before the rescan, so stale findings cannot shadow new ones with the same key;
+                // a modified rule keeps its findings on responses that cannot be scanned again
+                Set<String> removedNames = delta.removedRuleNames();
+                Set<String> supersededNames = delta.supersededRuleNames();
+                int retracted = resultsTab.retractFindings(finding -> removedNames.contains(finding.getRuleName())
+                    || supersededNames.contains(finding.getRuleName()) && rescannedIds.contains(finding.getEvidenceId()));
+                log(LogLevel.INFO, "Rescanning with changed rules (" + delta + "): " + retracted + " finding(s) retracted, "
+                    + (changed.isEmpty() ? "nothing to rescan." : evidence.size() + " stored response(s) to scan with "
+                    + changed.size() + " rule(s)..."));
+
+                if (!changed.isEmpty()) {
+                    ScannerConfig changedOnly = config.withRules(changed);
+                    Semaphore inFlight = new Semaphore(BULK_IN_FLIGHT);
+                    for (EvidenceRecord record : evidence) {
+                        if (!acceptingResponses.get()) break;
+                        submitBounded(inFlight, "rescan", () -> {
+                            int result = rescanEvidence(record, changedOnly);
+                            if (result == NOT_SCANNED) unavailable.incrementAndGet();
+                            else scanned.incrementAndGet();
+                            if (result > 0) matched.incrementAndGet();
+                        });
+                    }
+                    inFlight.acquireUninterruptibly(BULK_IN_FLIGHT);
+                }
+                if (!acceptingResponses.get()) return;
+                // The rules that ran become the new baseline; edits made meanwhile show up as pending again
+                ruleBaseline = config.ruleVersions();
+                saveRuleBaseline(ruleBaseline);
+
+                final int fs = scanned.get(), fm = matched.get(), fu = unavailable.get();
+                log(LogLevel.INFO, "Changed-rule rescan complete. Scanned: " + fs + ", Matched: " + fm
+                    + ", Retracted: " + retracted + (fu > 0 ? ", Evidence unavailable: " + fu : ""));
+                SwingUtilities.invokeLater(() ->
+                    JOptionPane.showMessageDialog(resultsTab,
+                        "Rescan complete!\n\nRule changes: " + delta + "\nFindings retracted: " + retracted
+                            + "\nStored responses scanned: " + fs + "\nResponses with new matches: " + fm
+                            + (fu > 0 ? "\nResponses without stored HTTP messages: " + fu : ""),
+                        "Rescan with Changed Rules", JOptionPane.INFORMATION_MESSAGE));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log(LogLevel.ERROR, "Changed-rule rescan failed: " + e.getMessage());
+            } finally {
+                bulkScanRunning.set(false);
+                SwingUtilities.invokeLater(completion);
+            }
+        }, "jsminer-rule-rescan");
+        rescanner.setDaemon(true);
+        rescanner.start();
+    }
+
+    // Scans the message behind one stored evidence record, whether live, spilled or persisted
+    private int rescanEvidence(EvidenceRecord record, ScannerConfig config) {
+        HttpRequest request = record.getRequest();
+        HttpResponse response = record.getResponse();
+        if (request == null || response == null) return NOT_SCANNED;
+        String body = response.bodyToString();
+        if (body == null || body.isEmpty()) return NOT_SCANNED;
+        HttpRequestResponse reqResp = record.getRequestResponse() != null
+            ? record.getRequestResponse() : HttpRequestResponse.httpRequestResponse(request, response);
+        ScanBudget budget = scanScope.start(scanBudgetNanos);
+        int findings = analyzeContent(record.getUrl(), body, reqResp, config, budget, ScanPhase.ALL, MAX_FINDINGS_PER_RESPONSE);
+        if (budget.reason() != null) recordTruncatedScan(record.getUrl(), dedupKey(record.getUrl(), body), budget.reason(), findings);
+        return findings;
     }
 
     private boolean isMimeTypeAllowed(HttpResponse response, String url, ScannerConfig config) {
@@ -280,21 +770,37 @@ public class JsMinerExtension implements BurpExtension, HttpHandler, ExtensionUn
         return printable >= checked * 0.85;
     }
 
-    private boolean shouldScanResponse(String url, String body, ScannerConfig config) {
-        String canonicalUrl = canonicalUrl(url);
-        String key = canonicalUrl + "\n" + EvidenceRecord.responseHash(body) + "\n" + config.rulesetVersion();
-        synchronized (responseDedupCache) {
-            if (responseDedupCache.containsKey(key)) return false;
-            responseDedupCache.put(key, Boolean.TRUE);
-            return true;
+    private String dedupKey(String url, String body) {
+        return canonicalUrl(url) + "\n" + EvidenceRecord.responseHash(body);
+    }
+
+    /**
+     * The rules a response still needs and records that it got them: none when this ruleset
+     * already scanned it, only the rules a recent earlier ruleset lacked, otherwise all.
+     */
+    private List<CompiledRule> rulesToScan(String key, ScannerConfig config) {
+        String previous = responseDedupCache.put(key, config.rulesetVersion());
+        if (previous == null) return config.rules();
+        if (previous.equals(config.rulesetVersion())) return List.of();
+        Set<String> scanned = rulesetHistory.get(previous);
+        if (scanned == null) return config.rules();
+        List<CompiledRule> missing = new ArrayList<>();
+        for (CompiledRule rule : config.rules()) {
+            if (!scanned.contains(rule.key())) missing.add(rule);
         }
+        return missing;
     }
 
     private String canonicalUrl(String url) {
         return url.split("\\?", 2)[0];
     }
 
-    int analyzeContent(String url, String responseBody, HttpRequestResponse reqResp, ScannerConfig config) {
+    /**
+     * Runs the phase's rules over the body until the budget is spent or maxFindings are
+     * kept. Findings from an interrupted scan are still kept, marked truncated.
+     */
+    int analyzeContent(String url, String responseBody, HttpRequestResponse reqResp, ScannerConfig config, ScanBudget budget,
+                       ScanPhase phase, int maxFindings) {
         int count = 0;
         String responseHash = EvidenceRecord.responseHash(responseBody);
         // Evidence must identify the actual request, including its query parameters and headers.
@@ -302,36 +808,65 @@ public class JsMinerExtension implements BurpExtension, HttpHandler, ExtensionUn
         String rawRequest = reqResp.request() != null ? reqResp.request().toString() : "";
         String evidenceId = EvidenceRecord.evidenceId(rawRequest, responseHash);
         List<ResultsTab.FindingCandidate> candidates = new ArrayList<>();
-        // getRules() returns a defensive copy — safe to iterate on background thread
+        // Kept findings carry only the rule name; the first rule to produce a name is credited
+        Map<String, RuleProfiler.Profile> producers = new HashMap<>();
+        CharSequence input = responseBody.length() >= GUARDED_BODY_CHARS ? budget.guard(responseBody) : responseBody;
+        String host = UrlUtils.host(url);
+        // Immutable list in evaluation order — safe to iterate on background thread
         for (CompiledRule rule : config.rules()) {
-
+            if (!phase.includes(rule)) continue;
+            if (budget.spent()) break;
+            if (rule.control().suspended(host)) continue;
+            long ruleStarted = System.nanoTime();
+            ScanEvents.RuleEvaluated ruleEvent = ScanEvents.ruleStarted();
+            int matchCount = 0, afterNoise = 0;
             try {
-                List<MatchResult> matches = findMatches(rule.pattern(), responseBody, MAX_MATCHES_PER_RULE);
+                List<MatchResult> matches = findMatches(rule.pattern(), input, rule.control().matchCap(), budget);
+                matchCount = matches.size();
                 for (MatchResult match : matches) {
                     String finding = match.finding;
-                    if (isNoise(config, rule.type(), finding)) continue;
+                    if (config.noise().isNoise(rule.type(), finding)) continue;
+                    afterNoise++;
 
                     // Entropy-assisted severity correction
                     String effectiveSeverity = applyEntropyPolicy(rule.severity(), rule.type(), rule.entropyPolicy(), finding);
                     if (effectiveSeverity == null) continue;
 
                     // Context window around the match
-                    String context = extractContext(responseBody, match.start, match.end);
+                    String context = Finding.extractContext(responseBody, match.start, match.end);
 
                     candidates.add(new ResultsTab.FindingCandidate(rule.type(), finding, rule.name(), url, evidenceId, responseHash,
                         reqResp, match.start, match.end, effectiveSeverity, context));
+                    producers.putIfAbsent(rule.name(), rule.profile());
                     count++;
-                    if (count >= MAX_FINDINGS_PER_RESPONSE) {
+                    if (count >= maxFindings) {
                         log(LogLevel.WARN, "Finding cap reached on: " + url);
-                        resultsTab.addFindingsBatch(candidates);
-                        return count;
+                        break;
                     }
                 }
             } catch (Exception e) {
                 log(LogLevel.DEBUG, "Regex error for rule '" + rule.name() + "': " + e.getMessage());
+            } finally {
+                rule.profile().record(System.nanoTime() - ruleStarted, responseBody.length(), matchCount, afterNoise);
+                if (ruleEvent != null) ruleEvent.finish(rule.name(), responseBody.length(), matchCount, afterNoise);
             }
+            // A pass cut short by the budget says nothing about the rule
+            if (budget.reason() == null) {
+                RuleGovernor.Suppression suspended = rule.control().recordScan(host, matchCount, afterNoise);
+                if (suspended != null) {
+                    log(LogLevel.INFO, "Rule '" + rule.name() + "' suspended on " + host + " for "
+                        + TimeUnit.MILLISECONDS.toMinutes(suspended.untilMillis() - suspended.atMillis())
+                        + " min: hit its " + suspended.matchCap() + "-match cap with only noise on several responses in a row.");
+                }
+            }
+            if (count >= maxFindings) break;
+        }
+        List<Finding> kept = resultsTab.addFindingsBatch(candidates, budget.reason() != null);
+        metrics.findingsKept(kept.size());
+        for (Finding finding : kept) {
+            RuleProfiler.Profile producer = producers.get(finding.getRuleName());
+            if (producer != null) producer.findingKept();
         }
-        resultsTab.addFindingsBatch(candidates);
         return count;
     }
 
@@ -351,20 +886,19 @@ public class JsMinerExtension implements BurpExtension, HttpHandler, ExtensionUn
         return declared;
     }
 
-    private String extractContext(String body, int start, int end) {
-        int ctxStart = Math.max(0, start - CONTEXT_WINDOW);
-        int ctxEnd   = Math.min(body.length(), end + CONTEXT_WINDOW);
-        return body.substring(ctxStart, ctxEnd).replaceAll("[\\s]+", " ").trim();
-    }
-
-    private List<MatchResult> findMatches(Pattern pattern, String input, int maxMatches) {
+    // Returns the matches found before the budget ran out; the budget records that it did
+    private List<MatchResult> findMatches(Pattern pattern, CharSequence input, int maxMatches, ScanBudget budget) {
         List<MatchResult> matches = new ArrayList<>();
         Matcher matcher = pattern.matcher(input);
-        while (matcher.find()) {
-            int groupIndex = extractPreferredGroupIndex(matcher);
-            String finding = matcher.group(groupIndex);
-            matches.add(new MatchResult(finding, matcher.start(groupIndex), matcher.end(groupIndex)));
-            if (matches.size() >= maxMatches) break;
+        try {
+            while (matcher.find()) {
+                int groupIndex = extractPreferredGroupIndex(matcher);
+                String finding = matcher.group(groupIndex);
+                matches.add(new MatchResult(finding, matcher.start(groupIndex), matcher.end(groupIndex)));
+                if (matches.size() >= maxMatches || budget.spent()) break;
+            }
+        } catch (ScanBudget.Exhausted e) {
+            // Preempted inside a match on a guarded body
         }
         return matches;
     }
@@ -384,26 +918,6 @@ public class JsMinerExtension implements BurpExtension, HttpHandler, ExtensionUn
         }
     }
 
-    private boolean isNoise(ScannerConfig config, String type, String finding) {
-        if (finding == null || finding.length() < 5) return true;
-        // Atomic read — always a complete, immutable snapshot
-        for (Pattern noise : config.noisePatterns()) {
-            try { if (noise.matcher(finding).find()) return true; }
-            catch (Exception ignored) { }
-        }
-        if ("URL".equals(type) || "ENDPOINT".equals(type)) {
-            for (String domain : config.noiseDomains()) {
-                if (finding.contains(domain)) return true;
-            }
-        }
-        if ("ENDPOINT".equals(type) || "FILE".equals(type)) {
-            for (String prefix : config.modulePrefixes()) {
-                if (finding.startsWith(prefix)) return true;
-            }
-        }
-        return false;
-    }
-
     @Override
     public RequestToBeSentAction handleHttpRequestToBeSent(HttpRequestToBeSent requestToBeSent) {
         return RequestToBeSentAction.continueWith(requestToBeSent);
@@ -412,32 +926,133 @@ public class JsMinerExtension implements BurpExtension, HttpHandler, ExtensionUn
     @Override
     public ResponseReceivedAction handleHttpResponseReceived(HttpResponseReceived responseReceived) {
         if (!acceptingResponses.get()) return ResponseReceivedAction.continueWith(responseReceived);
+        metrics.responseSeen();
+        if (heapPressure == HeapPressureMonitor.Level.PAUSE_LIVE) {
+            shedResponses.incrementAndGet();
+            metrics.responseGated(ScanMetrics.Gate.LOW_MEMORY);
+            return ResponseReceivedAction.continueWith(responseReceived);
+        }
+        if (rulesCompiled.getCount() > 0 && bufferUntilRulesCompiled(responseReceived)) {
+            return ResponseReceivedAction.continueWith(responseReceived);
+        }
+        queueLiveResponse(responseReceived);
+        return ResponseReceivedAction.continueWith(responseReceived);
+    }
+
+    private void queueLiveResponse(HttpResponseReceived responseReceived) {
+        long queuedAt = System.nanoTime();
         try {
-            executorService.submit(() -> analyzeResponse(responseReceived));
+            executorService.submit(() -> {
+                metrics.queueWait(System.nanoTime() - queuedAt);
+                analyzeResponse(responseReceived);
+            });
+            metrics.responseQueued();
         } catch (RejectedExecutionException e) {
-            // The rejection handler has already counted and rate-limited this drop.
+            if (executorService.isShutdown()) return;
+            ScanEvents.queueRejected("live", metrics.queueDepth(), false);
+            recordDroppedResponse();
         }
-        return ResponseReceivedAction.continueWith(responseReceived);
     }
 
     private void analyzeResponse(HttpResponseReceived responseReceived) {
-        String url = responseReceived.initiatingRequest().url();
+        scanResponse(responseReceived.initiatingRequest(), responseReceived, true);
+    }
+
+    // Shared by the live handler and bulk sources. Returns the number of findings,
+    // or NOT_SCANNED when the response was gated out before analysis.
+    private int scanResponse(HttpRequest request, HttpResponse response, boolean live) {
+        // Tasks still queued at unload are dropped rather than scanned
+        if (request == null || response == null || !acceptingResponses.get()) return NOT_SCANNED;
+        String url = request.url();
         ScannerConfig config = activeConfig.get();
-        if (!shouldAnalyze(url, responseReceived, config)) return;
-        String body = responseReceived.bodyToString();
-        if (body == null || body.isEmpty()) return;
-        if (!isMostlyPrintable(body)) return;
-        if (!shouldScanResponse(url, body, config)) return;
+        ScanMetrics.Gate gate = gateResponse(url, response, config);
+        String body = gate == null ? response.bodyToString() : null;
+        if (gate == null && (body == null || body.isEmpty())) gate = ScanMetrics.Gate.EMPTY;
+        if (gate == null && !isMostlyPrintable(body)) gate = ScanMetrics.Gate.BINARY;
+        if (gate != null) {
+            metrics.responseGated(gate);
+            return NOT_SCANNED;
+        }
+        String dedupKey = dedupKey(url, body);
+        List<CompiledRule> rules = rulesToScan(dedupKey, config);
+        if (rules.isEmpty()) {
+            metrics.responseDeduped();
+            return NOT_SCANNED;
+        }
+        if (rules.size() < config.rules().size()) {
+            log(LogLevel.DEBUG, "Rescanning " + url + " with " + rules.size() + " changed rule(s) only");
+            config = config.withRules(rules);
+        }
         log(LogLevel.DEBUG, "Analyzing: " + url);
-        HttpRequestResponse reqResp = HttpRequestResponse.httpRequestResponse(
-            responseReceived.initiatingRequest(), responseReceived);
-        analyzeContent(url, body, reqResp, config);
+        long started = System.nanoTime();
+        ScanEvents.ResponseScanned scanEvent = ScanEvents.responseScanStarted();
+        ScanBudget budget = scanScope.start(scanBudgetNanos);
+        HttpRequestResponse reqResp = HttpRequestResponse.httpRequestResponse(request, response);
+        // Live responses get the secret rules now and the rest once the scanner is idle,
+        // unless the deferred pass has no room for them. Both passes share one finding cap.
+        int findings, rulesRun;
+        if (live && deferLiveExtraction && config.anyDeferred() && !heapPressure.atLeast(HeapPressureMonitor.Level.DROP_EVIDENCE)) {
+            findings = analyzeContent(url, body, reqResp, config, budget, ScanPhase.SECRETS, MAX_FINDINGS_PER_RESPONSE);
+            rulesRun = ScanPhase.SECRETS.ruleCount(config);
+            int allowance = MAX_FINDINGS_PER_RESPONSE - findings;
+            if (allowance > 0 && !deferredScans.offer(new DeferredScan(url, body, reqResp, config, allowance), 2L * body.length())) {
+                findings += analyzeContent(url, body, reqResp, config, budget, ScanPhase.DEFERRED, allowance);
+                rulesRun = config.rules().size();
+            }
+        } else {
+            findings = analyzeContent(url, body, reqResp, config, budget, ScanPhase.ALL, MAX_FINDINGS_PER_RESPONSE);
+            rulesRun = config.rules().size();
+        }
+        metrics.responseScanned(response.body().length(), System.nanoTime() - started);
+        if (budget.reason() != null) recordTruncatedScan(url, dedupKey, budget.reason(), findings);
+        if (scanEvent != null) scanEvent.finish(UrlUtils.host(url), response.body().length(), rulesRun, findings);
+        return findings;
+    }
+
+    // The non-secret rules over a live response, on the deferred-scan thread
+    private void scanDeferred(DeferredScan item) {
+        if (!acceptingResponses.get()) return;
+        // Rules edited since the secret pass apply in full
+        ScannerConfig current = activeConfig.get();
+        ScannerConfig config = item.config().sameResults(current) ? item.config() : current;
+        ScanBudget budget = scanScope.start(scanBudgetNanos);
+        try {
+            int findings = analyzeContent(item.url(), item.body(), item.reqResp(), config, budget, ScanPhase.DEFERRED,
+                item.findingAllowance());
+            if (budget.reason() != null) {
+                recordTruncatedScan(item.url(), dedupKey(item.url(), item.body()), budget.reason(), findings);
+            }
+        } catch (Exception e) {
+            log(LogLevel.DEBUG, "Deferred scan failed for " + item.url() + ": " + e.getMessage());
+        }
+    }
+
+    private void recordTruncatedScan(String url, String dedupKey, ScanBudget.Reason reason, int findings) {
+        metrics.responseTruncated();
+        if (reason == ScanBudget.Reason.CANCELLED) {
+            // Not a property of the response, so the next copy of it is scanned in full
+            responseDedupCache.remove(dedupKey);
+            log(LogLevel.DEBUG, "Scan of " + url + " cancelled; " + findings + " finding(s) kept, marked truncated.");
+        } else {
+            log(LogLevel.WARN, "Scan of " + url + " stopped at its " + TimeUnit.NANOSECONDS.toMillis(scanBudgetNanos)
+                + " ms budget; " + findings + " finding(s) from the rules that ran kept, marked truncated.");
+        }
     }
 
     @Override
     public void extensionUnloaded() {
         log(LogLevel.INFO, "JS Miner Pro unloading...");
         acceptingResponses.set(false);
+        scanScope.cancelAll();
+        if (deferredScans != null) {
+            int discarded = deferredScans.close();
+            if (discarded > 0) log(LogLevel.INFO, discarded + " deferred endpoint scan(s) discarded on unload.");
+        }
+        stopStartup();
+        if (heapMonitor != null) heapMonitor.close();
+        if (performanceTab != null) performanceTab.stop();
+        if (configTab != null) configTab.stop();
+        ScanEvents.setEnabled(false);
         shutdownPool(autoSaveScheduler, "auto-save scheduler");
         shutdownPool(executorService, "analysis pool");
         drainPendingFindingBatches();
@@ -446,16 +1061,33 @@ public class JsMinerExtension implements BurpExtension, HttpHandler, ExtensionUn
                 resultsTab.clearPersistedFindings();
                 log(LogLevel.INFO, "Persisted findings cleared on unload.");
             } else {
-                resultsTab.saveAllFindings();
+                resultsTab.flushPersistedChanges();
                 log(LogLevel.INFO, "Findings saved on unload.");
             }
+            resultsTab.closeStorage();
         }
     }
 
+    private void stopStartup() {
+        synchronized (startupBacklog) { startupBacklog.clear(); }
+        if (startupThread == null || !startupThread.isAlive()) return;
+        startupThread.interrupt();
+        try {
+            startupThread.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (startupThread.isAlive()) log(LogLevel.WARN, "Startup thread did not stop cleanly.");
+    }
+
     private void drainPendingFindingBatches() {
-        if (SwingUtilities.isEventDispatchThread()) return;
+        if (resultsTab == null) return;
+        if (SwingUtilities.isEventDispatchThread()) {
+            resultsTab.flushPendingUpdates();
+            return;
+        }
         try {
-            SwingUtilities.invokeAndWait(() -> { });
+            SwingUtilities.invokeAndWait(resultsTab::flushPendingUpdates);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             log(LogLevel.WARN, "Interrupted while draining pending finding updates.");
@@ -0,0 +1,147 @@
+package com.burp.custom.model;
+
+import burp.api.montoya.persistence.PersistedObject;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Content-addressed store for raw HTTP evidence in the project's extension data.
+ *
+ * Each distinct request or response is stored once, compressed, under the SHA-256 of
+ * its text; evidence records hold only that ID. Many findings share a handful of
+ * bundles, so this keeps one copy per bundle however many findings or evidence records
+ * point at it. Blobs are never rewritten; unreferenced ones are removed by
+ * {@link #retainOnly}. Thread-safe.
+ */
+public class EvidenceBlobStore {
+
+    static final String PREFIX = "jsminer_blob_";
+    // Larger messages are not kept; scanned responses are bounded by the max file size anyway
+    static final int MAX_BLOB_CHARS = 10_000_000;
+    private static final byte FORMAT_DEFLATE = 1;
+
+    private final PersistedObject data;
+    // IDs present in the extension data; null until first needed
+    private Set<String> present;
+
+    public EvidenceBlobStore(PersistedObject data) {
+        this.data = data;
+    }
+
+    /**
+     * Stores {@code content} unless a blob with the same content exists.
+     *
+     * @return the blob ID, or null when there is nothing to store or it is too large
+     */
+    public String put(String content) {
+        if (content == null || content.length() > MAX_BLOB_CHARS) return null;
+        String id = EvidenceRecord.sha256(content);
+        synchronized (this) {
+            if (present().contains(id)) return id;
+        }
+        // Compress outside the lock; a racing put of the same content writes identical data
+        String encoded = Base64.getEncoder().encodeToString(compress(content));
+        synchronized (this) {
+            data.setString(PREFIX + id, encoded);
+            present().add(id);
+        }
+        return id;
+    }
+
+    /** @return the blob's content, or null if it is missing or unreadable */
+    public String get(String id) {
+        if (id == null) return null;
+        String encoded = data.getString(PREFIX + id);
+        if (encoded == null || encoded.isEmpty()) return null;
+        try {
+            return decompress(Base64.getDecoder().decode(encoded));
+        } catch (IllegalArgumentException | DataFormatException e) {
+            return null;
+        }
+    }
+
+    public synchronized boolean contains(String id) {
+        return id != null && present().contains(id);
+    }
+
+    public synchronized int size() {
+        return present().size();
+    }
+
+    /**
+     * Deletes every blob not in {@code live}.
+     *
+     * @return the number of blobs deleted
+     */
+    public synchronized int retainOnly(Set<String> live) {
+        int deleted = 0;
+        for (String id : Set.copyOf(present())) {
+            if (live.contains(id)) continue;
+            data.deleteString(PREFIX + id);
+            present.remove(id);
+            deleted++;
+        }
+        return deleted;
+    }
+
+    public synchronized void deleteAll() {
+        retainOnly(Set.of());
+    }
+
+    private Set<String> present() {
+        if (present == null) {
+            present = new HashSet<>();
+            for (String key : data.stringKeys()) {
+                if (key.startsWith(PREFIX)) present.add(key.substring(PREFIX.length()));
+            }
+        }
+        return present;
+    }
+
+    // -------------------------------------------------------------------------
+    // Compression — a format byte, then a raw deflate stream at the fastest level
+    // -------------------------------------------------------------------------
+
+    static byte[] compress(String content) {
+        byte[] input = content.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, input.length / 4));
+            out.write(FORMAT_DEFLATE);
+            byte[] buffer = new byte[64 * 1024];
+            while (!deflater.finished()) out.write(buffer, 0, deflater.deflate(buffer));
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static String decompress(byte[] blob) throws DataFormatException {
+        if (blob.length == 0 || blob[0] != FORMAT_DEFLATE) throw new DataFormatException("Unknown evidence blob format");
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(blob, 1, blob.length - 1);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(blob.length * 4);
+            byte[] buffer = new byte[64 * 1024];
+            while (!inflater.finished()) {
+                int read = inflater.inflate(buffer);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated evidence blob");
+                }
+                out.write(buffer, 0, read);
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.burp.custom.model;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounds the heap held by full HTTP messages behind evidence records.
+ *
+ * Evidence lives in three tiers: the body windows around matches, always in heap
+ * (see {@link EvidenceRecord#retainWindow}); this LRU of full messages, holding newly
+ * captured and recently viewed records up to a byte budget; and the rest, spilled to
+ * Burp temp files or left in their persisted, compressed form. Records evicted from the
+ * LRU release their message outside the lock, since spilling writes to disk.
+ * Thread-safe.
+ */
+public class EvidenceCache {
+
+    private final LinkedHashMap<EvidenceRecord, Long> hot = new LinkedHashMap<>(64, 0.75f, true);
+    private long hotBytes;
+    private long budgetBytes;
+
+    public EvidenceCache(long budgetBytes) {
+        this.budgetBytes = Math.max(0, budgetBytes);
+    }
+
+    /** Adds a newly captured record with a live message, evicting the least recently used. */
+    public void admit(EvidenceRecord record) {
+        if (record == null) return;
+        put(record, record.heapBytes());
+    }
+
+    /**
+     * Marks a record as in use for display or a tool: a cached record becomes the most
+     * recently used, and a persisted one is parsed once and cached.
+     */
+    public void touch(EvidenceRecord record) {
+        if (record == null) return;
+        synchronized (this) {
+            if (hot.get(record) != null) return;
+        }
+        if (record.rehydrate()) put(record, record.heapBytes());
+    }
+
+    public void setBudget(long bytes) {
+        List<EvidenceRecord> evicted;
+        synchronized (this) {
+            budgetBytes = Math.max(0, bytes);
+            evicted = evictLocked();
+        }
+        release(evicted);
+    }
+
+    /** Forgets every record without releasing it; used when the findings are cleared. */
+    public synchronized void clear() {
+        hot.clear();
+        hotBytes = 0;
+    }
+
+    public synchronized long heapBytes() { return hotBytes; }
+    public synchronized long budgetBytes() { return budgetBytes; }
+    public synchronized int size() { return hot.size(); }
+
+    public synchronized boolean contains(EvidenceRecord record) {
+        return hot.containsKey(record);
+    }
+
+    private void put(EvidenceRecord record, long bytes) {
+        if (bytes <= 0) return;
+        List<EvidenceRecord> evicted;
+        synchronized (this) {
+            Long previous = hot.put(record, bytes);
+            hotBytes += bytes - (previous == null ? 0 : previous);
+            evicted = evictLocked();
+        }
+        release(evicted);
+    }
+
+    private List<EvidenceRecord> evictLocked() {
+        List<EvidenceRecord> evicted = new ArrayList<>();
+        Iterator<Map.Entry<EvidenceRecord, Long>> eldest = hot.entrySet().iterator();
+        while (hotBytes > budgetBytes && eldest.hasNext()) {
+            Map.Entry<EvidenceRecord, Long> entry = eldest.next();
+            hotBytes -= entry.getValue();
+            evicted.add(entry.getKey());
+            eldest.remove();
+        }
+        return evicted;
+    }
+
+    private static void release(List<EvidenceRecord> evicted) {
+        for (EvidenceRecord record : evicted) record.releaseHeapCopy();
+    }
+}
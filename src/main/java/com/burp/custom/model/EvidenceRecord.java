@@ -1,5 +1,6 @@
 package com.burp.custom.model;
 
+import burp.api.montoya.core.ByteArray;
 import burp.api.montoya.http.message.HttpRequestResponse;
 import burp.api.montoya.http.message.requests.HttpRequest;
 import burp.api.montoya.http.message.responses.HttpResponse;
@@ -7,17 +8,40 @@ import burp.api.montoya.http.message.responses.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 
-/** One shared HTTP evidence object for all findings from the same response. */
+/**
+ * One shared HTTP evidence object for all findings from the same response.
+ *
+ * The raw messages come from the live Burp message, from inline copies written by
+ * earlier versions, or from {@link EvidenceBlobStore} IDs, which are read only when a
+ * message is actually requested.
+ *
+ * A live message is held in heap only while {@link EvidenceCache} keeps the record in
+ * its working set; after that it is spilled to a Burp temp file. The body windows
+ * around matches whose findings dropped their context copy stay in heap regardless,
+ * so the Results table never has to touch the spilled message.
+ */
 public class EvidenceRecord {
-    private static final int MAX_REQUEST_CHARS = 16_384;
-    private static final int MAX_RESPONSE_CHARS = 49_152;
     private final String id;
     private final String url;
     private final String responseHash;
     private final String requestString;
     private final String responseString;
-    private transient HttpRequestResponse requestResponse;
+    // Blob IDs of the raw messages; on a live record, set once they have been stored
+    private volatile String requestBlob;
+    private volatile String responseBlob;
+    private transient volatile HttpRequestResponse requestResponse;
+    private transient EvidenceBlobStore blobs;
+    // Set when requestResponse was parsed from a persisted copy, so evicting it can just drop it
+    private transient volatile boolean rehydrated;
+    private transient volatile boolean spilled;
+    // Merged body ranges kept in heap: starts[i] is where texts[i] begins in the body
+    private transient int[] windowStarts;
+    private transient String[] windowTexts;
+    private transient int windowBodyLength;
+    // Body offset within responseString plus one; 0 until computed (Gson skips initializers)
+    private transient int responseBodyStart;
 
     public EvidenceRecord(String url, HttpRequestResponse requestResponse) {
         this(url, requestResponse, null, null);
@@ -35,11 +59,23 @@ public class EvidenceRecord {
     }
 
     public EvidenceRecord(String id, String url, String responseHash, String requestString, String responseString) {
+        this(id, url, responseHash, requestString, responseString, null, null);
+    }
+
+    public EvidenceRecord(String id, String url, String responseHash, String requestString, String responseString,
+                          String requestBlob, String responseBlob) {
         this.id = id;
         this.url = url;
         this.responseHash = responseHash;
         this.requestString = requestString;
         this.responseString = responseString;
+        this.requestBlob = requestBlob;
+        this.responseBlob = responseBlob;
+    }
+
+    /** Lets a record that references blobs read them on demand. */
+    public void attachBlobs(EvidenceBlobStore blobs) {
+        this.blobs = blobs;
     }
 
     public String getId() { return id; }
@@ -48,24 +84,202 @@ public class EvidenceRecord {
     public HttpRequestResponse getRequestResponse() { return requestResponse; }
     public String getRequestString() { return requestString; }
     public String getResponseString() { return responseString; }
+    public String getRequestBlob() { return requestBlob; }
+    public String getResponseBlob() { return responseBlob; }
 
     public HttpRequest getRequest() {
-        if (requestResponse != null) return requestResponse.request();
-        return requestString == null ? null : HttpRequest.httpRequest(requestString);
+        HttpRequestResponse live = requestResponse;
+        if (live != null) return live.request();
+        String request = requestText();
+        return request == null ? null : HttpRequest.httpRequest(request);
     }
 
     public HttpResponse getResponse() {
-        if (requestResponse != null) return requestResponse.response();
-        return responseString == null ? null : HttpResponse.httpResponse(responseString);
+        HttpRequestResponse live = requestResponse;
+        if (live != null) return live.response();
+        String response = responseText();
+        return response == null ? null : HttpResponse.httpResponse(response);
+    }
+
+    /** Whether both messages can still be read, without reading them. */
+    public boolean hasMessages() {
+        HttpRequestResponse live = requestResponse;
+        if (live != null) return live.request() != null && live.response() != null;
+        return (requestString != null || blobs != null && blobs.contains(requestBlob))
+            && (responseString != null || blobs != null && blobs.contains(responseBlob));
+    }
+
+    // Raw message text from whichever copy exists; blobs are read on every call
+    private String requestText() {
+        HttpRequestResponse live = requestResponse;
+        if (live != null && live.request() != null) return live.request().toString();
+        if (requestString != null) return requestString;
+        return blobs != null ? blobs.get(requestBlob) : null;
+    }
+
+    private String responseText() {
+        HttpRequestResponse live = requestResponse;
+        if (live != null && live.response() != null) return live.response().toString();
+        if (responseString != null) return responseString;
+        return blobs != null ? blobs.get(responseBlob) : null;
+    }
+
+    // -------------------------------------------------------------------------
+    // Memory tiers — driven by EvidenceCache
+    // -------------------------------------------------------------------------
+
+    /**
+     * Estimated heap cost of the record itself: its identifiers and any inline message
+     * copies. Full live messages are accounted separately by {@link EvidenceCache}.
+     */
+    static int estimatedBytes(EvidenceRecord record) {
+        if (record == null) return 0;
+        long bytes = 128L + length(record.id) + length(record.responseHash)
+            + length(record.requestString) + length(record.responseString)
+            + length(record.requestBlob) + length(record.responseBlob);
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : 40 + value.length();
+    }
+
+    /** Bytes of the message held in heap: a live or rehydrated message, 0 once spilled or absent. */
+    long heapBytes() {
+        HttpRequestResponse live = requestResponse;
+        if (live == null || spilled) return 0;
+        // Header offset plus body length, which avoids copying the message to measure it
+        long bytes = 0;
+        if (live.request() != null) bytes += live.request().bodyOffset() + live.request().body().length();
+        if (live.response() != null) bytes += live.response().bodyOffset() + live.response().body().length();
+        return bytes;
     }
 
-    public EvidenceRecord forPersistence(boolean includeRawHttp) {
-        String persistedRequest = requestResponse != null && requestResponse.request() != null
-            ? copyIfAtMost(requestResponse.request().toString(), MAX_REQUEST_CHARS) : requestString;
-        String persistedResponse = requestResponse != null && requestResponse.response() != null
-            ? copyIfAtMost(requestResponse.response().toString(), MAX_RESPONSE_CHARS) : responseString;
-        return new EvidenceRecord(id, url, responseHash,
-            includeRawHttp ? persistedRequest : null, includeRawHttp ? persistedResponse : null);
+    /**
+     * Gives up the in-heap message: a rehydrated copy is dropped (the persisted copy
+     * remains), a live one is replaced by a Burp temp-file copy.
+     */
+    void releaseHeapCopy() {
+        HttpRequestResponse live = requestResponse;
+        if (live == null || spilled) return;
+        if (rehydrated) {
+            requestResponse = null;
+            rehydrated = false;
+            return;
+        }
+        requestResponse = live.copyToTempFile();
+        spilled = true;
+    }
+
+    /**
+     * Parses the persisted copy into a message that editors and tools can reuse.
+     *
+     * @return whether a new in-heap message was created
+     */
+    boolean rehydrate() {
+        if (requestResponse != null) return false;
+        String request = requestText();
+        String response = responseText();
+        if (request == null || response == null) return false;
+        HttpRequestResponse parsed = HttpRequestResponse.httpRequestResponse(
+            HttpRequest.httpRequest(request), HttpResponse.httpResponse(response));
+        if (parsed == null) return false;
+        rehydrated = true;
+        requestResponse = parsed;
+        return true;
+    }
+
+    /**
+     * Keeps the body text in {@code [from, to)} in heap, merged with overlapping
+     * windows, so it outlives the full message. Called before a finding drops its
+     * context copy; records without a live message need no windows.
+     */
+    synchronized void retainWindow(int from, int to) {
+        HttpRequestResponse live = requestResponse;
+        if (live == null || rehydrated || live.response() == null) return;
+        if (coveredWindow(from, to) != null) return;
+        ByteArray body = live.response().body();
+        int length = body.length();
+        int start = Math.min(Math.max(0, from), length);
+        int end = Math.max(start, Math.min(to, length));
+        int count = windowStarts == null ? 0 : windowStarts.length;
+        int kept = 0;
+        int[] starts = new int[count + 1];
+        String[] texts = new String[count + 1];
+        for (int i = 0; i < count; i++) {
+            int windowEnd = windowStarts[i] + windowTexts[i].length();
+            if (windowEnd >= start && windowStarts[i] <= end) {
+                start = Math.min(start, windowStarts[i]);
+                end = Math.max(end, windowEnd);
+            } else {
+                starts[kept] = windowStarts[i];
+                texts[kept++] = windowTexts[i];
+            }
+        }
+        starts[kept] = start;
+        texts[kept++] = body.subArray(start, end).toString();
+        windowStarts = Arrays.copyOf(starts, kept);
+        windowTexts = Arrays.copyOf(texts, kept);
+        windowBodyLength = length;
+    }
+
+    private String coveredWindow(int from, int to) {
+        if (windowStarts == null) return null;
+        int start = Math.min(Math.max(0, from), windowBodyLength);
+        int end = Math.max(start, Math.min(to, windowBodyLength));
+        for (int i = 0; i < windowStarts.length; i++) {
+            int offset = start - windowStarts[i];
+            if (offset >= 0 && end - windowStarts[i] <= windowTexts[i].length()) {
+                return windowTexts[i].substring(offset, end - windowStarts[i]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Response body text in {@code [from, to)}, clamped to the body, read from the
+     * retained windows, then the live (possibly spilled) Burp message, then the inline
+     * response copy.
+     * Body bytes map 1:1 to chars, as with {@code bodyToString()}. Blob-backed records
+     * return null rather than decompressing a whole message for one window.
+     *
+     * @return null when no in-memory copy of the response is available
+     */
+    public String responseBodyWindow(int from, int to) {
+        synchronized (this) {
+            String window = coveredWindow(from, to);
+            if (window != null) return window;
+        }
+        HttpRequestResponse live = requestResponse;
+        if (live != null && !rehydrated && live.response() != null) {
+            ByteArray body = live.response().body();
+            int length = body.length();
+            int clampedFrom = Math.min(Math.max(0, from), length);
+            return body.subArray(clampedFrom, Math.max(clampedFrom, Math.min(to, length))).toString();
+        }
+        if (responseString == null) return null;
+        int offset = responseBodyStart - 1;
+        if (offset < 0) {
+            int separator = responseString.indexOf("\r\n\r\n");
+            offset = separator >= 0 ? separator + 4 : responseString.length();
+            responseBodyStart = offset + 1;
+        }
+        int bodyLength = responseString.length() - offset;
+        int clampedFrom = Math.min(Math.max(0, from), bodyLength);
+        int clampedTo = Math.max(clampedFrom, Math.min(to, bodyLength));
+        return responseString.substring(offset + clampedFrom, offset + clampedTo);
+    }
+
+    /**
+     * The form written to the project: raw messages go to {@code blobs} (once per
+     * distinct content) and the copy carries only their IDs.
+     */
+    public EvidenceRecord forPersistence(EvidenceBlobStore blobs, boolean includeRawHttp) {
+        if (!includeRawHttp) return new EvidenceRecord(id, url, responseHash, null, null);
+        String request = requestBlob, response = responseBlob;
+        if (request == null || !blobs.contains(request)) request = requestBlob = blobs.put(requestText());
+        if (response == null || !blobs.contains(response)) response = responseBlob = blobs.put(responseText());
+        return new EvidenceRecord(id, url, responseHash, null, null, request, response);
     }
 
     public static String sha256(String value) {
@@ -99,8 +313,4 @@ public class EvidenceRecord {
         return sha256((method == null ? "" : method) + "\0" + (url == null ? "" : url) + "\0" +
             sha256(requestBody == null ? "" : requestBody) + "\0" + (responseHash == null ? "" : responseHash));
     }
-
-    private static String copyIfAtMost(String value, int maxChars) {
-        return value != null && value.length() <= maxChars ? value : null;
-    }
 }
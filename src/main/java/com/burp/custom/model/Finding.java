@@ -1,20 +1,50 @@
 package com.burp.custom.model;
 
-import burp.api.montoya.http.message.HttpRequestResponse;
+import com.burp.custom.util.StringInterner;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.Objects;
+import java.util.regex.Pattern;
 
+/**
+ * A single match, stored compactly: type and severity are byte codes, rule names,
+ * URLs and evidence IDs are shared instances from weak interners, and the context
+ * window is dropped once it can be rebuilt from the evidence (see
+ * {@link #attachEvidence}). The JSON form is unchanged from the flat-field layout.
+ */
+@JsonAdapter(Finding.JsonFormat.class)
 public class Finding {
-    private final String type;
+
+    /** Characters of response body kept on each side of a match for the context column. */
+    public static final int CONTEXT_WINDOW = 100;
+
+    private static final Pattern WHITESPACE = Pattern.compile("[\\s]+");
+    private static final StringInterner RULE_NAMES   = new StringInterner();
+    private static final StringInterner URLS         = new StringInterner();
+    private static final StringInterner EVIDENCE_IDS = new StringInterner();
+    private static final ByteCodes TYPES      = new ByteCodes("SECRET", "URL", "ENDPOINT", "FILE", "INFO", "PATH");
+    private static final ByteCodes SEVERITIES = new ByteCodes("INFO", "LOW", "MEDIUM", "HIGH");
+
+    private final byte type;
+    private final byte severity;
     private final String finding;
     private final String ruleName;
     private final String url;
-    private final String severity;
     private final String evidenceId;
     private final int start;
     private final int end;
     private final long timestamp;
-    // Context window — surrounding text extracted at analysis time
-    private final String context;
+    // Found by a scan that stopped before every rule had run over the whole response
+    private final boolean truncated;
+    // Context window; null once it is rebuilt on demand from the attached evidence
+    private volatile String context;
+    private volatile EvidenceRecord evidence;
 
     public Finding(String type, String finding, String ruleName, String url,
                    String evidenceId, int start, int end) {
@@ -29,29 +59,100 @@ public class Finding {
     public Finding(String type, String finding, String ruleName, String url,
                    String evidenceId, int start, int end,
                    String severity, String context) {
-        this.type            = type;
+        this(type, finding, ruleName, url, evidenceId, start, end, severity, context, false);
+    }
+
+    public Finding(String type, String finding, String ruleName, String url,
+                   String evidenceId, int start, int end,
+                   String severity, String context, boolean truncated) {
+        this(type, finding, ruleName, url, evidenceId, start, end, severity, context, System.currentTimeMillis(), truncated);
+    }
+
+    /** Recreates a stored finding with its original timestamp. */
+    static Finding restore(String type, String finding, String ruleName, String url,
+                           String evidenceId, int start, int end,
+                           String severity, String context, long timestamp, boolean truncated) {
+        return new Finding(type, finding, ruleName, url, evidenceId, start, end, severity, context, timestamp, truncated);
+    }
+
+    private Finding(String type, String finding, String ruleName, String url,
+                    String evidenceId, int start, int end,
+                    String severity, String context, long timestamp, boolean truncated) {
+        this.type            = TYPES.code(type);
         this.finding         = finding;
-        this.ruleName        = ruleName;
-        this.url             = url;
-        this.evidenceId      = evidenceId;
+        this.ruleName        = RULE_NAMES.intern(ruleName);
+        this.url             = URLS.intern(url);
+        this.evidenceId      = EVIDENCE_IDS.intern(evidenceId);
         this.start           = start;
         this.end             = end;
-        this.severity        = severity != null ? severity : "INFO";
+        this.severity        = SEVERITIES.code(severity != null ? severity : "INFO");
         this.context         = context != null ? context : "";
-        this.timestamp       = System.currentTimeMillis();
-
+        this.timestamp       = timestamp;
+        this.truncated       = truncated;
     }
 
-    public String getType()             { return type; }
+    public String getType()             { return TYPES.value(type); }
     public String getFinding()          { return finding; }
     public String getRuleName()         { return ruleName; }
     public String getUrl()              { return url; }
-    public String getSeverity()         { return severity != null ? severity : "INFO"; }
-    public String getContext()          { return context != null ? context : ""; }
+    public String getSeverity()         { return SEVERITIES.value(severity); }
     public String getEvidenceId()       { return evidenceId; }
     public int getStart()               { return start; }
     public int getEnd()                 { return end; }
     public long getTimestamp()          { return timestamp; }
+    public boolean isTruncated()        { return truncated; }
+
+    public String getContext() {
+        String stored = context;
+        if (stored != null) return stored;
+        String cached = ContextCache.get(this);
+        if (cached != null) return cached;
+        String rebuilt = rebuildContext(evidence);
+        if (rebuilt == null) return "";
+        ContextCache.put(this, rebuilt);
+        return rebuilt;
+    }
+
+    /**
+     * Drops the stored context when the evidence reproduces it exactly, so the
+     * context costs nothing until displayed. Called once the finding is accepted.
+     */
+    public void attachEvidence(EvidenceRecord record) {
+        String stored = context;
+        if (record == null || stored == null || stored.isEmpty()) return;
+        if (!stored.equals(rebuildContext(record))) return;
+        // The window must stay readable after the record's full message leaves the heap
+        record.retainWindow(Math.max(0, start - CONTEXT_WINDOW), end + CONTEXT_WINDOW);
+        evidence = record;
+        context = null;
+    }
+
+    private String rebuildContext(EvidenceRecord record) {
+        if (record == null) return null;
+        String window = record.responseBodyWindow(Math.max(0, start - CONTEXT_WINDOW), end + CONTEXT_WINDOW);
+        return window == null ? null : normalizeContext(window);
+    }
+
+    /** Context window around {@code [start, end)} of a response body, as shown in the Results table. */
+    public static String extractContext(String body, int start, int end) {
+        int ctxStart = Math.max(0, start - CONTEXT_WINDOW);
+        int ctxEnd   = Math.min(body.length(), end + CONTEXT_WINDOW);
+        return normalizeContext(body.substring(ctxStart, ctxEnd));
+    }
+
+    private static String normalizeContext(String raw) {
+        return WHITESPACE.matcher(raw).replaceAll(" ").trim();
+    }
+
+    /**
+     * Approximate heap cost: the object, its value, and its context or the retained body
+     * window that replaced it. Interned fields are shared and not counted.
+     */
+    public int estimatedBytes() {
+        String stored = context;
+        int contextChars = stored != null ? stored.length() : 2 * CONTEXT_WINDOW + Math.max(0, end - start);
+        return 64 + 40 + (finding != null ? finding.length() : 0) + 40 + contextChars;
+    }
 
     public int getSeverityOrder() {
         switch (getSeverity().toUpperCase()) {
@@ -67,24 +168,158 @@ public class Finding {
         // Dedup key includes finding value + type only (not URL), so the same
         // secret found across multiple files is treated as a single unique secret
         // and the URL-reuse counter accurately reflects cross-file exposure.
-        return type + "::" + finding;
+        return getType() + "::" + finding;
     }
 
     // URL-scoped key used when we want to track the specific URL of discovery
     public String getUrlScopedKey() {
-        return url + "::" + type + "::" + finding;
+        return url + "::" + getType() + "::" + finding;
     }
 
+    /** Allocation-light equivalent of {@link #getUrlScopedKey()} for hash indexes. */
+    public Key key() {
+        return new Key(url, type, finding);
+    }
+
+    public record Key(String url, byte type, String finding) { }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
-        return Objects.equals(getUniqueKey(), ((Finding) o).getUniqueKey());
+        Finding other = (Finding) o;
+        return type == other.type && Objects.equals(finding, other.finding);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(getUniqueKey());
+        return 31 * type + Objects.hashCode(finding);
     }
 
+    // -------------------------------------------------------------------------
+    // Encodings
+    // -------------------------------------------------------------------------
+
+    /**
+     * Append-only string table addressed by byte codes; code 0 is null. Lookups read
+     * a copy-on-write array without locking.
+     */
+    private static final class ByteCodes {
+        private volatile String[] values;
+
+        ByteCodes(String... seed) {
+            String[] table = new String[seed.length + 1];
+            System.arraycopy(seed, 0, table, 1, seed.length);
+            values = table;
+        }
+
+        byte code(String value) {
+            if (value == null) return 0;
+            String[] table = values;
+            for (int i = 1; i < table.length; i++) {
+                if (table[i].equals(value)) return (byte) i;
+            }
+            synchronized (this) {
+                table = values;
+                for (int i = 1; i < table.length; i++) {
+                    if (table[i].equals(value)) return (byte) i;
+                }
+                if (table.length > Byte.MAX_VALUE) throw new IllegalStateException("Too many distinct values: " + value);
+                String[] grown = Arrays.copyOf(table, table.length + 1);
+                grown[table.length] = value;
+                values = grown;
+                return (byte) table.length;
+            }
+        }
+
+        String value(byte code) {
+            return values[code];
+        }
+    }
+
+    /**
+     * Direct-mapped cache of rebuilt context strings, so repainting or searching
+     * the same rows does not re-read evidence. Entries are immutable, so racing
+     * writers can only cause a miss.
+     */
+    private static final class ContextCache {
+        private static final int SIZE = 4_096;
+        private static final Entry[] ENTRIES = new Entry[SIZE];
+
+        private record Entry(Finding finding, String context) { }
+
+        static String get(Finding finding) {
+            Entry entry = ENTRIES[slot(finding)];
+            return entry != null && entry.finding == finding ? entry.context : null;
+        }
+
+        static void put(Finding finding, String context) {
+            ENTRIES[slot(finding)] = new Entry(finding, context);
+        }
+
+        private static int slot(Finding finding) {
+            return System.identityHashCode(finding) & (SIZE - 1);
+        }
+    }
+
+    /** Reads and writes the original flat JSON layout, so persisted and exported data stay compatible. */
+    static final class JsonFormat extends TypeAdapter<Finding> {
+        @Override
+        public void write(JsonWriter out, Finding finding) throws IOException {
+            if (finding == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("type").value(finding.getType());
+            out.name("finding").value(finding.finding);
+            out.name("ruleName").value(finding.ruleName);
+            out.name("url").value(finding.url);
+            out.name("severity").value(finding.getSeverity());
+            out.name("evidenceId").value(finding.evidenceId);
+            out.name("start").value(finding.start);
+            out.name("end").value(finding.end);
+            out.name("timestamp").value(finding.timestamp);
+            out.name("context").value(finding.getContext());
+            // Written only when set, so complete findings keep the original layout
+            if (finding.truncated) out.name("truncated").value(true);
+            out.endObject();
+        }
+
+        @Override
+        public Finding read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            String type = null, value = null, ruleName = null, url = null, severity = null, evidenceId = null, context = null;
+            int start = 0, end = 0;
+            long timestamp = 0;
+            boolean truncated = false;
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "type":       type = in.nextString(); break;
+                    case "finding":    value = in.nextString(); break;
+                    case "ruleName":   ruleName = in.nextString(); break;
+                    case "url":        url = in.nextString(); break;
+                    case "severity":   severity = in.nextString(); break;
+                    case "evidenceId": evidenceId = in.nextString(); break;
+                    case "start":      start = in.nextInt(); break;
+                    case "end":        end = in.nextInt(); break;
+                    case "timestamp":  timestamp = in.nextLong(); break;
+                    case "context":    context = in.nextString(); break;
+                    case "truncated":  truncated = in.nextBoolean(); break;
+                    default:           in.skipValue(); break;
+                }
+            }
+            in.endObject();
+            return restore(type, value, ruleName, url, evidenceId, start, end, severity, context, timestamp, truncated);
+        }
+    }
 }
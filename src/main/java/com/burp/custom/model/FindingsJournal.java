@@ -0,0 +1,336 @@
+package com.burp.custom.model;
+
+import burp.api.montoya.persistence.PersistedObject;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Findings persistence as a snapshot plus an append-only journal in the project's
+ * extension data, so a save costs time proportional to what changed.
+ *
+ * The snapshot is a compressed {@link FindingsSnapshotCodec} stream, stored base64
+ * encoded; the JSON snapshot and list formats of earlier versions are migrated on
+ * load. Journal segments stay JSON, since each one is small. Raw HTTP evidence lives in
+ * an {@link EvidenceBlobStore}; snapshots and segments only reference it, and each
+ * compaction deletes the blobs nothing references any more.
+ *
+ * Adds and deletes are buffered in memory and written by {@link #flush} as one small
+ * journal segment per call, each under its own key. {@link #compact} writes a full
+ * snapshot recording the last segment it covers, then deletes the covered segments;
+ * a crash between the two steps only leaves segments that the next load skips and
+ * removes. Replay is idempotent (adds and deletes are keyed by URL, type and value),
+ * so a finding that lands in both the snapshot and a later segment is not duplicated.
+ * Thread-safe.
+ */
+public class FindingsJournal {
+
+    public static final String SNAPSHOT_KEY = "jsminer_findings_v4";
+    static final String JSON_SNAPSHOT_KEY = "jsminer_findings_v3";
+    static final String LEGACY_KEY = "jsminer_findings_v2";
+    static final String SEGMENT_PREFIX = "jsminer_journal_";
+    // Compact once the journal holds more records than half the snapshot (or this floor), or has this many segments
+    private static final int COMPACT_MIN_RECORDS = 10_000;
+    private static final int COMPACT_MAX_SEGMENTS = 512;
+    private static final Type LEGACY_LIST_TYPE = new TypeToken<ArrayList<Finding>>(){}.getType();
+
+    private final PersistedObject data;
+    private final Gson gson = new Gson();
+    private final EvidenceBlobStore blobs;
+    // Serializes compactions, so one cannot sweep blobs another is about to reference
+    private final Object compactionLock = new Object();
+    // Blobs referenced by segments written this session, by sequence number
+    private final TreeMap<Long, Set<String>> segmentBlobs = new TreeMap<>();
+
+    private final List<Finding> pendingAdded = new ArrayList<>();
+    private final List<EvidenceRecord> pendingEvidence = new ArrayList<>();
+    private final List<RemovedKey> pendingRemoved = new ArrayList<>();
+    private long nextSegment = 1;
+    private int segmentsSinceSnapshot;
+    private long journalRecords;
+    private long snapshotRecords;
+    private boolean compactionRequested;
+    // First segment after the last deleteAll(); older seals must not write a snapshot
+    private long clearedAt;
+
+    /** One journal batch, replayed deletes first; fields are absent rather than empty when unused. */
+    private static final class Segment {
+        List<Finding> added;
+        List<EvidenceRecord> evidence;
+        List<RemovedKey> removed;
+    }
+
+    private record RemovedKey(String url, String type, String finding) { }
+
+    /** The v3 JSON snapshot, read only for migration. */
+    private static final class JsonSnapshot {
+        List<Finding> findings;
+        List<EvidenceRecord> evidence;
+        // Last journal segment folded into this snapshot; 0 for snapshots written before the journal
+        long journalSeq;
+    }
+
+    /** Findings and evidence rebuilt from the snapshot and journal, in original insertion order. */
+    public record Recovered(List<Finding> findings, Map<String, EvidenceRecord> evidence, int skippedSegments) { }
+
+    public FindingsJournal(PersistedObject data) {
+        this.data = data;
+        this.blobs = new EvidenceBlobStore(data);
+    }
+
+    // -------------------------------------------------------------------------
+    // Recording
+    // -------------------------------------------------------------------------
+
+    /** Records stored findings and the evidence first created for them. */
+    public synchronized void recordAdded(Collection<Finding> findings, Collection<EvidenceRecord> newEvidence) {
+        pendingAdded.addAll(findings);
+        for (EvidenceRecord record : newEvidence) {
+            if (record != null) pendingEvidence.add(record);
+        }
+    }
+
+    public synchronized void recordRemoved(Collection<Finding> findings) {
+        Set<RemovedKey> removed = new HashSet<>();
+        for (Finding finding : findings) removed.add(keyOf(finding));
+        // A segment applies its deletes before its adds, so drop adds this batch deletes again
+        pendingAdded.removeIf(finding -> removed.contains(keyOf(finding)));
+        pendingRemoved.addAll(removed);
+    }
+
+    /**
+     * Writes everything recorded since the last flush as one journal segment.
+     *
+     * @return the number of adds and deletes written
+     */
+    public synchronized int flush(boolean includeRawHttp) {
+        int records = pendingAdded.size() + pendingRemoved.size();
+        if (records == 0 && pendingEvidence.isEmpty()) return 0;
+        Segment segment = new Segment();
+        if (!pendingAdded.isEmpty()) segment.added = new ArrayList<>(pendingAdded);
+        if (!pendingRemoved.isEmpty()) segment.removed = new ArrayList<>(pendingRemoved);
+        Set<String> referenced = new HashSet<>();
+        if (!pendingEvidence.isEmpty()) {
+            segment.evidence = new ArrayList<>(pendingEvidence.size());
+            for (EvidenceRecord record : pendingEvidence) {
+                EvidenceRecord persisted = record.forPersistence(blobs, includeRawHttp);
+                addBlobs(referenced, persisted);
+                segment.evidence.add(persisted);
+            }
+        }
+        String json = gson.toJson(segment);
+        if (!referenced.isEmpty()) segmentBlobs.put(nextSegment, referenced);
+        data.setString(segmentKey(nextSegment++), json);
+        pendingAdded.clear();
+        pendingEvidence.clear();
+        pendingRemoved.clear();
+        segmentsSinceSnapshot++;
+        journalRecords += records;
+        return records;
+    }
+
+    public synchronized boolean needsCompaction() {
+        return compactionRequested || segmentsSinceSnapshot >= COMPACT_MAX_SEGMENTS
+            || journalRecords > Math.max(COMPACT_MIN_RECORDS, snapshotRecords / 2);
+    }
+
+    /**
+     * Flushes the journal and seals it at the current segment; the caller then takes a
+     * snapshot of the store and passes it to {@link #compact}. Anything recorded after
+     * sealing goes to later segments, which replay on top of that snapshot.
+     *
+     * @return the sequence number to pass to {@link #compact}
+     */
+    public synchronized long seal(boolean includeRawHttp) {
+        flush(includeRawHttp);
+        return nextSegment - 1;
+    }
+
+    /**
+     * Writes a full snapshot covering segments up to {@code sealedSeq}, then drops those
+     * segments and every blob referenced by neither the snapshot nor a later segment.
+     */
+    public void compact(long sealedSeq, List<Finding> findings, List<EvidenceRecord> evidence, boolean includeRawHttp) {
+        synchronized (compactionLock) {
+            compactLocked(sealedSeq, findings, evidence, includeRawHttp);
+        }
+    }
+
+    private void compactLocked(long sealedSeq, List<Finding> findings, List<EvidenceRecord> evidence, boolean includeRawHttp) {
+        List<EvidenceRecord> persistedEvidence = new ArrayList<>(evidence.size());
+        Set<String> live = new HashSet<>();
+        for (EvidenceRecord record : evidence) {
+            EvidenceRecord persisted = record.forPersistence(blobs, includeRawHttp);
+            addBlobs(live, persisted);
+            persistedEvidence.add(persisted);
+        }
+        String encoded = Base64.getEncoder().encodeToString(FindingsSnapshotCodec.encode(sealedSeq, findings, persistedEvidence));
+        synchronized (this) {
+            if (sealedSeq < clearedAt) return;
+            data.setString(SNAPSHOT_KEY, encoded);
+            data.deleteString(JSON_SNAPSHOT_KEY);
+            data.deleteString(LEGACY_KEY);
+            for (long seq : segmentKeys().keySet()) {
+                if (seq <= sealedSeq) data.deleteString(segmentKey(seq));
+            }
+            segmentBlobs.headMap(sealedSeq, true).clear();
+            for (Set<String> referenced : segmentBlobs.values()) live.addAll(referenced);
+            blobs.retainOnly(live);
+            snapshotRecords = findings.size();
+            int remaining = (int) (nextSegment - 1 - sealedSeq);
+            segmentsSinceSnapshot = Math.max(0, remaining);
+            if (remaining <= 0) journalRecords = 0;
+            compactionRequested = false;
+        }
+    }
+
+    /** Forgets all persisted and pending findings. */
+    public synchronized void deleteAll() {
+        pendingAdded.clear();
+        pendingEvidence.clear();
+        pendingRemoved.clear();
+        data.deleteString(SNAPSHOT_KEY);
+        data.deleteString(JSON_SNAPSHOT_KEY);
+        data.deleteString(LEGACY_KEY);
+        for (long seq : segmentKeys().keySet()) data.deleteString(segmentKey(seq));
+        segmentBlobs.clear();
+        blobs.deleteAll();
+        clearedAt = nextSegment++;
+        segmentsSinceSnapshot = 0;
+        journalRecords = 0;
+        snapshotRecords = 0;
+        compactionRequested = false;
+    }
+
+    // -------------------------------------------------------------------------
+    // Recovery
+    // -------------------------------------------------------------------------
+
+    /**
+     * Streams the snapshot (migrating the v3 JSON and v2 list formats) and replays the
+     * journal over it. Segments already folded into the snapshot are deleted; unreadable
+     * segments are skipped and reported.
+     *
+     * @throws IOException if the binary snapshot is corrupt or from a newer version
+     */
+    public synchronized Recovered load() throws IOException {
+        Map<RemovedKey, Finding> findings = new LinkedHashMap<>();
+        Map<String, EvidenceRecord> evidence = new LinkedHashMap<>();
+        long snapshotSeq = 0;
+
+        String encoded = data.getString(SNAPSHOT_KEY);
+        String json = data.getString(JSON_SNAPSHOT_KEY);
+        if (encoded != null && !encoded.isEmpty()) {
+            byte[] bytes;
+            try {
+                bytes = Base64.getDecoder().decode(encoded);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Findings snapshot is not base64", e);
+            }
+            snapshotSeq = FindingsSnapshotCodec.read(new ByteArrayInputStream(bytes),
+                finding -> findings.putIfAbsent(keyOf(finding), finding),
+                record -> putEvidence(evidence, List.of(record)));
+        } else if (json != null && !json.isEmpty()) {
+            JsonSnapshot snapshot = gson.fromJson(json, JsonSnapshot.class);
+            if (snapshot != null) {
+                addAll(findings, snapshot.findings);
+                putEvidence(evidence, snapshot.evidence);
+                snapshotSeq = snapshot.journalSeq;
+            }
+            compactionRequested = true;
+        } else {
+            String legacyJson = data.getString(LEGACY_KEY);
+            if (legacyJson != null && !legacyJson.isEmpty()) {
+                addAll(findings, gson.fromJson(legacyJson, LEGACY_LIST_TYPE));
+                compactionRequested = true;
+            }
+        }
+
+        int skipped = 0;
+        nextSegment = snapshotSeq + 1;
+        segmentsSinceSnapshot = 0;
+        snapshotRecords = findings.size();
+        journalRecords = 0;
+        for (Map.Entry<Long, String> entry : segmentKeys().entrySet()) {
+            long seq = entry.getKey();
+            nextSegment = Math.max(nextSegment, seq + 1);
+            if (seq <= snapshotSeq) {
+                data.deleteString(entry.getValue());
+                continue;
+            }
+            String segmentJson = data.getString(entry.getValue());
+            Segment segment;
+            try {
+                segment = segmentJson == null ? null : gson.fromJson(segmentJson, Segment.class);
+            } catch (JsonParseException e) {
+                segment = null;
+            }
+            if (segment == null) {
+                skipped++;
+                continue;
+            }
+            if (segment.removed != null) segment.removed.forEach(findings::remove);
+            addAll(findings, segment.added);
+            putEvidence(evidence, segment.evidence);
+            segmentsSinceSnapshot++;
+            journalRecords += (segment.added == null ? 0 : segment.added.size()) + (segment.removed == null ? 0 : segment.removed.size());
+        }
+        return new Recovered(new ArrayList<>(findings.values()), evidence, skipped);
+    }
+
+    private static void addAll(Map<RemovedKey, Finding> findings, List<Finding> added) {
+        if (added == null) return;
+        for (Finding finding : added) {
+            if (finding != null) findings.putIfAbsent(keyOf(finding), finding);
+        }
+    }
+
+    private static RemovedKey keyOf(Finding finding) {
+        return new RemovedKey(finding.getUrl(), finding.getType(), finding.getFinding());
+    }
+
+    private void putEvidence(Map<String, EvidenceRecord> evidence, List<EvidenceRecord> records) {
+        if (records == null) return;
+        for (EvidenceRecord record : records) {
+            if (record == null || record.getId() == null) continue;
+            record.attachBlobs(blobs);
+            evidence.put(record.getId(), record);
+        }
+    }
+
+    private static void addBlobs(Set<String> ids, EvidenceRecord record) {
+        if (record.getRequestBlob() != null) ids.add(record.getRequestBlob());
+        if (record.getResponseBlob() != null) ids.add(record.getResponseBlob());
+    }
+
+    // Journal keys by sequence number, ascending
+    private TreeMap<Long, String> segmentKeys() {
+        TreeMap<Long, String> keys = new TreeMap<>();
+        for (String key : data.stringKeys()) {
+            if (!key.startsWith(SEGMENT_PREFIX)) continue;
+            try {
+                keys.put(Long.parseLong(key.substring(SEGMENT_PREFIX.length())), key);
+            } catch (NumberFormatException ignored) {
+                // Not a journal segment
+            }
+        }
+        return keys;
+    }
+
+    private static String segmentKey(long seq) {
+        return SEGMENT_PREFIX + seq;
+    }
+}
@@ -0,0 +1,322 @@
+package com.burp.custom.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Append-only findings file, memory-mapped in fixed-size pages, so retained findings
+ * live in the OS page cache instead of Burp's heap. Records are only ever dropped all
+ * at once, by {@link #clear} or by compacting the survivors of {@link #removeIf}.
+ *
+ * The only per-record heap cost is the in-heap index: the record's file position and
+ * a 64-bit hash of its URL-scoped key in an open-addressing table for duplicate
+ * checks. Records never span pages; a zero length marks the end of a page's records.
+ * The file is self-describing, so reopening rebuilds the index by walking the headers
+ * without decoding any record. Thread-safe.
+ */
+public final class FindingsPageFile implements Closeable, Iterable<Finding> {
+
+    static final int PAGE_SIZE = 1 << 20;
+    private static final int MAGIC = 0x4A_53_4D_50; // "JSMP"
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER = 8;
+    // Record header: payload length, then the key hash
+    private static final int RECORD_HEADER = Integer.BYTES + Long.BYTES;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> pages = new ArrayList<>();
+    private int writePage;
+    private int writeOffset = FILE_HEADER;
+
+    // In-heap index: record id -> (page << 32 | offset) and key hash
+    private long[] positions = new long[1024];
+    private long[] keyHashes = new long[1024];
+    private int size;
+    // Open-addressing table of record id + 1, keyed by key hash; 0 is empty
+    private int[] slots = new int[2048];
+
+    public FindingsPageFile(Path path) throws IOException {
+        this.path = path;
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long pageCount = (channel.size() + PAGE_SIZE - 1) / PAGE_SIZE;
+        for (int i = 0; i < pageCount; i++) pages.add(map(i));
+        if (pages.isEmpty() || pages.get(0).getInt(0) != MAGIC || pages.get(0).getInt(4) != VERSION) {
+            // New or unrecognised file: start over rather than misread it
+            resetPages();
+        } else {
+            rebuildIndex();
+        }
+    }
+
+    public Path path() { return path; }
+
+    public synchronized int size() { return size; }
+
+    /** Whether a finding with the same URL-scoped key was appended; a 64-bit hash match is treated as equal. */
+    public synchronized boolean contains(Finding finding) {
+        long hash = hash(finding);
+        int mask = slots.length - 1;
+        for (int slot = mix(hash) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            if (keyHashes[slots[slot] - 1] == hash) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Appends a finding with its context resolved.
+     *
+     * @return the record id
+     * @throws IllegalArgumentException if the encoded finding does not fit in one page
+     */
+    public synchronized int append(Finding finding) throws IOException {
+        byte[] payload = encode(finding);
+        int length = RECORD_HEADER + payload.length;
+        if (length > PAGE_SIZE - FILE_HEADER - Integer.BYTES) {
+            throw new IllegalArgumentException("Finding too large for a page: " + payload.length + " bytes");
+        }
+        int id = write(payload, hash(finding));
+        // Terminate the page's record list, covering stale records from before a clear()
+        pages.get(writePage).putInt(writeOffset, 0);
+        return id;
+    }
+
+    public synchronized Finding read(int id) {
+        if (id < 0 || id >= size) throw new IndexOutOfBoundsException("Record " + id + " of " + size);
+        return decode(ByteBuffer.wrap(payload(positions[id])));
+    }
+
+    /**
+     * Drops the records that match and compacts the rest in place, keeping their order.
+     * Each record is decoded once; the survivors are copied without re-encoding.
+     *
+     * @return the number of records dropped
+     */
+    public synchronized int removeIf(Predicate<Finding> filter) throws IOException {
+        int count = size;
+        long[] oldPositions = Arrays.copyOf(positions, count);
+        long[] oldHashes = Arrays.copyOf(keyHashes, count);
+        size = 0;
+        Arrays.fill(slots, 0);
+        writePage = 0;
+        writeOffset = FILE_HEADER;
+        // Survivors are packed by the same rule they were first laid out by, so each lands at
+        // or before its old position and never over a record that has not been read yet
+        int dropped = 0;
+        for (int id = 0; id < count; id++) {
+            byte[] payload = payload(oldPositions[id]);
+            if (filter.test(decode(ByteBuffer.wrap(payload)))) dropped++;
+            else write(payload, oldHashes[id]);
+        }
+        pages.get(writePage).putInt(writeOffset, 0);
+        for (int page = writePage + 1; page < pages.size(); page++) pages.get(page).putInt(0, 0);
+        return dropped;
+    }
+
+    /** Iterates the records present when the iterator was created, decoding one at a time. */
+    @Override
+    public Iterator<Finding> iterator() {
+        int end = size();
+        return new Iterator<>() {
+            private int next;
+
+            // Stops early if records were removed meanwhile
+            @Override public boolean hasNext() { return next < Math.min(end, size()); }
+
+            @Override
+            public Finding next() {
+                if (next >= end) throw new NoSuchElementException();
+                return read(next++);
+            }
+        };
+    }
+
+    /** Drops every record; mapped pages are kept and overwritten by later appends. */
+    public synchronized void clear() {
+        resetPages();
+        size = 0;
+        Arrays.fill(slots, 0);
+    }
+
+    public synchronized void force() {
+        for (MappedByteBuffer page : pages) page.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        force();
+        pages.clear();
+        channel.close();
+    }
+
+    /** Closes the file and deletes it from disk. */
+    public void delete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+
+    // -------------------------------------------------------------------------
+    // Pages and index
+    // -------------------------------------------------------------------------
+
+    private MappedByteBuffer map(int page) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_WRITE, (long) page * PAGE_SIZE, PAGE_SIZE);
+    }
+
+    private MappedByteBuffer page(int page) throws IOException {
+        while (pages.size() <= page) pages.add(map(pages.size()));
+        return pages.get(page);
+    }
+
+    private void resetPages() {
+        try {
+            MappedByteBuffer first = page(0);
+            first.putInt(0, MAGIC);
+            first.putInt(4, VERSION);
+            first.putInt(FILE_HEADER, 0);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot map findings page file " + path, e);
+        }
+        for (int i = 1; i < pages.size(); i++) pages.get(i).putInt(0, 0);
+        writePage = 0;
+        writeOffset = FILE_HEADER;
+    }
+
+    private void rebuildIndex() {
+        for (int page = 0; page < pages.size(); page++) {
+            MappedByteBuffer mapped = pages.get(page);
+            int offset = page == 0 ? FILE_HEADER : 0;
+            while (offset + RECORD_HEADER <= PAGE_SIZE) {
+                int length = mapped.getInt(offset);
+                if (length <= 0 || offset + RECORD_HEADER + length > PAGE_SIZE) break;
+                index((long) page << 32 | offset, mapped.getLong(offset + Integer.BYTES));
+                offset += RECORD_HEADER + length;
+            }
+            if (offset == (page == 0 ? FILE_HEADER : 0) && page > 0) break;
+            writePage = page;
+            writeOffset = offset;
+        }
+    }
+
+    // Places one record after the last; the caller writes the terminator
+    private int write(byte[] payload, long hash) throws IOException {
+        int length = RECORD_HEADER + payload.length;
+        if (writeOffset + length + Integer.BYTES > PAGE_SIZE) {
+            writePage++;
+            writeOffset = 0;
+        }
+        MappedByteBuffer page = page(writePage);
+        page.putInt(writeOffset, payload.length);
+        page.putLong(writeOffset + Integer.BYTES, hash);
+        page.put(writeOffset + RECORD_HEADER, payload);
+        int id = index((long) writePage << 32 | writeOffset, hash);
+        writeOffset += length;
+        return id;
+    }
+
+    private byte[] payload(long position) {
+        ByteBuffer page = pages.get((int) (position >>> 32));
+        int offset = (int) position;
+        byte[] payload = new byte[page.getInt(offset)];
+        page.get(offset + RECORD_HEADER, payload);
+        return payload;
+    }
+
+    private int index(long position, long hash) {
+        if (size == positions.length) {
+            positions = Arrays.copyOf(positions, size * 2);
+            keyHashes = Arrays.copyOf(keyHashes, size * 2);
+        }
+        positions[size] = position;
+        keyHashes[size] = hash;
+        if ((size + 1) * 2 > slots.length) {
+            slots = new int[slots.length * 2];
+            for (int id = 0; id < size; id++) insertSlot(id);
+        }
+        insertSlot(size);
+        return size++;
+    }
+
+    private void insertSlot(int id) {
+        int mask = slots.length - 1;
+        int slot = mix(keyHashes[id]) & mask;
+        while (slots[slot] != 0) slot = (slot + 1) & mask;
+        slots[slot] = id + 1;
+    }
+
+    // -------------------------------------------------------------------------
+    // Encoding
+    // -------------------------------------------------------------------------
+
+    // FNV-1a over the type name rather than its byte code, which is only stable within one session
+    static long hash(Finding finding) {
+        long hash = 0xcbf29ce484222325L;
+        hash = fnv(hash, finding.getUrl());
+        hash = fnv(hash, finding.getType());
+        return fnv(hash, finding.getFinding());
+    }
+
+    private static long fnv(long hash, String value) {
+        if (value == null) return (hash ^ 0xff) * 0x100000001b3L;
+        for (int i = 0; i < value.length(); i++) hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        return (hash ^ 0xfe) * 0x100000001b3L;
+    }
+
+    private static int mix(long hash) {
+        return (int) (hash ^ hash >>> 32) * 0x9E3779B9;
+    }
+
+    private static byte[] encode(Finding finding) {
+        byte[][] strings = {
+            utf8(finding.getType()), utf8(finding.getFinding()), utf8(finding.getRuleName()), utf8(finding.getUrl()),
+            utf8(finding.getSeverity()), utf8(finding.getEvidenceId()), utf8(finding.getContext())
+        };
+        int length = Integer.BYTES * 2 + Long.BYTES + 1;
+        for (byte[] string : strings) length += Integer.BYTES + (string == null ? 0 : string.length);
+        ByteBuffer out = ByteBuffer.allocate(length);
+        for (byte[] string : strings) {
+            out.putInt(string == null ? -1 : string.length);
+            if (string != null) out.put(string);
+        }
+        out.putInt(finding.getStart()).putInt(finding.getEnd()).putLong(finding.getTimestamp());
+        out.put((byte) (finding.isTruncated() ? 1 : 0));
+        return out.array();
+    }
+
+    private static Finding decode(ByteBuffer in) {
+        String type = string(in), value = string(in), ruleName = string(in), url = string(in);
+        String severity = string(in), evidenceId = string(in), context = string(in);
+        int start = in.getInt(), end = in.getInt();
+        long timestamp = in.getLong();
+        // Records appended before the flag existed end at the timestamp
+        boolean truncated = in.hasRemaining() && in.get() != 0;
+        return Finding.restore(type, value, ruleName, url, evidenceId, start, end, severity, context, timestamp, truncated);
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) return null;
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,323 @@
+package com.burp.custom.model;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Versioned binary snapshot of findings and evidence.
+ *
+ * Layout: a 4-byte magic and a version byte, then a deflate stream holding the journal
+ * sequence, the finding records and the evidence records. Every record is prefixed
+ * with its length, so later versions can append fields that older readers skip
+ * (appended fields must not add dictionary entries). Evidence blob IDs and the
+ * finding truncation flag were appended that way, so version 1 readers still load
+ * them, without the appended fields.
+ * Repetitive strings (types, rule names, URLs, severities, evidence IDs) go through
+ * an inline dictionary: the first occurrence is written out and later ones are a
+ * varint index. The decoder streams, so only one record is ever buffered.
+ */
+public final class FindingsSnapshotCodec {
+
+    private static final int MAGIC = 0x4A_53_4D_53; // "JSMS"
+    private static final int VERSION = 1;
+    // Dictionary references: 0 is null, 1 introduces a new string, n >= 2 is entry n - 2
+    private static final int REF_NULL = 0;
+    private static final int REF_NEW = 1;
+
+    private FindingsSnapshotCodec() { }
+
+    // -------------------------------------------------------------------------
+    // Writing
+    // -------------------------------------------------------------------------
+
+    /** @return the uncompressed payload size in bytes */
+    public static long write(OutputStream out, long journalSeq, List<Finding> findings,
+                             List<EvidenceRecord> evidence) throws IOException {
+        out.write(new byte[]{(byte) (MAGIC >>> 24), (byte) (MAGIC >>> 16), (byte) (MAGIC >>> 8), (byte) MAGIC, VERSION});
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            DeflaterOutputStream deflated = new DeflaterOutputStream(out, deflater, 64 * 1024);
+            Writer writer = new Writer(deflated);
+            writer.varlong(journalSeq);
+            writer.varint(findings.size());
+            long previousTimestamp = 0;
+            for (Finding finding : findings) {
+                writer.beginRecord();
+                writer.ref(finding.getType());
+                writer.string(finding.getFinding());
+                writer.ref(finding.getRuleName());
+                writer.ref(finding.getUrl());
+                writer.ref(finding.getSeverity());
+                writer.ref(finding.getEvidenceId());
+                writer.string(finding.getContext());
+                writer.varint(finding.getStart());
+                writer.varint(finding.getEnd());
+                writer.zigzag(finding.getTimestamp() - previousTimestamp);
+                previousTimestamp = finding.getTimestamp();
+                writer.varint(finding.isTruncated() ? 1 : 0);
+                writer.endRecord();
+            }
+            writer.varint(evidence.size());
+            for (EvidenceRecord record : evidence) {
+                writer.beginRecord();
+                writer.ref(record.getId());
+                writer.ref(record.getUrl());
+                writer.string(record.getResponseHash());
+                writer.string(record.getRequestString());
+                writer.string(record.getResponseString());
+                writer.string(record.getRequestBlob());
+                writer.string(record.getResponseBlob());
+                writer.endRecord();
+            }
+            deflated.finish();
+            return writer.written;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public static byte[] encode(long journalSeq, List<Finding> findings, List<EvidenceRecord> evidence) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            write(out, journalSeq, findings, evidence);
+        } catch (IOException e) {
+            throw new IllegalStateException("In-memory snapshot write failed", e);
+        }
+        return out.toByteArray();
+    }
+
+    // -------------------------------------------------------------------------
+    // Reading
+    // -------------------------------------------------------------------------
+
+    /**
+     * Streams a snapshot, passing each record on as soon as it is decoded.
+     *
+     * @return the journal sequence number the snapshot covers
+     * @throws IOException if the data is not a snapshot this version understands, or is truncated
+     */
+    public static long read(InputStream in, Consumer<Finding> findings, Consumer<EvidenceRecord> evidence) throws IOException {
+        DataInputStream header = new DataInputStream(in);
+        if (header.readInt() != MAGIC) throw new IOException("Not a findings snapshot");
+        int version = header.readUnsignedByte();
+        if (version > VERSION) throw new IOException("Unsupported findings snapshot version " + version);
+
+        Inflater inflater = new Inflater();
+        Reader reader = new Reader(new BufferedInputStream(new InflaterInputStream(in, inflater, 64 * 1024), 64 * 1024));
+        try {
+            long journalSeq = reader.varlong();
+            int findingCount = reader.varint();
+            long previousTimestamp = 0;
+            for (int i = 0; i < findingCount; i++) {
+                reader.beginRecord();
+                String type = reader.ref();
+                String value = reader.string();
+                String ruleName = reader.ref();
+                String url = reader.ref();
+                String severity = reader.ref();
+                String evidenceId = reader.ref();
+                String context = reader.string();
+                int start = reader.varint();
+                int end = reader.varint();
+                long timestamp = previousTimestamp + reader.zigzag();
+                previousTimestamp = timestamp;
+                boolean truncated = reader.hasMore() && reader.varint() != 0;
+                reader.endRecord();
+                findings.accept(Finding.restore(type, value, ruleName, url, evidenceId, start, end, severity, context, timestamp,
+                    truncated));
+            }
+            int evidenceCount = reader.varint();
+            for (int i = 0; i < evidenceCount; i++) {
+                reader.beginRecord();
+                String id = reader.ref();
+                String url = reader.ref();
+                String responseHash = reader.string();
+                String request = reader.string();
+                String response = reader.string();
+                String requestBlob = reader.hasMore() ? reader.string() : null;
+                String responseBlob = reader.hasMore() ? reader.string() : null;
+                reader.endRecord();
+                evidence.accept(new EvidenceRecord(id, url, responseHash, request, response, requestBlob, responseBlob));
+            }
+            return journalSeq;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Primitives
+    // -------------------------------------------------------------------------
+
+    private static final class Writer {
+        private final OutputStream out;
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+        private boolean inRecord;
+        long written;
+
+        Writer(OutputStream out) {
+            this.out = out;
+        }
+
+        void beginRecord() {
+            record.reset();
+            inRecord = true;
+        }
+
+        void endRecord() throws IOException {
+            inRecord = false;
+            varint(record.size());
+            record.writeTo(out);
+            written += record.size();
+        }
+
+        void ref(String value) throws IOException {
+            if (value == null) {
+                varint(REF_NULL);
+                return;
+            }
+            Integer index = dictionary.get(value);
+            if (index != null) {
+                varint(index + 2);
+                return;
+            }
+            dictionary.put(value, dictionary.size());
+            varint(REF_NEW);
+            string(value);
+        }
+
+        // Length + 1 so that 0 can mean null
+        void string(String value) throws IOException {
+            if (value == null) {
+                varint(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            varint(bytes.length + 1);
+            target().write(bytes);
+            if (!inRecord) written += bytes.length;
+        }
+
+        void zigzag(long value) throws IOException {
+            varlong((value << 1) ^ (value >> 63));
+        }
+
+        void varint(int value) throws IOException {
+            varlong(value & 0xFFFFFFFFL);
+        }
+
+        void varlong(long value) throws IOException {
+            OutputStream target = target();
+            while ((value & ~0x7FL) != 0) {
+                target.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+                if (!inRecord) written++;
+            }
+            target.write((int) value);
+            if (!inRecord) written++;
+        }
+
+        private OutputStream target() {
+            return inRecord ? record : out;
+        }
+    }
+
+    private static final class Reader {
+        private final InputStream in;
+        private final List<String> dictionary = new ArrayList<>();
+        private byte[] bytes = new byte[256];
+        // Bounds of the current record; fields are read from bytes while inside one
+        private int position;
+        private int limit = -1;
+
+        Reader(InputStream in) {
+            this.in = in;
+        }
+
+        void beginRecord() throws IOException {
+            int length = varint();
+            if (length < 0) throw new IOException("Corrupt record length");
+            if (bytes.length < length) bytes = new byte[Math.max(length, bytes.length * 2)];
+            int read = in.readNBytes(bytes, 0, length);
+            if (read < length) throw new EOFException("Truncated findings snapshot");
+            position = 0;
+            limit = length;
+        }
+
+        // Whether the current record has fields left, i.e. was written by a version that appended them
+        boolean hasMore() {
+            return position < limit;
+        }
+
+        // Skips fields appended by newer versions
+        void endRecord() {
+            limit = -1;
+        }
+
+        String ref() throws IOException {
+            int ref = varint();
+            if (ref == REF_NULL) return null;
+            if (ref == REF_NEW) {
+                String value = string();
+                dictionary.add(value);
+                return value;
+            }
+            if (ref - 2 >= dictionary.size()) throw new IOException("Corrupt dictionary reference " + ref);
+            return dictionary.get(ref - 2);
+        }
+
+        String string() throws IOException {
+            int length = varint() - 1;
+            if (length < 0) return null;
+            if (position + length > limit) throw new IOException("Corrupt string length");
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        long zigzag() throws IOException {
+            long value = varlong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        int varint() throws IOException {
+            return (int) varlong();
+        }
+
+        long varlong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IOException("Corrupt varint");
+        }
+
+        private int readByte() throws IOException {
+            if (limit >= 0) {
+                if (position >= limit) throw new IOException("Record overrun");
+                return bytes[position++] & 0xFF;
+            }
+            int b = in.read();
+            if (b < 0) throw new EOFException("Truncated findings snapshot");
+            return b;
+        }
+    }
+}
@@ -0,0 +1,510 @@
+package com.burp.custom.model;
+
+import com.burp.custom.util.UrlUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Indexed findings store shared by analysis workers and the UI.
+ *
+ * Every insert and delete touches a fixed number of hash entries: the URL-scoped
+ * dedup key, the secret-value index (which also yields the reuse count), the
+ * evidence index and the per-host / per-rule counters. Workers call {@link #addAll}
+ * directly; the EDT only reads copies via {@link #snapshot()} and the lookup methods.
+ *
+ * Retention is bounded by a memory budget (and optionally a count), accounted from the
+ * estimated heap size of each finding and evidence record. When a new finding does not
+ * fit, the lowest-priority retained finding is evicted: lowest severity first, then rows
+ * whose secret is also retained elsewhere, then the oldest. A finding that ranks below
+ * everything retained is rejected instead. The per-host limit applies the same order
+ * within the host. Each eviction is O(log n) in a sorted set.
+ *
+ * With an overflow {@link FindingsPageFile} attached, the limits bound only the in-heap
+ * working set: evicted and rejected findings are moved to the file. Overflowed findings still count as duplicates but no longer
+ * take part in reuse counts or evidence lookups.
+ */
+public class FindingsStore {
+
+    private final Object lock = new Object();
+
+    // Primary index, in insertion order — the URL-scoped key is unique per finding
+    private final LinkedHashMap<Finding.Key, Finding> byUrlScopedKey = new LinkedHashMap<>();
+    private final Map<String, SecretGroup> bySecret = new HashMap<>();
+    private final Map<String, EvidenceGroup> byEvidenceId = new HashMap<>();
+    private final Map<String, Counter> hostCounts = new HashMap<>();
+    private final Map<String, Counter> ruleCounts = new HashMap<>();
+
+    // Eviction order, lowest priority first, and each retained finding's entry in it
+    private final TreeSet<Ranked> evictionOrder = new TreeSet<>();
+    // The same entries split by host, for the per-host limit
+    private final Map<String, TreeSet<Ranked>> hostEvictionOrder = new HashMap<>();
+    private final Map<Finding.Key, Ranked> ranks = new HashMap<>();
+    private long nextSequence;
+    private long memoryBytes;
+
+    // Per-finding cost of the index entries above, on top of the finding's own estimate
+    static final int INDEX_BYTES = 256;
+
+    private int globalLimit = Integer.MAX_VALUE;
+    private int perHostLimit = 100;
+    private long memoryBudget = 128L << 20;
+
+    private FindingsPageFile overflow;
+    // Findings evicted from the heap (and moved to the overflow file, if any) since the last drainEvicted()
+    private final List<Finding> evicted = new ArrayList<>();
+    private IOException overflowError;
+
+    /**
+     * A retained finding's place in the eviction order. The fields never change while the
+     * entry is in the set; a finding whose duplicate status changes is re-inserted.
+     */
+    private record Ranked(int severity, boolean unique, long sequence, Finding.Key key, String host, int bytes)
+            implements Comparable<Ranked> {
+        @Override
+        public int compareTo(Ranked other) {
+            int order = Integer.compare(severity, other.severity);
+            if (order == 0) order = Boolean.compare(unique, other.unique);
+            return order != 0 ? order : Long.compare(sequence, other.sequence);
+        }
+
+        Ranked withUnique(boolean value) {
+            return new Ranked(severity, value, sequence, key, host, bytes);
+        }
+    }
+
+    /**
+     * Adds findings that are neither duplicates nor over the retention limits.
+     * Evidence is created through {@code evidenceFactory} only for the first accepted
+     * finding of a given evidence ID; the factory may return null. Stored findings are
+     * then linked to their evidence outside the lock so they can drop their context copy.
+     *
+     * @return the findings that were actually stored, in input order
+     */
+    public List<Finding> addAll(Collection<Finding> findings, Function<String, EvidenceRecord> evidenceFactory) {
+        List<Finding> added = new ArrayList<>();
+        List<EvidenceRecord> records = new ArrayList<>();
+        synchronized (lock) {
+            for (Finding finding : findings) {
+                EvidenceGroup group = addLocked(finding, evidenceFactory);
+                if (group == null) continue;
+                added.add(finding);
+                records.add(group.record);
+            }
+        }
+        for (int i = 0; i < added.size(); i++) added.get(i).attachEvidence(records.get(i));
+        return added;
+    }
+
+    private static final EvidenceGroup NO_EVIDENCE = new EvidenceGroup(null, 0);
+
+    /** @return the finding's evidence group ({@link #NO_EVIDENCE} if it has none), or null when rejected */
+    private EvidenceGroup addLocked(Finding finding, Function<String, EvidenceRecord> evidenceFactory) {
+        Finding.Key key = finding.key();
+        if (byUrlScopedKey.containsKey(key)) return null;
+        if (overflow != null && overflow.contains(finding)) return null;
+        String host = UrlUtils.host(finding.getUrl());
+        SecretGroup secret = bySecret.get(finding.getFinding());
+        Ranked rank = new Ranked(finding.getSeverityOrder(), secret == null, nextSequence++, key, host,
+            finding.estimatedBytes() + INDEX_BYTES);
+        TreeSet<Ranked> hostOrder = hostEvictionOrder.get(host);
+        while (hostOrder != null && hostOrder.size() >= perHostLimit) {
+            Ranked victim = hostOrder.first();
+            if (rank.compareTo(victim) < 0) {
+                overflowLocked(finding);
+                return null;
+            }
+            evictLocked(victim);
+            secret = bySecret.get(finding.getFinding());
+            if (secret == null && !rank.unique()) rank = rank.withUnique(true);
+        }
+        while (byUrlScopedKey.size() >= globalLimit || memoryBytes + rank.bytes() > memoryBudget) {
+            Ranked victim = evictionOrder.isEmpty() ? null : evictionOrder.first();
+            if (victim == null || rank.compareTo(victim) < 0) {
+                overflowLocked(finding);
+                return null;
+            }
+            evictLocked(victim);
+            secret = bySecret.get(finding.getFinding());
+            if (secret == null && !rank.unique()) rank = rank.withUnique(true);
+        }
+
+        byUrlScopedKey.put(key, finding);
+        if (secret == null) {
+            secret = new SecretGroup();
+            bySecret.put(finding.getFinding(), secret);
+        } else if (secret.findings.size() == 1) {
+            // The other row is no longer the only one carrying this secret
+            rerank(secret.findings.keySet().iterator().next(), false);
+        }
+        secret.add(key, finding);
+        rank(rank);
+        String evidenceId = finding.getEvidenceId();
+        EvidenceGroup group = NO_EVIDENCE;
+        if (evidenceId != null) {
+            group = byEvidenceId.get(evidenceId);
+            if (group == null) {
+                EvidenceRecord record = evidenceFactory != null ? evidenceFactory.apply(evidenceId) : null;
+                group = new EvidenceGroup(record, EvidenceRecord.estimatedBytes(record));
+                byEvidenceId.put(evidenceId, group);
+                memoryBytes += group.bytes;
+            }
+            group.findings.put(key, finding);
+        }
+        hostCounts.computeIfAbsent(host, ignored -> new Counter()).value++;
+        ruleCounts.computeIfAbsent(String.valueOf(finding.getRuleName()), ignored -> new Counter()).value++;
+        // New evidence may take the store over budget; older findings make room, never this one
+        while (memoryBytes > memoryBudget && evictionOrder.first() != rank) evictLocked(evictionOrder.first());
+        return group;
+    }
+
+    private void rank(Ranked rank) {
+        ranks.put(rank.key(), rank);
+        evictionOrder.add(rank);
+        hostEvictionOrder.computeIfAbsent(rank.host(), ignored -> new TreeSet<>()).add(rank);
+        memoryBytes += rank.bytes();
+    }
+
+    private void rerank(Finding.Key key, boolean unique) {
+        Ranked current = ranks.get(key);
+        if (current == null || current.unique() == unique) return;
+        evictionOrder.remove(current);
+        TreeSet<Ranked> hostOrder = hostEvictionOrder.get(current.host());
+        hostOrder.remove(current);
+        Ranked updated = current.withUnique(unique);
+        evictionOrder.add(updated);
+        hostOrder.add(updated);
+        ranks.put(key, updated);
+    }
+
+    // Removes a finding to make room; views learn of it through drainEvicted()
+    private void evictLocked(Ranked victim) {
+        Finding finding = removeLocked(victim.key());
+        if (finding == null) return;
+        overflowLocked(finding);
+        evicted.add(finding);
+    }
+
+    /** Removes the given findings; evidence no longer referenced by any finding is released. */
+    public List<Finding> removeAll(Collection<Finding> findings) {
+        List<Finding> removed = new ArrayList<>();
+        synchronized (lock) {
+            for (Finding finding : findings) {
+                if (removeLocked(finding.key()) != null) removed.add(finding);
+            }
+        }
+        return removed;
+    }
+
+    public boolean remove(Finding finding) {
+        synchronized (lock) { return removeLocked(finding.key()) != null; }
+    }
+
+    private Finding removeLocked(Finding.Key key) {
+        Finding finding = byUrlScopedKey.remove(key);
+        if (finding == null) return null;
+
+        Ranked rank = ranks.remove(key);
+        if (rank != null) {
+            evictionOrder.remove(rank);
+            TreeSet<Ranked> hostOrder = hostEvictionOrder.get(rank.host());
+            if (hostOrder != null && hostOrder.remove(rank) && hostOrder.isEmpty()) hostEvictionOrder.remove(rank.host());
+            memoryBytes -= rank.bytes();
+        }
+        SecretGroup secret = bySecret.get(finding.getFinding());
+        if (secret != null) {
+            if (secret.remove(key, finding)) bySecret.remove(finding.getFinding());
+            else if (secret.findings.size() == 1) rerank(secret.findings.keySet().iterator().next(), true);
+        }
+        EvidenceGroup evidence = finding.getEvidenceId() != null ? byEvidenceId.get(finding.getEvidenceId()) : null;
+        if (evidence != null) {
+            evidence.findings.remove(key);
+            if (evidence.findings.isEmpty()) {
+                byEvidenceId.remove(finding.getEvidenceId());
+                memoryBytes -= evidence.bytes;
+            }
+        }
+        decrement(hostCounts, UrlUtils.host(finding.getUrl()));
+        decrement(ruleCounts, String.valueOf(finding.getRuleName()));
+        return finding;
+    }
+
+    /**
+     * Drops matching findings from the overflow file, compacting it; adds wait until it is done.
+     * A write error detaches the file as in {@link #takeOverflowError}.
+     *
+     * @return the number of findings dropped
+     */
+    public int removeOverflowIf(Predicate<Finding> filter) {
+        synchronized (lock) {
+            if (overflow == null) return 0;
+            try {
+                return overflow.removeIf(filter);
+            } catch (IOException e) {
+                overflow = null;
+                overflowError = e;
+                return 0;
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (lock) {
+            byUrlScopedKey.clear();
+            bySecret.clear();
+            byEvidenceId.clear();
+            hostCounts.clear();
+            ruleCounts.clear();
+            evictionOrder.clear();
+            hostEvictionOrder.clear();
+            ranks.clear();
+            memoryBytes = 0;
+            evicted.clear();
+            if (overflow != null) overflow.clear();
+        }
+    }
+
+    /** Attaches (or with null, detaches) the file that takes findings beyond the limits. */
+    public void setOverflow(FindingsPageFile overflow) {
+        synchronized (lock) {
+            this.overflow = overflow;
+            overflowError = null;
+        }
+    }
+
+    /** Findings evicted from the heap since the last call, so views can drop them. */
+    public List<Finding> drainEvicted() {
+        synchronized (lock) {
+            List<Finding> drained = new ArrayList<>(evicted);
+            evicted.clear();
+            return drained;
+        }
+    }
+
+    /**
+     * The write error that detached the overflow file, if any; cleared when read.
+     * Findings are rejected as without an overflow file from then on.
+     */
+    public IOException takeOverflowError() {
+        synchronized (lock) {
+            IOException error = overflowError;
+            overflowError = null;
+            return error;
+        }
+    }
+
+    private boolean overflowLocked(Finding finding) {
+        if (overflow == null) return false;
+        try {
+            overflow.append(finding);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        } catch (IOException e) {
+            overflow = null;
+            overflowError = e;
+            return false;
+        }
+    }
+
+    /**
+     * Applies new count limits. Each host over its new limit, then the store as a whole,
+     * is trimmed in priority order, O(log n) per pruned finding. Pruned findings go to
+     * the overflow file if there is one.
+     *
+     * @return the findings that were pruned from the heap
+     */
+    public List<Finding> setLimits(int globalLimit, int perHostLimit) {
+        synchronized (lock) {
+            this.globalLimit = Math.max(1, globalLimit);
+            this.perHostLimit = Math.max(1, perHostLimit);
+            int before = evicted.size();
+            List<TreeSet<Ranked>> overLimit = new ArrayList<>();
+            for (TreeSet<Ranked> hostOrder : hostEvictionOrder.values()) {
+                if (hostOrder.size() > this.perHostLimit) overLimit.add(hostOrder);
+            }
+            for (TreeSet<Ranked> hostOrder : overLimit) {
+                while (hostOrder.size() > this.perHostLimit) evictLocked(hostOrder.first());
+            }
+            List<Finding> pruned = new ArrayList<>(evicted.subList(before, evicted.size()));
+            evicted.subList(before, evicted.size()).clear();
+            pruned.addAll(trimLocked());
+            return pruned;
+        }
+    }
+
+    /**
+     * Sets the heap budget for findings and their evidence, evicting in priority order
+     * until the store fits.
+     *
+     * @return the findings that were evicted
+     */
+    public List<Finding> setMemoryBudget(long bytes) {
+        synchronized (lock) {
+            memoryBudget = Math.max(0, bytes);
+            return trimLocked();
+        }
+    }
+
+    private List<Finding> trimLocked() {
+        int before = evicted.size();
+        while (!evictionOrder.isEmpty() && (byUrlScopedKey.size() > globalLimit || memoryBytes > memoryBudget)) {
+            evictLocked(evictionOrder.first());
+        }
+        List<Finding> trimmed = new ArrayList<>(evicted.subList(before, evicted.size()));
+        evicted.subList(before, evicted.size()).clear();
+        return trimmed;
+    }
+
+    // -------------------------------------------------------------------------
+    // Reads — all return copies or primitives, safe to hold on the EDT
+    // -------------------------------------------------------------------------
+
+    public List<Finding> snapshot() {
+        synchronized (lock) { return new ArrayList<>(byUrlScopedKey.values()); }
+    }
+
+    public List<EvidenceRecord> evidenceSnapshot() {
+        synchronized (lock) {
+            List<EvidenceRecord> evidence = new ArrayList<>(byEvidenceId.size());
+            for (EvidenceGroup group : byEvidenceId.values()) {
+                if (group.record != null) evidence.add(group.record);
+            }
+            return evidence;
+        }
+    }
+
+    public int size() {
+        synchronized (lock) { return byUrlScopedKey.size(); }
+    }
+
+    /** Estimated heap held by retained findings, their index entries and evidence records. */
+    public long memoryBytes() {
+        synchronized (lock) { return memoryBytes; }
+    }
+
+    public long memoryBudget() {
+        synchronized (lock) { return memoryBudget; }
+    }
+
+    public int overflowSize() {
+        synchronized (lock) { return overflow == null ? 0 : overflow.size(); }
+    }
+
+    /** Findings in the overflow file, decoded one at a time as iterated. */
+    public Iterable<Finding> overflowFindings() {
+        synchronized (lock) { return overflow == null ? List.of() : overflow; }
+    }
+
+    public boolean contains(Finding finding) {
+        synchronized (lock) { return byUrlScopedKey.get(finding.key()) == finding; }
+    }
+
+    /** Number of distinct URLs the given secret value was found on. */
+    public int reuseCount(String secret) {
+        synchronized (lock) {
+            SecretGroup group = bySecret.get(secret);
+            return group == null ? 0 : group.urlCounts.size();
+        }
+    }
+
+    public List<Finding> findingsForSecret(String secret) {
+        synchronized (lock) {
+            SecretGroup group = bySecret.get(secret);
+            return group == null ? List.of() : new ArrayList<>(group.findings.values());
+        }
+    }
+
+    public EvidenceRecord evidence(String evidenceId) {
+        if (evidenceId == null) return null;
+        synchronized (lock) {
+            EvidenceGroup group = byEvidenceId.get(evidenceId);
+            return group == null ? null : group.record;
+        }
+    }
+
+    public List<Finding> findingsForEvidence(String evidenceId) {
+        synchronized (lock) {
+            EvidenceGroup group = byEvidenceId.get(evidenceId);
+            return group == null ? List.of() : new ArrayList<>(group.findings.values());
+        }
+    }
+
+    public int hostCount(String host) {
+        synchronized (lock) { return count(hostCounts, host); }
+    }
+
+    public int ruleCount(String ruleName) {
+        synchronized (lock) { return count(ruleCounts, ruleName); }
+    }
+
+    public Map<String, Integer> hostCountsSnapshot() {
+        synchronized (lock) { return copyCounts(hostCounts); }
+    }
+
+    public Map<String, Integer> ruleCountsSnapshot() {
+        synchronized (lock) { return copyCounts(ruleCounts); }
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private static int count(Map<String, Counter> counts, String key) {
+        Counter counter = counts.get(key);
+        return counter == null ? 0 : counter.value;
+    }
+
+    private static void decrement(Map<String, Counter> counts, String key) {
+        Counter counter = counts.get(key);
+        if (counter != null && --counter.value <= 0) counts.remove(key);
+    }
+
+    private static Map<String, Integer> copyCounts(Map<String, Counter> counts) {
+        Map<String, Integer> copy = new LinkedHashMap<>();
+        counts.forEach((key, counter) -> copy.put(key, counter.value));
+        return Collections.unmodifiableMap(copy);
+    }
+
+    private static final class Counter {
+        int value;
+    }
+
+    /** All findings sharing one secret value; URL counts form a multiset so deletes stay exact. */
+    private static final class SecretGroup {
+        final Map<Finding.Key, Finding> findings = new LinkedHashMap<>();
+        final Map<String, Integer> urlCounts = new HashMap<>();
+
+        void add(Finding.Key key, Finding finding) {
+            findings.put(key, finding);
+            urlCounts.merge(finding.getUrl(), 1, Integer::sum);
+        }
+
+        /** @return true when the group became empty */
+        boolean remove(Finding.Key key, Finding finding) {
+            findings.remove(key);
+            urlCounts.computeIfPresent(finding.getUrl(), (url, count) -> count > 1 ? count - 1 : null);
+            return findings.isEmpty();
+        }
+    }
+
+    private static final class EvidenceGroup {
+        final EvidenceRecord record;
+        final int bytes;
+        final Map<Finding.Key, Finding> findings = new LinkedHashMap<>();
+
+        EvidenceGroup(EvidenceRecord record, int bytes) {
+            this.record = record;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -3,7 +3,11 @@ package com.burp.custom.model;
 import com.google.re2j.Pattern;
 import com.google.re2j.PatternSyntaxException;
 
+import java.util.UUID;
+
 public class RegexRule {
+    // Stable across edits and renames; absent from rules saved before IDs existed
+    private String id;
     private boolean active;
     private String name;
     private String regex;
@@ -50,6 +54,21 @@ public class RegexRule {
     }
 
     // Getters and Setters
+    /**
+     * The rule's stable ID. Built-in rules and rules saved before IDs existed take one
+     * from their name on first use, so it is the same on every load until it is saved.
+     */
+    public String getId() {
+        if (id == null || id.isEmpty()) id = "name:" + name;
+        return id;
+    }
+
+    /** A fresh ID for a rule created in the editor. */
+    public static String newId() {
+        return UUID.randomUUID().toString();
+    }
+
+    public void setId(String id) { this.id = id; }
     public boolean isActive() { return active; }
     public void setActive(boolean active) { this.active = active; }
     public String getName() { return name; }
@@ -118,6 +137,16 @@ public class RegexRule {
         }
     }
 
+    /**
+     * Hash of everything that decides what the rule reports: name, regex, type, severity and
+     * entropy policy. Whether the rule is active is not part of it.
+     */
+    public String getVersion() {
+        String fields = String.join("\u0000", String.valueOf(name), String.valueOf(regex), String.valueOf(type),
+            getSeverity(), getEntropyPolicy().name());
+        return EvidenceRecord.sha256(fields).substring(0, 16);
+    }
+
     public boolean isPatternInvalid() { return patternInvalid; }
     public String getPatternError() { return patternError; }
 }
@@ -0,0 +1,37 @@
+package com.burp.custom.scan;
+
+import com.burp.custom.util.UrlUtils;
+
+/**
+ * URL-prefix and host filter applied to bulk items before any body is read.
+ * An empty prefix or host matches everything; hosts also match their subdomains.
+ */
+public record BulkScanFilter(String urlPrefix, String host) {
+
+    public static final BulkScanFilter ALL = new BulkScanFilter("", "");
+
+    public BulkScanFilter {
+        urlPrefix = urlPrefix == null ? "" : urlPrefix.trim();
+        host = host == null ? "" : host.trim().toLowerCase();
+        if (host.startsWith("*.")) host = host.substring(2);
+    }
+
+    public boolean hasUrlPrefix() { return !urlPrefix.isEmpty(); }
+
+    public boolean matches(String url) {
+        if (url == null) return false;
+        if (!urlPrefix.isEmpty() && !url.regionMatches(true, 0, urlPrefix, 0, urlPrefix.length())) return false;
+        if (host.isEmpty()) return true;
+        String itemHost = UrlUtils.host(url);
+        return itemHost.equals(host) || itemHost.endsWith("." + host);
+    }
+
+    @Override
+    public String toString() {
+        if (urlPrefix.isEmpty() && host.isEmpty()) return "all items";
+        StringBuilder description = new StringBuilder();
+        if (!urlPrefix.isEmpty()) description.append("prefix ").append(urlPrefix);
+        if (!host.isEmpty()) description.append(description.length() > 0 ? ", " : "").append("host ").append(host);
+        return description.toString();
+    }
+}
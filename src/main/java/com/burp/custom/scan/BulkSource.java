@@ -0,0 +1,23 @@
+package com.burp.custom.scan;
+
+import burp.api.montoya.http.message.HttpRequestResponse;
+
+import java.util.function.Predicate;
+
+/**
+ * A source of already-captured traffic for bulk mining (Site Map, Proxy history, ...).
+ * Implementations hand items to the visitor one at a time and must apply the filter
+ * using only request metadata, so response bodies are never touched for skipped items.
+ * The Montoya API has no paged queries, so a source may hold Burp's full list of item
+ * handles while it enumerates; only the processing of bodies is incremental.
+ */
+public interface BulkSource {
+
+    String name();
+
+    /**
+     * Visits every item with a response that passes {@code filter}. The visitor returns
+     * {@code false} to stop enumeration early (cancellation, shutdown).
+     */
+    void enumerate(BulkScanFilter filter, Predicate<HttpRequestResponse> visitor);
+}
@@ -0,0 +1,116 @@
+package com.burp.custom.scan;
+
+import java.util.ArrayDeque;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Low-priority second pass for work that can wait until the scanner is idle.
+ *
+ * Items are held in arrival order up to a byte budget; an offer that does not fit is
+ * refused, so the caller can do the work right away instead of losing it. One
+ * minimum-priority thread takes the oldest item whenever {@code idle} reports spare
+ * capacity, and otherwise waits. Thread-safe.
+ */
+public final class DeferredScans<T> {
+
+    private static final long IDLE_POLL_MILLIS = 250;
+
+    private record Entry<T>(T item, long bytes) { }
+
+    private final long maxBytes;
+    private final BooleanSupplier idle;
+    private final Consumer<T> worker;
+    // Guarded by this
+    private final ArrayDeque<Entry<T>> queue = new ArrayDeque<>();
+    private long bytes;
+    private boolean closed;
+    private Thread thread;
+
+    public DeferredScans(long maxBytes, BooleanSupplier idle, Consumer<T> worker) {
+        this.maxBytes = maxBytes;
+        this.idle = idle;
+        this.worker = worker;
+    }
+
+    public synchronized void start(String threadName) {
+        if (thread != null || closed) return;
+        thread = new Thread(this::run, threadName);
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /** @return false when the item does not fit in the byte budget or the queue is closed */
+    public synchronized boolean offer(T item, long itemBytes) {
+        if (closed || bytes + itemBytes > maxBytes) return false;
+        queue.addLast(new Entry<>(item, itemBytes));
+        bytes += itemBytes;
+        notifyAll();
+        return true;
+    }
+
+    public synchronized int size() { return queue.size(); }
+
+    public synchronized long bytes() { return bytes; }
+
+    /**
+     * Stops the worker after the item it is on and discards the rest.
+     *
+     * @return the number of items discarded
+     */
+    public int close() {
+        Thread running;
+        int discarded;
+        synchronized (this) {
+            closed = true;
+            discarded = queue.size();
+            queue.clear();
+            bytes = 0;
+            running = thread;
+            notifyAll();
+        }
+        if (running != null) {
+            running.interrupt();
+            try {
+                running.join(2_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return discarded;
+    }
+
+    private void run() {
+        while (true) {
+            T item;
+            try {
+                item = take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (item == null) return;
+            try {
+                worker.accept(item);
+            } catch (RuntimeException e) {
+                // One bad item must not stop the pass; the worker reports its own errors
+            }
+        }
+    }
+
+    // Waits for an item and for the scanner to be idle; null once closed
+    private synchronized T take() throws InterruptedException {
+        while (!closed) {
+            if (queue.isEmpty()) {
+                wait();
+            } else if (!idle.getAsBoolean()) {
+                wait(IDLE_POLL_MILLIS);
+            } else {
+                Entry<T> entry = queue.removeFirst();
+                bytes -= entry.bytes();
+                return entry.item();
+            }
+        }
+        return null;
+    }
+}
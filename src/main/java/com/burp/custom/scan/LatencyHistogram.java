@@ -0,0 +1,70 @@
+package com.burp.custom.scan;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets: each power of two of
+ * microseconds is split into {@value #SUB_BUCKETS} linear steps, so a percentile is
+ * reported to within 12.5% of the recorded value from 1 µs to hours. Recording is one
+ * array increment; percentiles walk the fixed bucket array.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 8;
+    private static final int SUB_BITS = 3;
+    private static final int POWERS = 40;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(POWERS * SUB_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        buckets.incrementAndGet(bucket(nanos / 1_000));
+        count.increment();
+        totalNanos.add(nanos);
+    }
+
+    public long count() { return count.sum(); }
+
+    public double meanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / n;
+    }
+
+    /** Upper bound of the bucket holding the {@code quantile} (0 to 1) of recorded values, in milliseconds. */
+    public double percentileMillis(double quantile) {
+        long total = 0;
+        for (int i = 0; i < buckets.length(); i++) total += buckets.get(i);
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) return upperBoundMicros(i) / 1_000.0;
+        }
+        return upperBoundMicros(buckets.length() - 1) / 1_000.0;
+    }
+
+    public void reset() {
+        for (int i = 0; i < buckets.length(); i++) buckets.set(i, 0);
+        count.reset();
+        totalNanos.reset();
+    }
+
+    // Values below SUB_BUCKETS µs map linearly; above, by their top bit and the next SUB_BITS bits
+    static int bucket(long micros) {
+        if (micros < SUB_BUCKETS) return (int) micros;
+        int power = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) (micros >>> (power - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return Math.min(POWERS * SUB_BUCKETS - 1, (power - SUB_BITS + 1) * SUB_BUCKETS + sub);
+    }
+
+    static long upperBoundMicros(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket + 1;
+        int power = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        int sub = bucket % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << (power - SUB_BITS));
+    }
+}
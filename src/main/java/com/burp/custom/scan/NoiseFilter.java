@@ -0,0 +1,290 @@
+package com.burp.custom.scan;
+
+import com.google.re2j.Matcher;
+import com.google.re2j.Pattern;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The noise lists compiled for per-match lookups.
+ *
+ * Noise patterns are joined into one alternation, so a finding is run through a single
+ * automaton instead of one regex per pattern. Noise domains are kept in a trie over the
+ * reversed host, walked from the last character of the finding's host; an entry matches
+ * the host itself or any subdomain of it, never an unrelated host that merely contains
+ * it. An entry may carry a path ({@code googleapis.com/ajax}), which the finding's path
+ * must then start with. Module prefixes are kept in a forward trie.
+ *
+ * Built once per configuration change and immutable afterwards. Queries walk the
+ * finding in place and reuse one matcher per thread, so they allocate nothing of
+ * their own.
+ */
+public final class NoiseFilter {
+
+    // Shorter findings are never worth reporting
+    static final int MIN_FINDING_LENGTH = 5;
+
+    public static final NoiseFilter NONE = compile(List.of(), List.of(), List.of());
+
+    private final List<String> patterns;
+    private final List<String> domains;
+    private final List<String> prefixes;
+    private final Pattern combined;
+    private final ThreadLocal<Matcher> matchers;
+    private final Node domainTrie;
+    private final Node prefixTrie;
+
+    private NoiseFilter(List<String> patterns, List<String> domains, List<String> prefixes) {
+        this.patterns = patterns;
+        this.domains = domains;
+        this.prefixes = prefixes;
+        this.combined = patterns.isEmpty() ? null : Pattern.compile(alternation(patterns));
+        this.matchers = combined == null ? null : ThreadLocal.withInitial(() -> combined.matcher(""));
+        this.domainTrie = buildDomainTrie(domains);
+        this.prefixTrie = buildPrefixTrie(prefixes);
+    }
+
+    /**
+     * @param patterns already-compiled noise patterns; each must compile on its own
+     * @param domains  host names, optionally with a path prefix; case-insensitive
+     * @param prefixes module path prefixes; case-sensitive
+     */
+    public static NoiseFilter compile(List<Pattern> patterns, List<String> domains, List<String> prefixes) {
+        List<String> sources = new ArrayList<>(patterns.size());
+        for (Pattern pattern : patterns) sources.add(pattern.pattern());
+        List<String> normalizedDomains = new ArrayList<>(domains.size());
+        for (String domain : domains) {
+            String normalized = normalizeDomain(domain);
+            if (!normalized.isEmpty()) normalizedDomains.add(normalized);
+        }
+        List<String> nonEmptyPrefixes = new ArrayList<>(prefixes.size());
+        for (String prefix : prefixes) {
+            if (prefix != null && !prefix.isEmpty()) nonEmptyPrefixes.add(prefix);
+        }
+        return new NoiseFilter(List.copyOf(sources), List.copyOf(normalizedDomains), List.copyOf(nonEmptyPrefixes));
+    }
+
+    /** Whether a match of a rule of this type should be dropped as noise. */
+    public boolean isNoise(String type, String finding) {
+        if (finding == null || finding.length() < MIN_FINDING_LENGTH) return true;
+        if (matchesPattern(finding)) return true;
+        if (("URL".equals(type) || "ENDPOINT".equals(type)) && matchesDomain(finding)) return true;
+        return ("ENDPOINT".equals(type) || "FILE".equals(type)) && matchesPrefix(finding);
+    }
+
+    boolean matchesPattern(String finding) {
+        if (combined == null) return false;
+        Matcher matcher = matchers.get();
+        try {
+            return matcher.reset(finding).find();
+        } catch (RuntimeException e) {
+            return false;
+        } finally {
+            // Do not keep the last finding reachable from a pool thread
+            matcher.reset("");
+        }
+    }
+
+    /** Whether the host of an absolute, scheme-relative or bare-host finding is a noise domain. */
+    boolean matchesDomain(String finding) {
+        if (domainTrie.isEmpty()) return false;
+        int length = finding.length();
+        int start = hostStart(finding);
+        if (start < 0) return false;
+        int end = start;
+        while (end < length) {
+            char c = finding.charAt(end);
+            if (c == '/' || c == '?' || c == '#' || c == '\\') break;
+            end++;
+        }
+        int pathStart = end;
+        for (int i = end - 1; i >= start; i--) {
+            if (finding.charAt(i) == '@') {
+                start = i + 1;
+                break;
+            }
+        }
+        if (start < end && finding.charAt(start) == '[') {
+            // IPv6 literal: the brackets are part of the host
+            for (int i = start; i < end; i++) {
+                if (finding.charAt(i) == ']') {
+                    end = i + 1;
+                    break;
+                }
+            }
+        } else {
+            for (int i = start; i < end; i++) {
+                if (finding.charAt(i) == ':') {
+                    end = i;
+                    break;
+                }
+            }
+        }
+        if (end > start && finding.charAt(end - 1) == '.') end--;
+
+        Node node = domainTrie;
+        for (int i = end - 1; i >= start; i--) {
+            node = node.child(Character.toLowerCase(finding.charAt(i)));
+            if (node == null) return false;
+            if (node.terminal && (i == start || finding.charAt(i - 1) == '.') && node.matchesPath(finding, pathStart)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean matchesPrefix(String finding) {
+        Node node = prefixTrie;
+        int length = finding.length();
+        for (int i = 0; i < length && !node.isEmpty(); i++) {
+            node = node.child(finding.charAt(i));
+            if (node == null) return false;
+            if (node.terminal) return true;
+        }
+        return false;
+    }
+
+    // Index of the first host character, or -1 when the finding is a relative path
+    private static int hostStart(String finding) {
+        int length = finding.length();
+        int i = 0;
+        while (i < length && isSchemeChar(finding.charAt(i))) i++;
+        if (i > 0 && finding.startsWith("://", i)) return i + 3;
+        if (finding.startsWith("//")) return 2;
+        if (length == 0) return -1;
+        char first = finding.charAt(0);
+        return first == '/' || first == '.' || first == '\\' ? -1 : 0;
+    }
+
+    private static boolean isSchemeChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '+' || c == '-' || c == '.';
+    }
+
+    private static String alternation(List<String> patterns) {
+        StringBuilder joined = new StringBuilder();
+        for (String pattern : patterns) {
+            if (joined.length() > 0) joined.append('|');
+            // Each pattern in its own group so its flags and anchors stay its own
+            joined.append("(?:").append(pattern).append(')');
+        }
+        return joined.toString();
+    }
+
+    // Lower-cased host with an optional path; scheme, wildcard label and trailing dots dropped
+    private static String normalizeDomain(String domain) {
+        if (domain == null) return "";
+        String value = domain.trim();
+        int scheme = value.indexOf("://");
+        if (scheme >= 0) value = value.substring(scheme + 3);
+        if (value.startsWith("*.")) value = value.substring(2);
+        while (value.startsWith(".")) value = value.substring(1);
+        int slash = value.indexOf('/');
+        String host = slash < 0 ? value : value.substring(0, slash);
+        String path = slash < 0 ? "" : value.substring(slash);
+        while (host.endsWith(".")) host = host.substring(0, host.length() - 1);
+        if (host.isEmpty()) return "";
+        return host.toLowerCase(Locale.ROOT) + (path.equals("/") ? "" : path);
+    }
+
+    private static Node buildDomainTrie(List<String> domains) {
+        Builder root = new Builder();
+        for (String domain : domains) {
+            int slash = domain.indexOf('/');
+            String host = slash < 0 ? domain : domain.substring(0, slash);
+            Builder node = root;
+            for (int i = host.length() - 1; i >= 0; i--) node = node.child(host.charAt(i));
+            node.terminal = true;
+            if (slash < 0) node.anyPath = true;
+            else node.paths.add(domain.substring(slash));
+        }
+        return root.build();
+    }
+
+    private static Node buildPrefixTrie(List<String> prefixes) {
+        Builder root = new Builder();
+        for (String prefix : prefixes) {
+            Builder node = root;
+            for (int i = 0; i < prefix.length(); i++) node = node.child(prefix.charAt(i));
+            node.terminal = true;
+        }
+        return root.build();
+    }
+
+    private static final class Builder {
+        final Map<Character, Builder> children = new TreeMap<>();
+        final List<String> paths = new ArrayList<>();
+        boolean terminal;
+        boolean anyPath;
+
+        Builder child(char c) {
+            return children.computeIfAbsent(c, key -> new Builder());
+        }
+
+        Node build() {
+            char[] keys = new char[children.size()];
+            Node[] nodes = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, Builder> entry : children.entrySet()) {
+                keys[i] = entry.getKey();
+                nodes[i++] = entry.getValue().build();
+            }
+            return new Node(keys, nodes, terminal, anyPath, anyPath ? new String[0] : paths.toArray(new String[0]));
+        }
+    }
+
+    // Frozen trie node; children sorted by key for binary search
+    private static final class Node {
+        final char[] keys;
+        final Node[] children;
+        final boolean terminal;
+        final boolean anyPath;
+        final String[] paths;
+
+        Node(char[] keys, Node[] children, boolean terminal, boolean anyPath, String[] paths) {
+            this.keys = keys;
+            this.children = children;
+            this.terminal = terminal;
+            this.anyPath = anyPath;
+            this.paths = paths;
+        }
+
+        boolean isEmpty() { return keys.length == 0; }
+
+        Node child(char c) {
+            int low = 0, high = keys.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char key = keys[mid];
+                if (key < c) low = mid + 1;
+                else if (key > c) high = mid - 1;
+                else return children[mid];
+            }
+            return null;
+        }
+
+        boolean matchesPath(String finding, int pathStart) {
+            if (anyPath) return true;
+            for (String path : paths) {
+                if (finding.startsWith(path, pathStart)) return true;
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (!(other instanceof NoiseFilter)) return false;
+        NoiseFilter that = (NoiseFilter) other;
+        return patterns.equals(that.patterns) && domains.equals(that.domains) && prefixes.equals(that.prefixes);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * patterns.hashCode() + domains.hashCode()) + prefixes.hashCode();
+    }
+}
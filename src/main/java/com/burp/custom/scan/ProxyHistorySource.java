@@ -0,0 +1,35 @@
+package com.burp.custom.scan;
+
+import burp.api.montoya.MontoyaApi;
+import burp.api.montoya.http.message.HttpRequestResponse;
+import burp.api.montoya.proxy.ProxyHttpRequestResponse;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Proxy HTTP history, filtered inside Burp's history query before items are returned.
+ * The query yields one list of every matching entry; bodies are only read when visited.
+ */
+public class ProxyHistorySource implements BulkSource {
+
+    private final MontoyaApi api;
+
+    public ProxyHistorySource(MontoyaApi api) {
+        this.api = api;
+    }
+
+    @Override
+    public String name() { return "Proxy History"; }
+
+    @Override
+    public void enumerate(BulkScanFilter filter, Predicate<HttpRequestResponse> visitor) {
+        List<ProxyHttpRequestResponse> history = api.proxy().history(item ->
+            item.finalRequest() != null && item.response() != null && filter.matches(item.finalRequest().url()));
+        for (ProxyHttpRequestResponse item : history) {
+            HttpRequestResponse requestResponse =
+                HttpRequestResponse.httpRequestResponse(item.finalRequest(), item.response());
+            if (!visitor.test(requestResponse)) return;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.burp.custom.scan;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Adapts the scan loop to how each rule actually behaves.
+ *
+ * Rules run highest declared severity first, and within a severity, those whose
+ * matches most often survive the noise filter first, so a broad rule cannot fill the
+ * per-response finding cap before the secret rules run. A rule whose matches are
+ * mostly noise gets a lower match cap. A rule that hits its cap with nothing but noise
+ * on several responses in a row from one host is suspended for that host for a while;
+ * every suspension is kept in an audit trail with the number of scans it skipped.
+ *
+ * Caps and order are recomputed from {@link RuleProfiler} totals by {@link #refresh}
+ * and {@link #prioritize}; the per-scan calls on {@link Control} are lock-free. State is
+ * keyed by rule ID, like the profiler's.
+ */
+public final class RuleGovernor {
+
+    // A rule's cap never drops below this
+    static final int MIN_MATCH_CAP = 10;
+    // Matches seen before a rule's noise rate is trusted
+    static final int MIN_MATCHES_TO_JUDGE = 200;
+    // Consecutive all-noise capped scans on one host before the rule is suspended there
+    static final int STRIKES_TO_SUSPEND = 3;
+    static final long SUSPEND_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    static final int AUDIT_SIZE = 500;
+    // Hosts tracked per rule for strikes; beyond this the tally starts over
+    private static final int MAX_STRIKE_HOSTS = 1_024;
+
+    private final int maxMatches;
+    private final LongSupplier clock;
+    private final Map<String, Control> controls = new ConcurrentHashMap<>();
+    // Newest last; guarded by itself
+    private final ArrayDeque<Suspension> audit = new ArrayDeque<>();
+
+    /** A suspension as shown in the audit trail. */
+    public record Suppression(long atMillis, String rule, String host, int matchCap, long untilMillis, long skippedScans) { }
+
+    private static final class Suspension {
+        final long atMillis;
+        final String rule;
+        final String host;
+        final int matchCap;
+        final long untilMillis;
+        final LongAdder skipped = new LongAdder();
+
+        Suspension(long atMillis, String rule, String host, int matchCap, long untilMillis) {
+            this.atMillis = atMillis;
+            this.rule = rule;
+            this.host = host;
+            this.matchCap = matchCap;
+            this.untilMillis = untilMillis;
+        }
+    }
+
+    public RuleGovernor(int maxMatches) {
+        this(maxMatches, System::currentTimeMillis);
+    }
+
+    RuleGovernor(int maxMatches, LongSupplier clock) {
+        this.maxMatches = maxMatches;
+        this.clock = clock;
+    }
+
+    /** Adaptive state for one rule; like profiles, it survives recompilation and renames. */
+    public final class Control {
+        // Display name for the audit trail; follows renames
+        private volatile String rule;
+        private volatile int matchCap = maxMatches;
+        private final Map<String, Integer> strikes = new ConcurrentHashMap<>();
+        private final Map<String, Suspension> suspended = new ConcurrentHashMap<>();
+
+        private Control(String rule) {
+            this.rule = rule;
+        }
+
+        public int matchCap() { return matchCap; }
+
+        /** Whether the rule is suspended for this host; counts the skipped scan if so. */
+        public boolean suspended(String host) {
+            if (suspended.isEmpty()) return false;
+            Suspension suspension = suspended.get(host);
+            if (suspension == null) return false;
+            if (clock.getAsLong() >= suspension.untilMillis) {
+                suspended.remove(host, suspension);
+                return false;
+            }
+            suspension.skipped.increment();
+            return true;
+        }
+
+        /**
+         * Records one completed pass of the rule over a response from {@code host}.
+         *
+         * @return the new suspension when this pass triggered one, otherwise null
+         */
+        public Suppression recordScan(String host, int matches, int afterNoise) {
+            if (matches < matchCap || afterNoise > 0) {
+                if (!strikes.isEmpty()) strikes.remove(host);
+                return null;
+            }
+            if (strikes.size() >= MAX_STRIKE_HOSTS) strikes.clear();
+            if (strikes.merge(host, 1, Integer::sum) < STRIKES_TO_SUSPEND) return null;
+            strikes.remove(host);
+            long now = clock.getAsLong();
+            Suspension suspension = new Suspension(now, rule, host, matchCap, now + SUSPEND_MILLIS);
+            suspended.put(host, suspension);
+            synchronized (audit) {
+                if (audit.size() == AUDIT_SIZE) audit.removeFirst();
+                audit.addLast(suspension);
+            }
+            return view(suspension);
+        }
+
+        private void reset() {
+            matchCap = maxMatches;
+            strikes.clear();
+            suspended.clear();
+        }
+    }
+
+    public Control control(String ruleId, String ruleName) {
+        Control control = controls.computeIfAbsent(String.valueOf(ruleId), ignored -> new Control(ruleName));
+        control.rule = ruleName;
+        return control;
+    }
+
+    /** Drops the state of rules no longer in the ruleset; their audit entries are kept. */
+    public void retainOnly(Set<String> ruleIds) {
+        controls.keySet().retainAll(ruleIds);
+    }
+
+    /** Sets each rule's match cap from the share of its matches that survived the noise filter. */
+    public void refresh(Map<String, RuleProfiler.Stats> stats) {
+        for (Map.Entry<String, Control> entry : controls.entrySet()) {
+            RuleProfiler.Stats rule = stats.get(entry.getKey());
+            entry.getValue().matchCap = matchCap(rule);
+        }
+    }
+
+    // Twice the survival rate of the full cap: rules keeping half their matches or more are not limited
+    int matchCap(RuleProfiler.Stats stats) {
+        if (stats == null || stats.matches() < MIN_MATCHES_TO_JUDGE) return maxMatches;
+        double survival = (double) stats.afterNoise() / stats.matches();
+        return (int) Math.max(MIN_MATCH_CAP, Math.min(maxMatches, Math.ceil(maxMatches * survival * 2)));
+    }
+
+    /**
+     * The rules in evaluation order: highest severity first, then highest share of matches
+     * surviving noise; rules not yet judged count as fully surviving. Otherwise stable.
+     */
+    public <R> List<R> prioritize(List<R> rules, Function<R, String> id, Function<R, String> severity,
+                                  Map<String, RuleProfiler.Stats> stats) {
+        Comparator<R> order = Comparator.<R>comparingInt(rule -> -severityRank(severity.apply(rule)))
+            .thenComparingDouble(rule -> -survival(stats.get(id.apply(rule))));
+        List<R> sorted = new ArrayList<>(rules);
+        sorted.sort(order);
+        return sorted;
+    }
+
+    private static double survival(RuleProfiler.Stats stats) {
+        if (stats == null || stats.matches() < MIN_MATCHES_TO_JUDGE) return 1.0;
+        return (double) stats.afterNoise() / stats.matches();
+    }
+
+    static int severityRank(String severity) {
+        if (severity == null) return 0;
+        switch (severity) {
+            case "HIGH":   return 4;
+            case "MEDIUM": return 3;
+            case "LOW":    return 2;
+            case "INFO":   return 1;
+            default:       return 0;
+        }
+    }
+
+    /** Suspensions so far, oldest first, including expired ones. */
+    public List<Suppression> auditTrail() {
+        synchronized (audit) {
+            List<Suppression> trail = new ArrayList<>(audit.size());
+            for (Suspension suspension : audit) trail.add(view(suspension));
+            return trail;
+        }
+    }
+
+    /** Restores full caps and lifts every suspension; the audit trail is kept. */
+    public void reset() {
+        for (Control control : controls.values()) control.reset();
+    }
+
+    private static Suppression view(Suspension suspension) {
+        return new Suppression(suspension.atMillis, suspension.rule, suspension.host, suspension.matchCap,
+            suspension.untilMillis, suspension.skipped.sum());
+    }
+}
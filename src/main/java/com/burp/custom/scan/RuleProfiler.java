@@ -0,0 +1,118 @@
+package com.burp.custom.scan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-rule cost accounting for the scan loop.
+ *
+ * Each compiled rule holds its own {@link Profile}, so recording is a few striped
+ * counter adds with no lookup. Profiles are keyed by rule ID, so they survive
+ * recompilation and renames, and rules sharing a name keep separate totals.
+ * Thread-safe.
+ */
+public final class RuleProfiler {
+
+    // A rule is slow when it costs this many times the median per scanned byte...
+    static final double SLOW_FACTOR = 5.0;
+    // ...and keeps fewer than one finding per this many responses it scanned
+    static final int LOW_YIELD_SCANS = 100;
+    // Too few scans to judge
+    static final int MIN_SCANS = 20;
+
+    private final Map<String, Profile> profiles = new ConcurrentHashMap<>();
+
+    /** Counters for one rule. */
+    public static final class Profile {
+        private final LongAdder scans = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder matches = new LongAdder();
+        private final LongAdder afterNoise = new LongAdder();
+        private final LongAdder kept = new LongAdder();
+
+        /** One pass of the rule over a response body. */
+        public void record(long elapsedNanos, long scannedBytes, int matchCount, int survivingNoise) {
+            scans.increment();
+            nanos.add(elapsedNanos);
+            bytes.add(scannedBytes);
+            matches.add(matchCount);
+            afterNoise.add(survivingNoise);
+        }
+
+        /** One finding of the rule kept after de-duplication. */
+        public void findingKept() {
+            kept.increment();
+        }
+
+        void reset() {
+            scans.reset();
+            nanos.reset();
+            bytes.reset();
+            matches.reset();
+            afterNoise.reset();
+            kept.reset();
+        }
+    }
+
+    /** A rule's totals, keyed by its ID, and whether it stands out as costly for what it finds. */
+    public record Stats(String rule, long scans, long nanos, long bytes, long matches, long afterNoise, long kept,
+                        boolean slow) {
+        public double millis() { return nanos / 1_000_000.0; }
+
+        public double nanosPerByte() { return bytes == 0 ? 0 : (double) nanos / bytes; }
+    }
+
+    public Profile profile(String ruleId) {
+        return profiles.computeIfAbsent(String.valueOf(ruleId), ignored -> new Profile());
+    }
+
+    public void findingKept(String ruleId) {
+        Profile profile = profiles.get(String.valueOf(ruleId));
+        if (profile != null) profile.findingKept();
+    }
+
+    /** Drops the profiles of rules no longer in the ruleset. */
+    public void retainOnly(Set<String> ruleIds) {
+        profiles.keySet().retainAll(ruleIds);
+    }
+
+    public void reset() {
+        for (Profile profile : profiles.values()) profile.reset();
+    }
+
+    /** Totals for every rule seen so far, with slow, low-yield rules flagged against the median cost. */
+    public Map<String, Stats> stats() {
+        List<Stats> raw = new ArrayList<>(profiles.size());
+        for (Map.Entry<String, Profile> entry : profiles.entrySet()) {
+            Profile p = entry.getValue();
+            raw.add(new Stats(entry.getKey(), p.scans.sum(), p.nanos.sum(), p.bytes.sum(), p.matches.sum(),
+                p.afterNoise.sum(), p.kept.sum(), false));
+        }
+        double median = medianCost(raw);
+        Map<String, Stats> stats = new HashMap<>();
+        for (Stats s : raw) {
+            boolean slow = median > 0 && s.scans() >= MIN_SCANS
+                && s.nanosPerByte() > SLOW_FACTOR * median
+                && s.kept() * LOW_YIELD_SCANS < s.scans();
+            stats.put(s.rule(), slow ? new Stats(s.rule(), s.scans(), s.nanos(), s.bytes(), s.matches(),
+                s.afterNoise(), s.kept(), true) : s);
+        }
+        return stats;
+    }
+
+    private static double medianCost(List<Stats> stats) {
+        double[] costs = stats.stream().filter(s -> s.scans() >= MIN_SCANS && s.bytes() > 0)
+            .mapToDouble(Stats::nanosPerByte).toArray();
+        if (costs.length == 0) return 0;
+        Arrays.sort(costs);
+        int middle = costs.length / 2;
+        return costs.length % 2 == 1 ? costs[middle] : (costs[middle - 1] + costs[middle]) / 2;
+    }
+}
@@ -0,0 +1,107 @@
+package com.burp.custom.scan;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * What changed between two rulesets, compared rule by rule through stable IDs.
+ *
+ * A rule whose version hash differs is modified; that includes renames, since findings
+ * carry the rule name. Added and modified rules are the ones a delta rescan runs.
+ * Findings carry only the rule name, so they are retracted by name, never for a name
+ * still used by a rule that did not change: those of removed rules everywhere, those
+ * under the previous name of a modified rule only where that rule is run again.
+ */
+public final class RulesetDelta {
+
+    /** One rule as far as change tracking is concerned. */
+    public record RuleVersion(String id, String name, String version) { }
+
+    private final List<RuleVersion> added;
+    private final List<RuleVersion> modified;
+    private final List<RuleVersion> removed;
+    private final Set<String> removedRuleNames;
+    private final Set<String> supersededRuleNames;
+
+    private RulesetDelta(List<RuleVersion> added, List<RuleVersion> modified, List<RuleVersion> removed,
+                         Set<String> removedRuleNames, Set<String> supersededRuleNames) {
+        this.added = added;
+        this.modified = modified;
+        this.removed = removed;
+        this.removedRuleNames = removedRuleNames;
+        this.supersededRuleNames = supersededRuleNames;
+    }
+
+    /** Changes from {@code baseline} to {@code current}; both keyed by rule ID, order kept from {@code current}. */
+    public static RulesetDelta between(Collection<RuleVersion> baseline, Collection<RuleVersion> current) {
+        Map<String, RuleVersion> before = new LinkedHashMap<>();
+        for (RuleVersion rule : baseline) before.put(rule.id(), rule);
+        List<RuleVersion> added = new ArrayList<>();
+        List<RuleVersion> modified = new ArrayList<>();
+        Set<String> unchangedNames = new HashSet<>();
+        Set<String> previousNames = new LinkedHashSet<>();
+        Set<String> removedNames = new LinkedHashSet<>();
+        Set<String> currentIds = new HashSet<>();
+        for (RuleVersion rule : current) {
+            currentIds.add(rule.id());
+            RuleVersion previous = before.get(rule.id());
+            if (previous == null) {
+                added.add(rule);
+            } else if (!previous.version().equals(rule.version())) {
+                modified.add(rule);
+                previousNames.add(previous.name());
+            } else {
+                unchangedNames.add(rule.name());
+            }
+        }
+        List<RuleVersion> removed = new ArrayList<>();
+        for (RuleVersion rule : before.values()) {
+            if (currentIds.contains(rule.id())) continue;
+            removed.add(rule);
+            removedNames.add(rule.name());
+        }
+        previousNames.removeAll(unchangedNames);
+        // A finding under a name a modified rule also had may be that rule's: kept unless it runs again
+        removedNames.removeAll(unchangedNames);
+        removedNames.removeAll(previousNames);
+        return new RulesetDelta(List.copyOf(added), List.copyOf(modified), List.copyOf(removed),
+            Set.copyOf(removedNames), Set.copyOf(previousNames));
+    }
+
+    public List<RuleVersion> added() { return added; }
+
+    /** Modified rules in their current version. */
+    public List<RuleVersion> modified() { return modified; }
+
+    /** Removed or deactivated rules in their baseline version. */
+    public List<RuleVersion> removed() { return removed; }
+
+    /** IDs of the rules a delta rescan runs: added and modified ones. */
+    public Set<String> idsToRun() {
+        Set<String> ids = new HashSet<>();
+        for (RuleVersion rule : added) ids.add(rule.id());
+        for (RuleVersion rule : modified) ids.add(rule.id());
+        return ids;
+    }
+
+    /** Rule names whose findings no longer reflect any current rule, wherever they were found. */
+    public Set<String> removedRuleNames() { return removedRuleNames; }
+
+    /** Previous names of modified rules; their findings are stale wherever the rule is run again. */
+    public Set<String> supersededRuleNames() { return supersededRuleNames; }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && modified.isEmpty() && removed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return added.size() + " added, " + modified.size() + " changed, " + removed.size() + " removed";
+    }
+}
@@ -0,0 +1,103 @@
+package com.burp.custom.scan;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Deadline and cancellation token for one response scan.
+ *
+ * The scan loop checks it between rules and between matches. Bodies long enough for
+ * a single regex pass to matter are matched through {@link #guard}, which checks it
+ * every few thousand characters the matcher reads, so neither a pathological body nor
+ * a superseded configuration holds a worker for long. Tokens from one {@link Scope}
+ * are all cancelled by {@link Scope#cancelAll()}; an interrupted thread also counts as
+ * cancelled. A token belongs to the thread running its scan and is not thread-safe.
+ */
+public final class ScanBudget {
+
+    /** Why a scan stopped early. */
+    public enum Reason { TIME_BUDGET, CANCELLED }
+
+    /** Thrown out of a guarded match once the token is spent; carries no stack trace. */
+    public static final class Exhausted extends RuntimeException {
+        Exhausted() {
+            super("Scan budget exhausted", null, false, false);
+        }
+    }
+
+    /** Issues tokens and cancels every one issued so far. Thread-safe. */
+    public static final class Scope {
+        private final AtomicInteger generation = new AtomicInteger();
+
+        /** A token that expires {@code budgetNanos} from now; zero or less never expires. */
+        public ScanBudget start(long budgetNanos) {
+            return new ScanBudget(generation, budgetNanos);
+        }
+
+        /** Cancels all tokens issued before this call; later ones are unaffected. */
+        public void cancelAll() {
+            generation.incrementAndGet();
+        }
+    }
+
+    // Characters read by the matcher between checks; a check costs about one nanoTime call
+    static final int CHECK_INTERVAL = 4_096;
+
+    private final AtomicInteger scopeGeneration;
+    private final int generation;
+    private final long deadline;
+    private final boolean timed;
+    private Reason stopped;
+
+    private ScanBudget(AtomicInteger scopeGeneration, long budgetNanos) {
+        this.scopeGeneration = scopeGeneration;
+        this.generation = scopeGeneration.get();
+        this.timed = budgetNanos > 0;
+        this.deadline = System.nanoTime() + budgetNanos;
+    }
+
+    /** Whether the scan should stop now. Once true, stays true. */
+    public boolean spent() {
+        if (stopped != null) return true;
+        if (scopeGeneration.get() != generation || Thread.currentThread().isInterrupted()) {
+            stopped = Reason.CANCELLED;
+        } else if (timed && System.nanoTime() - deadline >= 0) {
+            stopped = Reason.TIME_BUDGET;
+        }
+        return stopped != null;
+    }
+
+    /** Why the scan stopped, or null while it may continue; does not re-check the clock. */
+    public Reason reason() {
+        return stopped;
+    }
+
+    /** The text as a sequence whose reads throw {@link Exhausted} once this token is spent. */
+    public CharSequence guard(String text) {
+        return new Guarded(text);
+    }
+
+    private final class Guarded implements CharSequence {
+        private final String text;
+        private int reads;
+
+        Guarded(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (++reads >= CHECK_INTERVAL) {
+                reads = 0;
+                if (spent()) throw new Exhausted();
+            }
+            return text.charAt(index);
+        }
+
+        @Override public int length() { return text.length(); }
+
+        // Only match groups are extracted this way, after the match has been found
+        @Override public CharSequence subSequence(int start, int end) { return text.subSequence(start, end); }
+
+        @Override public String toString() { return text; }
+    }
+}
@@ -0,0 +1,226 @@
+package com.burp.custom.scan;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Registered;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+import java.util.List;
+
+/**
+ * Java Flight Recorder events for the scan pipeline, so a recording taken while Burp
+ * is slow attributes time to responses, rules, table flushes and saves instead of
+ * anonymous pool threads inside RE2J frames.
+ *
+ * The event types are registered only while the Configuration toggle is on. When it
+ * is off, every emitter returns after one volatile read and allocates nothing; when
+ * it is on, the recording's own settings still decide what is kept, so thresholds
+ * can be changed in JDK Mission Control without rebuilding the extension.
+ */
+public final class ScanEvents {
+
+    private static final String CATEGORY = "JS Miner Pro";
+
+    private static volatile boolean enabled;
+
+    private ScanEvents() { }
+
+    public static boolean enabled() { return enabled; }
+
+    /**
+     * Registers or unregisters the event types with Flight Recorder.
+     *
+     * @return whether events are now emitted; false when this runtime has no Flight Recorder
+     */
+    public static synchronized boolean setEnabled(boolean on) {
+        if (on == enabled) return enabled;
+        try {
+            // Referenced here rather than in a field, so a runtime without jdk.jfr only fails on enabling
+            List<Class<? extends Event>> types = List.of(ResponseScanned.class, RuleEvaluated.class,
+                QueueRejected.class, FindingsFlushed.class, PersistenceSave.class);
+            for (Class<? extends Event> type : types) {
+                if (on) FlightRecorder.register(type);
+                else FlightRecorder.unregister(type);
+            }
+            enabled = on;
+        } catch (LinkageError | IllegalStateException | SecurityException e) {
+            enabled = false;
+        }
+        return enabled;
+    }
+
+    /** Starts timing a response scan; null while events are off. */
+    public static ResponseScanned responseScanStarted() {
+        if (!enabled) return null;
+        ResponseScanned event = new ResponseScanned();
+        event.begin();
+        return event;
+    }
+
+    /** Starts timing one rule over one response; null while events are off. */
+    public static RuleEvaluated ruleStarted() {
+        if (!enabled) return null;
+        RuleEvaluated event = new RuleEvaluated();
+        event.begin();
+        return event;
+    }
+
+    /** Starts timing a flush of findings into the Results table; null while events are off. */
+    public static FindingsFlushed flushStarted() {
+        if (!enabled) return null;
+        FindingsFlushed event = new FindingsFlushed();
+        event.begin();
+        return event;
+    }
+
+    /** Starts timing a findings save; null while events are off. */
+    public static PersistenceSave saveStarted(String kind) {
+        if (!enabled) return null;
+        PersistenceSave event = new PersistenceSave();
+        event.kind = kind;
+        event.begin();
+        return event;
+    }
+
+    /** A response turned away because the analysis queue was full. */
+    public static void queueRejected(String source, int queueDepth, boolean scannedInline) {
+        if (!enabled) return;
+        QueueRejected event = new QueueRejected();
+        if (!event.isEnabled()) return;
+        event.source = source;
+        event.queueDepth = queueDepth;
+        event.scannedInline = scannedInline;
+        event.commit();
+    }
+
+    @Name("com.burp.custom.jsminer.ResponseScanned")
+    @Label("Response Scanned")
+    @Description("Rule evaluation over one response body")
+    @Category(CATEGORY)
+    @Registered(false)
+    @StackTrace(false)
+    public static final class ResponseScanned extends Event {
+        @Label("Host")
+        String host;
+
+        @Label("Body Size")
+        @DataAmount
+        long bytes;
+
+        @Label("Rules Evaluated")
+        int rules;
+
+        @Label("Findings")
+        int findings;
+
+        public void finish(String host, long bytes, int rules, int findings) {
+            end();
+            if (!shouldCommit()) return;
+            this.host = host;
+            this.bytes = bytes;
+            this.rules = rules;
+            this.findings = findings;
+            commit();
+        }
+    }
+
+    @Name("com.burp.custom.jsminer.RuleEvaluated")
+    @Label("Rule Evaluated")
+    @Description("One rule matched over one response body; only slow evaluations are recorded by default")
+    @Category(CATEGORY)
+    @Registered(false)
+    @StackTrace(false)
+    @Threshold("1 ms")
+    public static final class RuleEvaluated extends Event {
+        @Label("Rule")
+        String rule;
+
+        @Label("Body Size")
+        @DataAmount
+        long bytes;
+
+        @Label("Matches")
+        int matches;
+
+        @Label("After Noise Filter")
+        int afterNoise;
+
+        public void finish(String rule, long bytes, int matches, int afterNoise) {
+            end();
+            if (!shouldCommit()) return;
+            this.rule = rule;
+            this.bytes = bytes;
+            this.matches = matches;
+            this.afterNoise = afterNoise;
+            commit();
+        }
+    }
+
+    @Name("com.burp.custom.jsminer.QueueRejected")
+    @Label("Queue Rejected")
+    @Description("A response did not fit in the analysis queue")
+    @Category(CATEGORY)
+    @Registered(false)
+    public static final class QueueRejected extends Event {
+        @Label("Source")
+        @Description("live or bulk")
+        String source;
+
+        @Label("Queue Depth")
+        int queueDepth;
+
+        @Label("Scanned Inline")
+        @Description("Bulk items are scanned on the enumerating thread instead of being dropped")
+        boolean scannedInline;
+    }
+
+    @Name("com.burp.custom.jsminer.FindingsFlushed")
+    @Label("Findings Flushed")
+    @Description("Queued findings applied to the Results table on the event dispatch thread")
+    @Category(CATEGORY)
+    @Registered(false)
+    @StackTrace(false)
+    public static final class FindingsFlushed extends Event {
+        @Label("Rows")
+        int rows;
+
+        @Label("Backlog")
+        @Description("Findings still waiting for a later flush")
+        int backlog;
+
+        public void finish(int rows, int backlog) {
+            end();
+            if (!shouldCommit()) return;
+            this.rows = rows;
+            this.backlog = backlog;
+            commit();
+        }
+    }
+
+    @Name("com.burp.custom.jsminer.PersistenceSave")
+    @Label("Findings Saved")
+    @Description("Findings written to the Burp project, as a journal segment or a full snapshot")
+    @Category(CATEGORY)
+    @Registered(false)
+    @StackTrace(false)
+    public static final class PersistenceSave extends Event {
+        @Label("Kind")
+        String kind;
+
+        @Label("Records")
+        int records;
+
+        public void finish(int records) {
+            end();
+            if (!shouldCommit()) return;
+            this.records = records;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.burp.custom.scan;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Pipeline counters and latency histograms for the scanner.
+ *
+ * Workers only add to striped counters and histograms, so recording never contends.
+ * {@link #sample()} turns the counters into per-second rates once per call, keeping a
+ * rolling window of samples for the Performance tab's chart. Thread-safe.
+ */
+public final class ScanMetrics {
+
+    /** Why a response was not scanned. */
+    public enum Gate { OUT_OF_SCOPE, MIME_TYPE, OVERSIZE, EMPTY, BINARY, LOW_MEMORY }
+
+    /** Rates over the interval since the previous sample. */
+    public record Sample(long timestampMillis, double responsesPerSecond, double scannedPerSecond,
+                         double findingsPerSecond, double bytesPerSecond, int queueDepth) { }
+
+    /** Samples kept in the rolling window. */
+    public static final int HISTORY = 120;
+
+    private final LongAdder seen = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder scanned = new LongAdder();
+    private final LongAdder deduped = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder truncated = new LongAdder();
+    private final LongAdder bytesScanned = new LongAdder();
+    private final LongAdder findings = new LongAdder();
+    private final LongAdder[] gated = new LongAdder[Gate.values().length];
+    private final LatencyHistogram scanLatency = new LatencyHistogram();
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram edtFlush = new LatencyHistogram();
+    private volatile IntSupplier queueDepth = () -> 0;
+    private volatile IntSupplier deferredDepth = () -> 0;
+    private final long startedMillis = System.currentTimeMillis();
+
+    // Rolling window; guarded by itself
+    private final ArrayDeque<Sample> history = new ArrayDeque<>(HISTORY);
+    private long lastSampleNanos = System.nanoTime();
+    private long lastSeen, lastScanned, lastFindings, lastBytes;
+
+    public ScanMetrics() {
+        for (int i = 0; i < gated.length; i++) gated[i] = new LongAdder();
+    }
+
+    public void setQueueDepth(IntSupplier queueDepth) { this.queueDepth = queueDepth; }
+    public void setDeferredDepth(IntSupplier deferredDepth) { this.deferredDepth = deferredDepth; }
+
+    public void responseSeen()                 { seen.increment(); }
+    public void responseQueued()               { queued.increment(); }
+    public void responseDropped()              { dropped.increment(); }
+    public void responseDeduped()              { deduped.increment(); }
+    public void responseTruncated()            { truncated.increment(); }
+    public void responseGated(Gate gate)       { gated[gate.ordinal()].increment(); }
+    public void queueWait(long nanos)          { queueWait.record(nanos); }
+    public void edtFlush(long nanos)           { edtFlush.record(nanos); }
+    public void findingsKept(int count)        { findings.add(count); }
+
+    public void responseScanned(long bytes, long nanos) {
+        scanned.increment();
+        bytesScanned.add(bytes);
+        scanLatency.record(nanos);
+    }
+
+    public long seen()         { return seen.sum(); }
+    public long queued()       { return queued.sum(); }
+    public long scanned()      { return scanned.sum(); }
+    public long deduped()      { return deduped.sum(); }
+    public long dropped()      { return dropped.sum(); }
+    public long truncated()    { return truncated.sum(); }
+    public long bytesScanned() { return bytesScanned.sum(); }
+    public long findings()     { return findings.sum(); }
+    public long gated(Gate gate) { return gated[gate.ordinal()].sum(); }
+    public int queueDepth()    { return queueDepth.getAsInt(); }
+    public int deferredDepth() { return deferredDepth.getAsInt(); }
+    public LatencyHistogram scanLatency() { return scanLatency; }
+    public LatencyHistogram queueWait()   { return queueWait; }
+    public LatencyHistogram edtFlush()    { return edtFlush; }
+
+    /** Records rates since the previous call and adds them to the rolling window. */
+    public Sample sample() {
+        long now = System.nanoTime();
+        long seenNow = seen.sum(), scannedNow = scanned.sum(), findingsNow = findings.sum(), bytesNow = bytesScanned.sum();
+        synchronized (history) {
+            double seconds = Math.max(1e-3, (now - lastSampleNanos) / 1e9);
+            Sample sample = new Sample(System.currentTimeMillis(), (seenNow - lastSeen) / seconds,
+                (scannedNow - lastScanned) / seconds, (findingsNow - lastFindings) / seconds,
+                (bytesNow - lastBytes) / seconds, queueDepth());
+            lastSampleNanos = now;
+            lastSeen = seenNow;
+            lastScanned = scannedNow;
+            lastFindings = findingsNow;
+            lastBytes = bytesNow;
+            if (history.size() == HISTORY) history.removeFirst();
+            history.addLast(sample);
+            return sample;
+        }
+    }
+
+    /** Oldest first. */
+    public List<Sample> history() {
+        synchronized (history) { return new ArrayList<>(history); }
+    }
+
+    /** Everything above as plain maps and numbers, for the JSON dump. */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> counters = new LinkedHashMap<>();
+        counters.put("responsesSeen", seen());
+        counters.put("responsesQueued", queued());
+        counters.put("responsesScanned", scanned());
+        counters.put("responsesDeduped", deduped());
+        counters.put("responsesDropped", dropped());
+        counters.put("responsesTruncated", truncated());
+        counters.put("bytesScanned", bytesScanned());
+        counters.put("findingsKept", findings());
+        Map<String, Object> gates = new LinkedHashMap<>();
+        for (Gate gate : Gate.values()) gates.put(gate.name(), gated(gate));
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("timestamp", System.currentTimeMillis());
+        snapshot.put("uptimeSeconds", (System.currentTimeMillis() - startedMillis) / 1000);
+        snapshot.put("counters", counters);
+        snapshot.put("gatedOut", gates);
+        snapshot.put("queueDepth", queueDepth());
+        snapshot.put("deferredDepth", deferredDepth());
+        snapshot.put("scanLatencyMs", latency(scanLatency));
+        snapshot.put("queueWaitMs", latency(queueWait));
+        snapshot.put("edtFlushMs", latency(edtFlush));
+        snapshot.put("history", history());
+        return snapshot;
+    }
+
+    private static Map<String, Object> latency(LatencyHistogram histogram) {
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("count", histogram.count());
+        latency.put("mean", histogram.meanMillis());
+        latency.put("p50", histogram.percentileMillis(0.50));
+        latency.put("p99", histogram.percentileMillis(0.99));
+        return latency;
+    }
+}
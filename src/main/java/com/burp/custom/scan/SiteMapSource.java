@@ -0,0 +1,38 @@
+package com.burp.custom.scan;
+
+import burp.api.montoya.MontoyaApi;
+import burp.api.montoya.http.message.HttpRequestResponse;
+import burp.api.montoya.sitemap.SiteMapFilter;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Site Map contents — covers Scanner, other extensions and imported project traffic
+ * that never passed through the live HTTP handler.
+ */
+public class SiteMapSource implements BulkSource {
+
+    private final MontoyaApi api;
+
+    public SiteMapSource(MontoyaApi api) {
+        this.api = api;
+    }
+
+    @Override
+    public String name() { return "Site Map"; }
+
+    @Override
+    public void enumerate(BulkScanFilter filter, Predicate<HttpRequestResponse> visitor) {
+        // Let Burp narrow the tree by prefix; the host filter still runs per item.
+        // Burp returns the whole matching list at once; bodies are only read when visited.
+        List<HttpRequestResponse> items = filter.hasUrlPrefix()
+            ? api.siteMap().requestResponses(SiteMapFilter.prefixFilter(filter.urlPrefix()))
+            : api.siteMap().requestResponses();
+        for (HttpRequestResponse item : items) {
+            if (item == null || item.request() == null || !item.hasResponse()) continue;
+            if (!filter.matches(item.request().url())) continue;
+            if (!visitor.test(item)) return;
+        }
+    }
+}
@@ -5,11 +5,14 @@ import burp.api.montoya.persistence.PersistedObject;
 import com.burp.custom.JsMinerExtension;
 import com.burp.custom.model.RegexRule;
 import com.burp.custom.model.EntropyPolicy;
+import com.burp.custom.scan.RuleProfiler;
+import com.burp.custom.scan.RulesetDelta;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 
 import javax.swing.*;
+import javax.swing.Timer;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
@@ -35,13 +38,28 @@ public class ConfigTab extends JPanel {
     private JTextArea noiseDomainsTextArea;
     private JTextArea modulePrefixesTextArea;
     private JTextField maxFileSizeField;
-    private JTextField globalFindingLimitField;
+    private JTextField scanBudgetField;
+    private JTextField findingsMemoryField;
     private JTextField perHostFindingLimitField;
+    private JTextField evidenceMemoryField;
     private JCheckBox persistRawHttpCheckbox;
+    private JCheckBox overflowToDiskCheckbox;
     private JCheckBox clearFindingsOnCloseCheckbox;
+    private JCheckBox flightRecorderCheckbox;
+    private JCheckBox deferLiveExtractionCheckbox;
     private JComboBox<String> logLevelCombo;
     private JsMinerExtension extension;
     private JLabel regexValidationLabel;
+    private Timer ruleStatsTimer;
+    private Map<String, RuleProfiler.Stats> ruleStats = Map.of();
+
+    // Rule table columns from here on are read-only profiler statistics
+    private static final int COL_PROFILE = 6;
+    private static final int COLUMN_COUNT = 11;
+    // Hidden model column carrying each row's stable rule ID through edits and moves
+    private static final int COL_ID = COLUMN_COUNT;
+    private static final int RULE_STATS_REFRESH_MILLIS = 2_000;
+    private static final Color SLOW_RULE_BACKGROUND = new Color(255, 224, 178);
 
     // HTML is intentionally excluded from defaults — it produces too much noise.
     // Users can add "text/html" manually if they want to scan HTML pages too.
@@ -64,6 +82,9 @@ public class ConfigTab extends JPanel {
         "./vendor\n./assets\n./components\n./pages\n./views\n./store\n./router";
 
     private static final double DEFAULT_MAX_FILE_SIZE_MB = 2.0;
+    private static final int DEFAULT_FINDINGS_MEMORY_MB = 128;
+    private static final int DEFAULT_EVIDENCE_MEMORY_MB = 64;
+    private static final int DEFAULT_SCAN_BUDGET_MS = 10_000;
 
     public ConfigTab(MontoyaApi api, JsMinerExtension extension) {
         this.api       = api;
@@ -134,35 +155,70 @@ public class ConfigTab extends JPanel {
         grid.add(maxFileSizeField, gbc);
 
         gbc.gridx = 0; gbc.gridy = 2;
-        grid.add(new JLabel("Global Finding Limit:"), gbc);
+        grid.add(new JLabel("Scan Budget per Response (ms):"), gbc);
         gbc.gridx = 1;
-        globalFindingLimitField = new JTextField("1000", 8);
-        globalFindingLimitField.setToolTipText("Maximum retained findings across the project.");
-        grid.add(globalFindingLimitField, gbc);
+        scanBudgetField = new JTextField(String.valueOf(DEFAULT_SCAN_BUDGET_MS), 8);
+        scanBudgetField.setToolTipText("A scan still running after this long stops; what it found so far is kept " +
+            "and marked truncated (italic Source URL).");
+        grid.add(scanBudgetField, gbc);
 
         gbc.gridx = 0; gbc.gridy = 3;
+        grid.add(new JLabel("Findings Memory (MB):"), gbc);
+        gbc.gridx = 1;
+        findingsMemoryField = new JTextField(String.valueOf(DEFAULT_FINDINGS_MEMORY_MB), 8);
+        findingsMemoryField.setToolTipText("Heap for retained findings. When full, the lowest-severity findings go " +
+            "first, secrets also found elsewhere before unique ones, oldest first.");
+        grid.add(findingsMemoryField, gbc);
+
+        gbc.gridx = 0; gbc.gridy = 4;
         grid.add(new JLabel("Per-Host Finding Limit:"), gbc);
         gbc.gridx = 1;
         perHostFindingLimitField = new JTextField("100", 8);
         perHostFindingLimitField.setToolTipText("Maximum retained findings for one host.");
         grid.add(perHostFindingLimitField, gbc);
 
-        gbc.gridx = 0; gbc.gridy = 4; gbc.gridwidth = 2;
+        gbc.gridx = 0; gbc.gridy = 5;
+        grid.add(new JLabel("Evidence Memory (MB):"), gbc);
+        gbc.gridx = 1;
+        evidenceMemoryField = new JTextField(String.valueOf(DEFAULT_EVIDENCE_MEMORY_MB), 8);
+        evidenceMemoryField.setToolTipText("Heap for full HTTP messages behind findings. Beyond it, the least recently " +
+            "viewed messages move to Burp temp files; the text around each match always stays in memory.");
+        grid.add(evidenceMemoryField, gbc);
+
+        gbc.gridx = 0; gbc.gridy = 6; gbc.gridwidth = 2;
         persistRawHttpCheckbox = new JCheckBox("Persist raw HTTP evidence (may contain plaintext secrets)", true);
         grid.add(persistRawHttpCheckbox, gbc);
 
-        gbc.gridx = 0; gbc.gridy = 5;
+        gbc.gridx = 0; gbc.gridy = 7;
         clearFindingsOnCloseCheckbox = new JCheckBox("Clear persisted findings when the project closes", false);
         grid.add(clearFindingsOnCloseCheckbox, gbc);
 
+        gbc.gridx = 0; gbc.gridy = 8;
+        overflowToDiskCheckbox = new JCheckBox("Keep findings beyond the limits in a memory-mapped file on disk", false);
+        overflowToDiskCheckbox.setToolTipText("The limits then bound only the findings shown in Results; older and over-limit " +
+            "findings move to ~/.jsminer and are still exported.");
+        grid.add(overflowToDiskCheckbox, gbc);
+
         gbc.gridwidth = 1;
-        gbc.gridx = 0; gbc.gridy = 6;
+        gbc.gridx = 0; gbc.gridy = 9;
         grid.add(new JLabel("Log Level:"), gbc);
         gbc.gridx = 1;
         logLevelCombo = new JComboBox<>(new String[]{"DEBUG", "INFO", "WARN", "ERROR"});
         logLevelCombo.setSelectedItem("INFO");
         grid.add(logLevelCombo, gbc);
 
+        gbc.gridx = 0; gbc.gridy = 10; gbc.gridwidth = 2;
+        deferLiveExtractionCheckbox = new JCheckBox("Scan live traffic for secrets first; run URL, endpoint and other rules when idle", true);
+        deferLiveExtractionCheckbox.setToolTipText("Secret findings appear within seconds during heavy browsing; the " +
+            "other rules catch up on the same responses once the scanner has spare capacity.");
+        grid.add(deferLiveExtractionCheckbox, gbc);
+
+        gbc.gridx = 0; gbc.gridy = 11;
+        flightRecorderCheckbox = new JCheckBox("Emit Java Flight Recorder events for profiling", false);
+        flightRecorderCheckbox.setToolTipText("Response scans, slow rules, queue rejections, table flushes and saves appear " +
+            "under \"JS Miner Pro\" in JDK Mission Control. No cost while off.");
+        grid.add(flightRecorderCheckbox, gbc);
+
         panel.add(grid, BorderLayout.NORTH);
 
         JPanel mimePanel = new JPanel(new BorderLayout());
@@ -220,10 +276,13 @@ public class ConfigTab extends JPanel {
         JPanel panel = new JPanel(new BorderLayout(5, 5));
         panel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
 
-        String[] columnNames = {"Active", "Name", "Regex", "Type", "Severity", "Entropy Policy"};
+        String[] columnNames = {"Active", "Name", "Regex", "Type", "Severity", "Entropy Policy",
+            "Time (ms)", "Scanned (MB)", "Matches", "After Noise", "Kept", "ID"};
         tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override public Class<?> getColumnClass(int col) { return col == 0 ? Boolean.class : String.class; }
-            @Override public boolean isCellEditable(int r, int c) { return true; }
+            @Override public Class<?> getColumnClass(int col) {
+                return col == 0 ? Boolean.class : col >= COL_PROFILE && col < COL_ID ? Number.class : String.class;
+            }
+            @Override public boolean isCellEditable(int r, int c) { return c < COL_PROFILE; }
         };
 
         table = new JTable(tableModel);
@@ -252,6 +311,30 @@ public class ConfigTab extends JPanel {
             }
         });
 
+        // Rules that cost far more than the median for little yield are highlighted
+        DefaultTableCellRenderer profileRenderer = new DefaultTableCellRenderer() {
+            @Override public Component getTableCellRendererComponent(JTable t, Object v, boolean sel, boolean foc, int r, int c) {
+                Object shown = v instanceof Double d ? String.format("%.1f", d) : v;
+                Component comp = super.getTableCellRendererComponent(t, shown, sel, foc, r, c);
+                setHorizontalAlignment(c >= COL_PROFILE ? RIGHT : LEFT);
+                RuleProfiler.Stats stats = ruleStats.get(String.valueOf(t.getModel().getValueAt(t.convertRowIndexToModel(r), COL_ID)));
+                if (stats != null && stats.slow() && !sel) {
+                    comp.setBackground(SLOW_RULE_BACKGROUND);
+                    setToolTipText(String.format("Slow rule: %.2f ns per byte scanned, %d finding(s) kept in %d scans",
+                        stats.nanosPerByte(), stats.kept(), stats.scans()));
+                } else {
+                    comp.setBackground(sel ? t.getSelectionBackground() : t.getBackground());
+                    setToolTipText(null);
+                }
+                return comp;
+            }
+        };
+        table.getColumnModel().getColumn(1).setCellRenderer(profileRenderer);
+        for (int col = COL_PROFILE; col < COLUMN_COUNT; col++) {
+            table.getColumnModel().getColumn(col).setCellRenderer(profileRenderer);
+        }
+        table.removeColumn(table.getColumnModel().getColumn(COL_ID));
+
         panel.add(new JScrollPane(table), BorderLayout.CENTER);
 
         regexValidationLabel = new JLabel(" ");
@@ -264,6 +347,10 @@ public class ConfigTab extends JPanel {
         JButton validateBtn = new JButton("Validate All");
         JButton upBtn       = new JButton("Move Up");
         JButton downBtn     = new JButton("Move Down");
+        JButton resetStatsBtn = new JButton("Reset Rule Stats");
+        JButton rescanChangedBtn = new JButton("Rescan with Changed Rules");
+        rescanChangedBtn.setToolTipText("Saves the rules, retracts findings of removed and changed rules, and re-mines " +
+            "stored responses with only the added and changed rules.");
 
         addBtn.addActionListener(e -> {
             tableModel.addRow(new Object[]{true, "New Rule", "", "GENERIC", "INFO", EntropyPolicy.NONE});
@@ -281,17 +368,70 @@ public class ConfigTab extends JPanel {
         });
         upBtn.addActionListener(e -> moveRow(-1));
         downBtn.addActionListener(e -> moveRow(1));
+        resetStatsBtn.addActionListener(e -> {
+            if (extension != null) {
+                extension.ruleProfiler().reset();
+                extension.ruleGovernor().reset();
+            }
+            refreshRuleStats();
+        });
 
         btnRow.add(addBtn);
         btnRow.add(deleteBtn);
         btnRow.add(validateBtn);
         btnRow.add(upBtn);
         btnRow.add(downBtn);
+        btnRow.add(resetStatsBtn);
+        btnRow.add(rescanChangedBtn);
+        rescanChangedBtn.addActionListener(e -> rescanChangedRules(rescanChangedBtn));
         panel.add(btnRow, BorderLayout.SOUTH);
 
+        ruleStatsTimer = new Timer(RULE_STATS_REFRESH_MILLIS, e -> refreshRuleStats());
+        ruleStatsTimer.start();
+
         return panel;
     }
 
+    private void rescanChangedRules(JButton button) {
+        if (extension == null || !validateAllRules()) return;
+        saveConfig();
+        RulesetDelta delta = extension.pendingRuleChanges();
+        if (delta.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "No rules were added, changed, removed or disabled since the last rescan.",
+                "Rescan with Changed Rules", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        String message = "Rule changes since the last rescan: " + delta + ".\n\n" +
+            "Findings from changed and removed rules are retracted, then the responses behind the stored\n" +
+            "findings are scanned with the added and changed rules only. Responses that produced no\n" +
+            "findings are not stored; new rules reach them on the next live or bulk scan.\n\nContinue?";
+        if (JOptionPane.showConfirmDialog(this, message, "Rescan with Changed Rules",
+                JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) return;
+        button.setEnabled(false);
+        extension.rescanChangedRules(() -> button.setEnabled(true));
+    }
+
+    // Copies the profiler's totals into the read-only columns, matching rows by rule ID
+    private void refreshRuleStats() {
+        if (extension == null) return;
+        ruleStats = extension.ruleProfiler().stats();
+        for (int row = 0; row < tableModel.getRowCount(); row++) {
+            RuleProfiler.Stats stats = ruleStats.get(String.valueOf(tableModel.getValueAt(row, COL_ID)));
+            Object[] values = stats == null ? new Object[COLUMN_COUNT - COL_PROFILE]
+                : new Object[]{stats.millis(), stats.bytes() / 1048576.0, stats.matches(), stats.afterNoise(), stats.kept()};
+            for (int i = 0; i < values.length; i++) {
+                if (!Objects.equals(tableModel.getValueAt(row, COL_PROFILE + i), values[i])) {
+                    tableModel.setValueAt(values[i], row, COL_PROFILE + i);
+                }
+            }
+        }
+    }
+
+    /** Stops the rule statistics refresh; called on unload. */
+    public void stop() {
+        if (ruleStatsTimer != null) ruleStatsTimer.stop();
+    }
+
     // -------------------------------------------------------------------------
     // Public accessors — getRules() returns a defensive copy so background
     // analysis threads cannot observe a ConcurrentModificationException.
@@ -330,9 +470,13 @@ public class ConfigTab extends JPanel {
         if (extension == null) return;
         extension.updateScannerConfig(inScopeOnlyCheckbox.isSelected(), getMaxFileSizeMb(), getMimeTypes(),
             getNoisePatterns(), getNoiseDomains(), getModulePrefixes(), getRules());
-        extension.updateFindingRetentionOptions(getPositiveInt(globalFindingLimitField, 1_000),
+        extension.updateFindingRetentionOptions(getPositiveInt(findingsMemoryField, DEFAULT_FINDINGS_MEMORY_MB),
             getPositiveInt(perHostFindingLimitField, 100), persistRawHttpCheckbox.isSelected(),
-            clearFindingsOnCloseCheckbox.isSelected());
+            clearFindingsOnCloseCheckbox.isSelected(), overflowToDiskCheckbox.isSelected(),
+            getPositiveInt(evidenceMemoryField, DEFAULT_EVIDENCE_MEMORY_MB));
+        extension.setScanBudget(getPositiveInt(scanBudgetField, DEFAULT_SCAN_BUDGET_MS));
+        extension.setDeferLiveExtraction(deferLiveExtractionCheckbox.isSelected());
+        extension.setFlightRecorderEvents(flightRecorderCheckbox.isSelected());
     }
 
     // -------------------------------------------------------------------------
@@ -369,6 +513,7 @@ public class ConfigTab extends JPanel {
 
     private void updateRulesFromTable() {
         List<RegexRule> newRules = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
         for (int i = 0; i < tableModel.getRowCount(); i++) {
             boolean active   = (boolean) tableModel.getValueAt(i, 0);
             String  name     = (String)  tableModel.getValueAt(i, 1);
@@ -376,7 +521,17 @@ public class ConfigTab extends JPanel {
             String  type     = (String)  tableModel.getValueAt(i, 3);
             String  severity = (String)  tableModel.getValueAt(i, 4);
             EntropyPolicy entropyPolicy = (EntropyPolicy) tableModel.getValueAt(i, 5);
-            newRules.add(new RegexRule(active, name, regex, type, severity, entropyPolicy));
+            RegexRule rule = new RegexRule(active, name, regex, type, severity, entropyPolicy);
+            // New rows get an ID here and keep it; a duplicated ID would merge two rules' histories
+            Object id = tableModel.getValueAt(i, COL_ID);
+            if (id instanceof String existing && ids.add(existing)) {
+                rule.setId(existing);
+            } else {
+                rule.setId(RegexRule.newId());
+                ids.add(rule.getId());
+                tableModel.setValueAt(rule.getId(), i, COL_ID);
+            }
+            newRules.add(rule);
         }
         synchronized (this) { this.rules = newRules; }
     }
@@ -385,9 +540,14 @@ public class ConfigTab extends JPanel {
         tableModel.setRowCount(0);
         synchronized (this) {
             for (RegexRule rule : rules) {
-                tableModel.addRow(new Object[]{rule.isActive(), rule.getName(), rule.getRegex(), rule.getType(), rule.getSeverity(), rule.getEntropyPolicy()});
+                Object[] row = new Object[COLUMN_COUNT + 1];
+                Object[] editable = {rule.isActive(), rule.getName(), rule.getRegex(), rule.getType(), rule.getSeverity(), rule.getEntropyPolicy()};
+                System.arraycopy(editable, 0, row, 0, editable.length);
+                row[COL_ID] = rule.getId();
+                tableModel.addRow(row);
             }
         }
+        refreshRuleStats();
     }
 
     // -------------------------------------------------------------------------
@@ -449,10 +609,15 @@ public class ConfigTab extends JPanel {
         prefs.setString("jsminer_noise_domains",    noiseDomainsTextArea.getText());
         prefs.setString("jsminer_module_prefixes",  modulePrefixesTextArea.getText());
         prefs.setString("jsminer_log_level",        (String) logLevelCombo.getSelectedItem());
-        prefs.setString("jsminer_global_finding_limit", globalFindingLimitField.getText());
+        prefs.setString("jsminer_findings_memory_mb", findingsMemoryField.getText());
         prefs.setString("jsminer_per_host_finding_limit", perHostFindingLimitField.getText());
+        prefs.setString("jsminer_evidence_memory_mb", evidenceMemoryField.getText());
+        prefs.setString("jsminer_scan_budget_ms", scanBudgetField.getText());
         prefs.setBoolean("jsminer_persist_raw_http", persistRawHttpCheckbox.isSelected());
         prefs.setBoolean("jsminer_clear_findings_on_close", clearFindingsOnCloseCheckbox.isSelected());
+        prefs.setBoolean("jsminer_overflow_to_disk", overflowToDiskCheckbox.isSelected());
+        prefs.setBoolean("jsminer_jfr_events", flightRecorderCheckbox.isSelected());
+        prefs.setBoolean("jsminer_defer_live_extraction", deferLiveExtractionCheckbox.isSelected());
         try {
             Double.parseDouble(maxFileSizeField.getText());
             prefs.setString("jsminer_max_file_size", maxFileSizeField.getText());
@@ -501,14 +666,24 @@ public class ConfigTab extends JPanel {
             String maxFileSize = prefs.getString("jsminer_max_file_size");
             maxFileSizeField.setText(maxFileSize != null ? maxFileSize : String.valueOf(DEFAULT_MAX_FILE_SIZE_MB));
 
-            String globalLimit = prefs.getString("jsminer_global_finding_limit");
-            globalFindingLimitField.setText(globalLimit != null ? globalLimit : "1000");
+            String findingsMemory = prefs.getString("jsminer_findings_memory_mb");
+            findingsMemoryField.setText(findingsMemory != null ? findingsMemory : String.valueOf(DEFAULT_FINDINGS_MEMORY_MB));
             String perHostLimit = prefs.getString("jsminer_per_host_finding_limit");
             perHostFindingLimitField.setText(perHostLimit != null ? perHostLimit : "100");
+            String evidenceMemory = prefs.getString("jsminer_evidence_memory_mb");
+            evidenceMemoryField.setText(evidenceMemory != null ? evidenceMemory : String.valueOf(DEFAULT_EVIDENCE_MEMORY_MB));
+            String scanBudget = prefs.getString("jsminer_scan_budget_ms");
+            scanBudgetField.setText(scanBudget != null ? scanBudget : String.valueOf(DEFAULT_SCAN_BUDGET_MS));
             Boolean persistRawHttp = prefs.getBoolean("jsminer_persist_raw_http");
             persistRawHttpCheckbox.setSelected(persistRawHttp == null || persistRawHttp);
             Boolean clearOnClose = prefs.getBoolean("jsminer_clear_findings_on_close");
             clearFindingsOnCloseCheckbox.setSelected(clearOnClose != null && clearOnClose);
+            Boolean overflowToDisk = prefs.getBoolean("jsminer_overflow_to_disk");
+            overflowToDiskCheckbox.setSelected(overflowToDisk != null && overflowToDisk);
+            Boolean deferLive = prefs.getBoolean("jsminer_defer_live_extraction");
+            deferLiveExtractionCheckbox.setSelected(deferLive == null || deferLive);
+            Boolean flightRecorder = prefs.getBoolean("jsminer_jfr_events");
+            flightRecorderCheckbox.setSelected(flightRecorder != null && flightRecorder);
 
             String logLevel = prefs.getString("jsminer_log_level");
             logLevelCombo.setSelectedItem(logLevel != null ? logLevel : "INFO");
@@ -528,10 +703,15 @@ public class ConfigTab extends JPanel {
         modulePrefixesTextArea.setText(DEFAULT_MODULE_PREFIXES);
         inScopeOnlyCheckbox.setSelected(true);
         maxFileSizeField.setText(String.valueOf(DEFAULT_MAX_FILE_SIZE_MB));
-        globalFindingLimitField.setText("1000");
+        findingsMemoryField.setText(String.valueOf(DEFAULT_FINDINGS_MEMORY_MB));
         perHostFindingLimitField.setText("100");
+        evidenceMemoryField.setText(String.valueOf(DEFAULT_EVIDENCE_MEMORY_MB));
+        scanBudgetField.setText(String.valueOf(DEFAULT_SCAN_BUDGET_MS));
         persistRawHttpCheckbox.setSelected(true);
         clearFindingsOnCloseCheckbox.setSelected(false);
+        overflowToDiskCheckbox.setSelected(false);
+        deferLiveExtractionCheckbox.setSelected(true);
+        flightRecorderCheckbox.setSelected(false);
         logLevelCombo.setSelectedItem("INFO");
         refreshTable();
         saveConfig();
@@ -0,0 +1,141 @@
+package com.burp.custom.ui;
+
+import com.burp.custom.model.Finding;
+import com.burp.custom.util.EntropyAnalyzer;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+import java.util.function.ToIntFunction;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams findings to an export file one row at a time, so an export holds no more
+ * than a row in memory and can run off the EDT. The JSON array keeps the original
+ * layout; NDJSON writes the same objects one per line. Not thread-safe; use one
+ * exporter per export.
+ */
+final class FindingsExporter {
+
+    enum Format {
+        JSON("json"), NDJSON("ndjson"), CSV("csv");
+
+        final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int PROGRESS_INTERVAL = 1_000;
+
+    private final Format format;
+    private final ToIntFunction<String> reuseCount;
+    private final BooleanSupplier cancelled;
+    // Entropy levels of secrets seen on more than one row; unique ones are not worth keeping
+    private final Map<String, String> reusedEntropy = new HashMap<>();
+
+    FindingsExporter(Format format, ToIntFunction<String> reuseCount, BooleanSupplier cancelled) {
+        this.format = format;
+        this.reuseCount = reuseCount;
+        this.cancelled = cancelled;
+    }
+
+    /** Opens a buffered UTF-8 writer, gzip-compressed when the file name ends in ".gz". */
+    static Writer open(Path path) throws IOException {
+        OutputStream out = Files.newOutputStream(path);
+        try {
+            if (path.getFileName().toString().endsWith(".gz")) out = new GZIPOutputStream(out, BUFFER_SIZE);
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /**
+     * Writes every finding in {@code parts}, in order, reporting the running count every
+     * thousand rows. Stops at the next row once cancelled, leaving the output incomplete.
+     *
+     * @return the number of findings written
+     */
+    long write(Writer out, Iterable<? extends Iterable<Finding>> parts, LongConsumer progress) throws IOException {
+        long written = 0;
+        JsonWriter array = null;
+        if (format == Format.JSON) {
+            array = new JsonWriter(out);
+            array.setIndent("  ");
+            array.beginArray();
+        } else if (format == Format.CSV) {
+            // All fields quoted — fixes the original bug where Rule Name was unquoted
+            out.write("\"Severity\",\"Type\",\"Finding\",\"Rule Name\",\"Entropy\",\"Reuse\",\"Context\",\"URL\"\n");
+        }
+        StringBuilder row = new StringBuilder(256);
+        for (Iterable<Finding> part : parts) {
+            for (Finding finding : part) {
+                if (cancelled.getAsBoolean()) return written;
+                int reuse = reuseCount.applyAsInt(finding.getFinding());
+                switch (format) {
+                    case JSON -> writeObject(array, finding, reuse);
+                    case NDJSON -> {
+                        // JsonWriter writes straight through, so the newline lands after the object
+                        writeObject(new JsonWriter(out), finding, reuse);
+                        out.write('\n');
+                    }
+                    case CSV -> writeCsvRow(out, row, finding, reuse);
+                }
+                if (++written % PROGRESS_INTERVAL == 0) progress.accept(written);
+            }
+        }
+        if (array != null) array.endArray();
+        out.flush();
+        progress.accept(written);
+        return written;
+    }
+
+    private static void writeObject(JsonWriter json, Finding finding, int reuse) throws IOException {
+        json.beginObject();
+        json.name("severity").value(finding.getSeverity());
+        json.name("type").value(finding.getType());
+        json.name("finding").value(finding.getFinding());
+        json.name("ruleName").value(finding.getRuleName());
+        json.name("url").value(finding.getUrl());
+        json.name("context").value(finding.getContext());
+        json.name("timestamp").value(finding.getTimestamp());
+        json.name("reuseCount").value(reuse);
+        json.endObject();
+    }
+
+    private void writeCsvRow(Writer out, StringBuilder row, Finding finding, int reuse) throws IOException {
+        row.setLength(0);
+        cell(row, finding.getSeverity()).append(',');
+        cell(row, finding.getType()).append(',');
+        cell(row, finding.getFinding()).append(',');
+        cell(row, finding.getRuleName()).append(',');
+        cell(row, entropyLevel(finding.getFinding(), reuse)).append(',');
+        row.append('"').append(reuse).append("\",");
+        cell(row, finding.getContext()).append(',');
+        cell(row, finding.getUrl()).append('\n');
+        out.append(row);
+    }
+
+    private String entropyLevel(String secret, int reuse) {
+        if (reuse <= 1) return EntropyAnalyzer.analyze(secret).level;
+        return reusedEntropy.computeIfAbsent(secret, value -> EntropyAnalyzer.analyze(value).level);
+    }
+
+    private static StringBuilder cell(StringBuilder row, String value) {
+        return row.append('"').append(ResultsTab.csv(value)).append('"');
+    }
+}
@@ -0,0 +1,237 @@
+package com.burp.custom.ui;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parsed filter query for the Results table.
+ *
+ * A query is a whitespace-separated list of clauses that must all match:
+ * <pre>
+ *   host:*.corp.com severity&gt;=MEDIUM rule~"AWS" reuse&gt;2 -url:cdn token
+ * </pre>
+ * {@code field:value} matches a field (hosts also match their subdomains and accept
+ * {@code *} wildcards; url, value and context match substrings), {@code field~value}
+ * is a case-insensitive substring, and {@code = > >= < <=} compare severity, entropy
+ * and reuse. A leading {@code -} negates a clause. Words without a known field
+ * search the finding value, URL and context. Values may be double-quoted.
+ *
+ * Parsing happens once per edit; {@link FindingsSearchIndex#query(FindingsQuery)}
+ * compiles the clauses against the indexes.
+ */
+final class FindingsQuery {
+
+    enum Field { TEXT, HOST, URL, VALUE, CONTEXT, RULE, TYPE, SEVERITY, ENTROPY, REUSE }
+
+    enum Op { MATCH, CONTAINS, EQ, GT, GE, LT, LE }
+
+    record Clause(Field field, Op op, String value, boolean negated) {
+
+        /** For REUSE, SEVERITY and ENTROPY: the value as an ordinal. */
+        int number() {
+            switch (field) {
+                case REUSE:    return Integer.parseInt(value);
+                case SEVERITY: return severityOrder(value);
+                case ENTROPY:  return FindingsTableModel.entropyOrder(value);
+                default:       throw new IllegalStateException(field + " has no ordinal");
+            }
+        }
+
+        boolean compare(int actual) {
+            int expected = number();
+            switch (op) {
+                case GT: return actual > expected;
+                case GE: return actual >= expected;
+                case LT: return actual < expected;
+                case LE: return actual <= expected;
+                default: return actual == expected;
+            }
+        }
+    }
+
+    static final FindingsQuery EMPTY = new FindingsQuery(List.of());
+
+    private final List<Clause> clauses;
+
+    private FindingsQuery(List<Clause> clauses) {
+        this.clauses = Collections.unmodifiableList(clauses);
+    }
+
+    List<Clause> clauses() { return clauses; }
+
+    boolean isEmpty() { return clauses.isEmpty(); }
+
+    /** Returns a copy with one more clause; used to fold the filter drop-downs into the typed query. */
+    FindingsQuery and(Clause clause) {
+        List<Clause> combined = new ArrayList<>(clauses);
+        combined.add(clause);
+        return new FindingsQuery(combined);
+    }
+
+    // -------------------------------------------------------------------------
+    // Parsing
+    // -------------------------------------------------------------------------
+
+    /** @throws IllegalArgumentException with a user-facing message when the query is malformed */
+    static FindingsQuery parse(String text) {
+        if (text == null || text.isBlank()) return EMPTY;
+        List<Clause> clauses = new ArrayList<>();
+        int pos = 0;
+        int length = text.length();
+        while (pos < length) {
+            while (pos < length && Character.isWhitespace(text.charAt(pos))) pos++;
+            if (pos >= length) break;
+
+            int tokenStart = pos;
+            boolean negated = false;
+            if (text.charAt(pos) == '-' && pos + 1 < length && !Character.isWhitespace(text.charAt(pos + 1))) {
+                negated = true;
+                pos++;
+            }
+
+            int keyStart = pos;
+            while (pos < length && Character.isLetter(text.charAt(pos))) pos++;
+            Field field = pos > keyStart ? field(text.substring(keyStart, pos)) : null;
+            Op op = field != null ? op(text, pos) : null;
+
+            if (op == null) {
+                // Free text, including words like "https://..." whose prefix is not a field
+                pos = keyStart;
+                String[] value = new String[1];
+                pos = readValue(text, pos, value);
+                if (value[0].isEmpty() && pos == keyStart) pos++;
+                if (!value[0].isEmpty()) clauses.add(new Clause(Field.TEXT, Op.CONTAINS, value[0], negated));
+                continue;
+            }
+
+            pos += opLength(op);
+            String[] value = new String[1];
+            pos = readValue(text, pos, value);
+            if (value[0].isEmpty()) {
+                throw new IllegalArgumentException("Missing value in '" + text.substring(tokenStart, pos) + "'");
+            }
+            clauses.add(validate(new Clause(field, op, value[0], negated)));
+        }
+        return clauses.isEmpty() ? EMPTY : new FindingsQuery(clauses);
+    }
+
+    private static Clause validate(Clause clause) {
+        boolean ordinal = clause.op() == Op.GT || clause.op() == Op.GE || clause.op() == Op.LT || clause.op() == Op.LE;
+        switch (clause.field()) {
+            case REUSE:
+                if (clause.op() == Op.CONTAINS) throw new IllegalArgumentException("reuse takes a number: reuse>2");
+                try {
+                    Integer.parseInt(clause.value());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("reuse takes a number, not '" + clause.value() + "'");
+                }
+                return clause;
+            case SEVERITY:
+                if (clause.op() != Op.CONTAINS && severityOrder(clause.value()) == 0) {
+                    throw new IllegalArgumentException("Unknown severity '" + clause.value() + "' (HIGH, MEDIUM, LOW, INFO)");
+                }
+                return new Clause(clause.field(), clause.op(), clause.value().toUpperCase(Locale.ROOT), clause.negated());
+            case ENTROPY:
+                String level = clause.value().toUpperCase(Locale.ROOT).replace('_', ' ');
+                if (clause.op() != Op.CONTAINS && FindingsTableModel.entropyOrder(level) == 0) {
+                    throw new IllegalArgumentException("Unknown entropy '" + clause.value() + "' (VERY_HIGH, HIGH, MEDIUM, LOW)");
+                }
+                return new Clause(clause.field(), clause.op(), level, clause.negated());
+            default:
+                if (ordinal) {
+                    throw new IllegalArgumentException(clause.field().name().toLowerCase(Locale.ROOT) +
+                        " cannot be compared with < or >");
+                }
+                return clause;
+        }
+    }
+
+    private static Field field(String key) {
+        switch (key.toLowerCase(Locale.ROOT)) {
+            case "host":                        return Field.HOST;
+            case "url":                         return Field.URL;
+            case "value": case "finding":
+            case "secret":                      return Field.VALUE;
+            case "context": case "ctx":         return Field.CONTEXT;
+            case "rule":                        return Field.RULE;
+            case "type":                        return Field.TYPE;
+            case "severity": case "sev":        return Field.SEVERITY;
+            case "entropy":                     return Field.ENTROPY;
+            case "reuse":                       return Field.REUSE;
+            default:                            return null;
+        }
+    }
+
+    private static Op op(String text, int pos) {
+        if (pos >= text.length()) return null;
+        char c = text.charAt(pos);
+        char next = pos + 1 < text.length() ? text.charAt(pos + 1) : 0;
+        switch (c) {
+            case ':': return Op.MATCH;
+            case '~': return Op.CONTAINS;
+            case '=': return Op.EQ;
+            case '>': return next == '=' ? Op.GE : Op.GT;
+            case '<': return next == '=' ? Op.LE : Op.LT;
+            default:  return null;
+        }
+    }
+
+    private static int opLength(Op op) {
+        return op == Op.GE || op == Op.LE ? 2 : 1;
+    }
+
+    // Reads a bare or double-quoted value starting at pos; returns the position after it
+    private static int readValue(String text, int pos, String[] out) {
+        int length = text.length();
+        if (pos < length && text.charAt(pos) == '"') {
+            StringBuilder value = new StringBuilder();
+            pos++;
+            while (pos < length && text.charAt(pos) != '"') {
+                char c = text.charAt(pos++);
+                if (c == '\\' && pos < length) c = text.charAt(pos++);
+                value.append(c);
+            }
+            if (pos >= length) throw new IllegalArgumentException("Unterminated quote");
+            out[0] = value.toString();
+            return pos + 1;
+        }
+        int start = pos;
+        while (pos < length && !Character.isWhitespace(text.charAt(pos))) pos++;
+        out[0] = text.substring(start, pos);
+        return pos;
+    }
+
+    static int severityOrder(String severity) {
+        switch (severity == null ? "" : severity.toUpperCase(Locale.ROOT)) {
+            case "HIGH":   return 4;
+            case "MEDIUM": return 3;
+            case "LOW":    return 2;
+            case "INFO":   return 1;
+            default:       return 0;
+        }
+    }
+
+    /** Case-insensitive wildcard match where {@code *} spans any run of characters. */
+    static boolean globMatches(String pattern, String text) {
+        int p = 0, t = 0, star = -1, mark = 0;
+        while (t < text.length()) {
+            if (p < pattern.length() && pattern.charAt(p) != '*'
+                    && Character.toLowerCase(pattern.charAt(p)) == Character.toLowerCase(text.charAt(t))) {
+                p++;
+                t++;
+            } else if (p < pattern.length() && pattern.charAt(p) == '*') {
+                star = p++;
+                mark = t;
+            } else if (star >= 0) {
+                p = star + 1;
+                t = ++mark;
+            } else {
+                return false;
+            }
+        }
+        while (p < pattern.length() && pattern.charAt(p) == '*') p++;
+        return p == pattern.length();
+    }
+}
@@ -0,0 +1,426 @@
+package com.burp.custom.ui;
+
+import com.burp.custom.model.Finding;
+import com.burp.custom.ui.FindingsQuery.Clause;
+import com.burp.custom.util.UrlUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Search index over the rows of the Results table.
+ *
+ * Free-text search uses a trigram inverted index over the finding value, URL and
+ * context. Postings are delta/varint-encoded doc-id lists. Host, severity, type,
+ * entropy and rule are facets with one bitset per distinct value, so a clause
+ * over them ORs the bitsets of the matching values instead of testing rows.
+ * Clauses are applied cheapest first. Text clauses intersect the smallest
+ * postings and then verify only the docs that are still candidates with a
+ * case-insensitive substring check.
+ *
+ * Doc ids increase monotonically. Deletes only clear the live bit, and the owner
+ * rebuilds the index once {@link #needsCompaction()} reports mostly dead ids.
+ * EDT-confined, like the table model that owns it.
+ */
+class FindingsSearchIndex {
+
+    private static final int GRAM = 3;
+    private static final int MIN_COMPACTION_GARBAGE = 4_096;
+
+    private Finding[] docs = new Finding[1_024];
+    private String[] entropyByDoc = new String[1_024];
+    private int[] reuseByDoc = new int[1_024];
+    private int docCount;
+    private final BitSet live = new BitSet();
+    private int liveCount;
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private long[] gramScratch = new long[256];
+    // Bumped whenever doc ids are reassigned, so compiled queries know to recompile
+    private int generation;
+
+    final Facet hosts      = new Facet();
+    final Facet severities = new Facet();
+    final Facet types      = new Facet();
+    final Facet entropies  = new Facet();
+    final Facet rules      = new Facet();
+
+    // -------------------------------------------------------------------------
+    // Maintenance
+    // -------------------------------------------------------------------------
+
+    /** Indexes a finding and returns its doc id. */
+    int add(Finding finding, String entropyLevel, int reuse) {
+        int doc = docCount++;
+        if (doc == docs.length) {
+            docs = Arrays.copyOf(docs, docs.length * 2);
+            entropyByDoc = Arrays.copyOf(entropyByDoc, docs.length);
+            reuseByDoc = Arrays.copyOf(reuseByDoc, docs.length);
+        }
+        docs[doc] = finding;
+        entropyByDoc[doc] = entropyLevel;
+        reuseByDoc[doc] = reuse;
+        live.set(doc);
+        liveCount++;
+
+        hosts.add(UrlUtils.host(finding.getUrl()), doc);
+        severities.add(finding.getSeverity(), doc);
+        types.add(finding.getType(), doc);
+        entropies.add(entropyLevel, doc);
+        rules.add(finding.getRuleName(), doc);
+
+        int grams = 0;
+        grams = collectGrams(finding.getFinding(), grams);
+        grams = collectGrams(finding.getUrl(), grams);
+        grams = collectGrams(finding.getContext(), grams);
+        Arrays.sort(gramScratch, 0, grams);
+        for (int i = 0; i < grams; i++) {
+            if (i > 0 && gramScratch[i] == gramScratch[i - 1]) continue;
+            postings.computeIfAbsent(gramScratch[i], ignored -> new Postings()).append(doc);
+        }
+        return doc;
+    }
+
+    void remove(int doc) {
+        if (doc < 0 || doc >= docCount || !live.get(doc)) return;
+        Finding finding = docs[doc];
+        live.clear(doc);
+        liveCount--;
+        docs[doc] = null;
+        hosts.remove(UrlUtils.host(finding.getUrl()), doc);
+        severities.remove(finding.getSeverity(), doc);
+        types.remove(finding.getType(), doc);
+        entropies.remove(entropyByDoc[doc], doc);
+        rules.remove(finding.getRuleName(), doc);
+        entropyByDoc[doc] = null;
+    }
+
+    /** Reuse changes as other URLs share the secret; queries read it per doc, so no event is needed. */
+    void setReuse(int doc, int reuse) {
+        if (doc >= 0 && doc < docCount) reuseByDoc[doc] = reuse;
+    }
+
+    /** True once dead doc ids dominate; the owner should then {@link #clear()} and re-add its live rows. */
+    boolean needsCompaction() {
+        int garbage = docCount - liveCount;
+        return garbage >= MIN_COMPACTION_GARBAGE && garbage > liveCount;
+    }
+
+    void clear() {
+        generation++;
+        docs = new Finding[1_024];
+        entropyByDoc = new String[1_024];
+        reuseByDoc = new int[1_024];
+        docCount = 0;
+        live.clear();
+        liveCount = 0;
+        postings.clear();
+        hosts.clear();
+        severities.clear();
+        types.clear();
+        entropies.clear();
+        rules.clear();
+    }
+
+    int size() {
+        return liveCount;
+    }
+
+    // -------------------------------------------------------------------------
+    // Queries
+    // -------------------------------------------------------------------------
+
+    /** @return null when the query has no clauses, i.e. nothing is filtered */
+    Query query(FindingsQuery query) {
+        return query == null || query.isEmpty() ? null : new Query(this, query.clauses());
+    }
+
+    /**
+     * Compiled filter. Facet and text clauses are evaluated in bulk into a bitset;
+     * reuse clauses are checked per row because reuse keeps changing. Rows indexed
+     * after compilation are evaluated one by one, and the whole query recompiles
+     * itself if the index was rebuilt underneath it.
+     */
+    static final class Query {
+        private final FindingsSearchIndex index;
+        private final List<Clause> bulk = new ArrayList<>();
+        private final List<Clause> perRow = new ArrayList<>();
+
+        private int generation;
+        private BitSet matches;
+        private int compiledUpTo;
+
+        private Query(FindingsSearchIndex index, List<Clause> clauses) {
+            this.index = index;
+            for (Clause clause : clauses) {
+                (clause.field() == FindingsQuery.Field.REUSE ? perRow : bulk).add(clause);
+            }
+            bulk.sort(Comparator.comparingInt(FindingsSearchIndex::cost));
+            compile();
+        }
+
+        private void compile() {
+            BitSet result = (BitSet) index.live.clone();
+            for (Clause clause : bulk) {
+                if (result.isEmpty()) break;
+                BitSet matched = index.evaluate(clause, result);
+                if (clause.negated()) result.andNot(matched);
+                else result = matched;
+            }
+            matches = result;
+            compiledUpTo = index.docCount;
+            generation = index.generation;
+        }
+
+        boolean includes(int doc) {
+            if (generation != index.generation) compile();
+            if (doc < compiledUpTo) {
+                if (!matches.get(doc)) return false;
+            } else {
+                if (!index.live.get(doc)) return false;
+                for (Clause clause : bulk) {
+                    if (index.test(clause, doc) == clause.negated()) return false;
+                }
+            }
+            for (Clause clause : perRow) {
+                if (clause.compare(index.reuseByDoc[doc]) == clause.negated()) return false;
+            }
+            return true;
+        }
+    }
+
+    // Facet clauses only walk the value dictionary; text clauses verify candidates
+    private static int cost(Clause clause) {
+        switch (clause.field()) {
+            case SEVERITY: case TYPE: case ENTROPY: return 0;
+            case RULE:                               return 1;
+            case HOST:                               return 2;
+            default:                                 return clause.negated() ? 4 : 3;
+        }
+    }
+
+    /** Docs within {@code candidates} whose field satisfies the (non-negated form of the) clause. */
+    private BitSet evaluate(Clause clause, BitSet candidates) {
+        Facet facet = facet(clause.field());
+        if (facet != null) {
+            BitSet union = new BitSet();
+            facet.docsByValue.forEach((value, valueDocs) -> {
+                if (valueMatches(clause, value)) union.or(valueDocs);
+            });
+            union.and(candidates);
+            return union;
+        }
+
+        String needle = lower(clause.value());
+        BitSet result = needle.length() >= GRAM ? gramCandidates(needle) : (BitSet) candidates.clone();
+        result.and(candidates);
+        for (int doc = result.nextSetBit(0); doc >= 0; doc = result.nextSetBit(doc + 1)) {
+            if (!textMatches(clause, docs[doc], needle)) result.clear(doc);
+        }
+        return result;
+    }
+
+    /** Per-doc form of {@link #evaluate}, for rows added after a query was compiled. */
+    private boolean test(Clause clause, int doc) {
+        Finding finding = docs[doc];
+        switch (clause.field()) {
+            case HOST:     return valueMatches(clause, UrlUtils.host(finding.getUrl()));
+            case SEVERITY: return valueMatches(clause, finding.getSeverity());
+            case TYPE:     return valueMatches(clause, finding.getType());
+            case ENTROPY:  return valueMatches(clause, entropyByDoc[doc]);
+            case RULE:     return valueMatches(clause, finding.getRuleName());
+            default:       return textMatches(clause, finding, lower(clause.value()));
+        }
+    }
+
+    private Facet facet(FindingsQuery.Field field) {
+        switch (field) {
+            case HOST:     return hosts;
+            case SEVERITY: return severities;
+            case TYPE:     return types;
+            case ENTROPY:  return entropies;
+            case RULE:     return rules;
+            default:       return null;
+        }
+    }
+
+    private static boolean valueMatches(Clause clause, String value) {
+        if (value == null) return false;
+        switch (clause.op()) {
+            case CONTAINS:
+                return containsLower(value, lower(clause.value()));
+            case GT: case GE: case LT: case LE:
+                return clause.compare(clause.field() == FindingsQuery.Field.SEVERITY
+                    ? FindingsQuery.severityOrder(value) : FindingsTableModel.entropyOrder(value));
+            case MATCH:
+                if (clause.field() == FindingsQuery.Field.HOST) return hostMatches(clause.value(), value);
+                return value.equalsIgnoreCase(clause.value());
+            default:
+                return value.equalsIgnoreCase(clause.value());
+        }
+    }
+
+    // "corp.com" and "*.corp.com" match the host and its subdomains; other wildcards are globs
+    private static boolean hostMatches(String pattern, String host) {
+        String suffix = pattern.toLowerCase(Locale.ROOT);
+        if (suffix.startsWith("*.")) suffix = suffix.substring(2);
+        if (suffix.indexOf('*') >= 0) return FindingsQuery.globMatches(pattern, host);
+        return host.equals(suffix) || host.endsWith("." + suffix);
+    }
+
+    private static boolean textMatches(Clause clause, Finding finding, String needle) {
+        switch (clause.field()) {
+            case URL:     return fieldMatches(clause, finding.getUrl(), needle);
+            case VALUE:   return fieldMatches(clause, finding.getFinding(), needle);
+            case CONTEXT: return fieldMatches(clause, finding.getContext(), needle);
+            default:
+                return containsLower(finding.getFinding(), needle)
+                    || containsLower(finding.getUrl(), needle)
+                    || containsLower(finding.getContext(), needle);
+        }
+    }
+
+    private static boolean fieldMatches(Clause clause, String value, String needle) {
+        return clause.op() == FindingsQuery.Op.EQ
+            ? value != null && value.equalsIgnoreCase(clause.value())
+            : containsLower(value, needle);
+    }
+
+    private BitSet gramCandidates(String needle) {
+        List<Postings> lists = new ArrayList<>(needle.length());
+        long[] grams = new long[needle.length() - GRAM + 1];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = gram(needle.charAt(i), needle.charAt(i + 1), needle.charAt(i + 2));
+        }
+        Arrays.sort(grams);
+        for (int i = 0; i < grams.length; i++) {
+            if (i > 0 && grams[i] == grams[i - 1]) continue;
+            Postings list = postings.get(grams[i]);
+            if (list == null) return new BitSet();
+            lists.add(list);
+        }
+        lists.sort((a, b) -> Integer.compare(a.count, b.count));
+
+        BitSet result = lists.get(0).toBitSet();
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) result.and(lists.get(i).toBitSet());
+        return result;
+    }
+
+    // -------------------------------------------------------------------------
+    // Text helpers
+    // -------------------------------------------------------------------------
+
+    private int collectGrams(String text, int count) {
+        if (text == null || text.length() < GRAM) return count;
+        int needed = count + text.length() - GRAM + 1;
+        if (needed > gramScratch.length) gramScratch = Arrays.copyOf(gramScratch, Math.max(needed, gramScratch.length * 2));
+        char a = Character.toLowerCase(text.charAt(0));
+        char b = Character.toLowerCase(text.charAt(1));
+        for (int i = GRAM - 1; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            gramScratch[count++] = gram(a, b, c);
+            a = b;
+            b = c;
+        }
+        return count;
+    }
+
+    private static long gram(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    /** Substring test against an already lower-cased needle, folding the haystack per char (no copies). */
+    static boolean containsLower(String haystack, String needle) {
+        if (haystack == null) return false;
+        int last = haystack.length() - needle.length();
+        outer:
+        for (int start = 0; start <= last; start++) {
+            for (int j = 0; j < needle.length(); j++) {
+                if (Character.toLowerCase(haystack.charAt(start + j)) != needle.charAt(j)) continue outer;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    static String lower(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) chars[i] = Character.toLowerCase(chars[i]);
+        return new String(chars);
+    }
+
+    // -------------------------------------------------------------------------
+    // Structures
+    // -------------------------------------------------------------------------
+
+    /** Ascending doc ids stored as varint-encoded gaps. */
+    private static final class Postings {
+        private byte[] bytes = new byte[4];
+        private int length;
+        private int last = -1;
+        int count;
+
+        void append(int doc) {
+            int gap = doc - last;
+            last = doc;
+            count++;
+            if (length + 5 > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(length + 5, bytes.length * 2));
+            while ((gap & ~0x7F) != 0) {
+                bytes[length++] = (byte) ((gap & 0x7F) | 0x80);
+                gap >>>= 7;
+            }
+            bytes[length++] = (byte) gap;
+        }
+
+        BitSet toBitSet() {
+            BitSet set = new BitSet(last + 1);
+            int doc = -1;
+            int pos = 0;
+            while (pos < length) {
+                int gap = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = bytes[pos++];
+                    gap |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                doc += gap;
+                set.set(doc);
+            }
+            return set;
+        }
+    }
+
+    /** One bitset per distinct value, in first-seen order; values with no live docs are dropped. */
+    static final class Facet {
+        private final Map<String, BitSet> docsByValue = new LinkedHashMap<>();
+
+        void add(String value, int doc) {
+            docsByValue.computeIfAbsent(String.valueOf(value), ignored -> new BitSet()).set(doc);
+        }
+
+        void remove(String value, int doc) {
+            String key = String.valueOf(value);
+            BitSet docs = docsByValue.get(key);
+            if (docs == null) return;
+            docs.clear(doc);
+            if (docs.isEmpty()) docsByValue.remove(key);
+        }
+
+        List<String> values() {
+            return new ArrayList<>(docsByValue.keySet());
+        }
+
+        void clear() {
+            docsByValue.clear();
+        }
+    }
+}
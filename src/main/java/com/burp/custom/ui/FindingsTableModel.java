@@ -0,0 +1,307 @@
+package com.burp.custom.ui;
+
+import com.burp.custom.model.Finding;
+import com.burp.custom.util.EntropyAnalyzer;
+
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableRowSorter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Results table model that reads cells straight from the {@link Finding} objects.
+ *
+ * No per-row Object[] is copied. Each row only carries primitive sort keys (severity,
+ * entropy, reuse) computed once on insert. Inserts, deletes and reuse changes fire
+ * ranged events for just the affected rows; bulk removals fire one delete per
+ * contiguous run. Rows are also kept in a
+ * {@link FindingsSearchIndex} so filtering never scans every row's strings.
+ * EDT-confined, like every Swing model.
+ */
+class FindingsTableModel extends AbstractTableModel {
+
+    static final int COL_SEVERITY = 0;
+    static final int COL_TYPE     = 1;
+    static final int COL_FINDING  = 2;
+    static final int COL_RULE     = 3;
+    static final int COL_ENTROPY  = 4;
+    static final int COL_REUSE    = 5;
+    static final int COL_CONTEXT  = 6;
+    static final int COL_URL      = 7;
+
+    private static final String[] COLUMNS = {"Severity", "Type", "Finding", "Rule", "Entropy", "Reuse", "Context", "Source URL"};
+
+    private final List<Row> rows = new ArrayList<>();
+    private final Map<Finding, Row> rowsByFinding = new IdentityHashMap<>();
+    private final Map<String, List<Row>> rowsBySecret = new HashMap<>();
+    private final FindingsSearchIndex index = new FindingsSearchIndex();
+
+    static final class Row {
+        final Finding finding;
+        final byte severityOrder;
+        final byte entropyOrder;
+        final String entropyLevel;
+        int reuse;
+        int index;
+        int docId;
+
+        Row(Finding finding, int reuse) {
+            this.finding = finding;
+            this.severityOrder = (byte) finding.getSeverityOrder();
+            this.entropyLevel = EntropyAnalyzer.getEntropyLevel(finding.getFinding());
+            this.entropyOrder = (byte) entropyOrder(entropyLevel);
+            this.reuse = reuse;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // TableModel
+    // -------------------------------------------------------------------------
+
+    @Override public int getRowCount()              { return rows.size(); }
+    @Override public int getColumnCount()           { return COLUMNS.length; }
+    @Override public String getColumnName(int col)  { return COLUMNS[col]; }
+    @Override public boolean isCellEditable(int r, int c) { return false; }
+
+    @Override
+    public Class<?> getColumnClass(int col) {
+        return col == COL_REUSE ? Integer.class : String.class;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int col) {
+        Row row = rows.get(rowIndex);
+        Finding finding = row.finding;
+        switch (col) {
+            case COL_SEVERITY: return finding.getSeverity();
+            case COL_TYPE:     return finding.getType();
+            case COL_FINDING:  return finding.getFinding();
+            case COL_RULE:     return finding.getRuleName();
+            case COL_ENTROPY:  return row.entropyLevel;
+            case COL_REUSE:    return row.reuse;
+            case COL_CONTEXT:  return finding.getContext();
+            case COL_URL:      return finding.getUrl();
+            default:           return null;
+        }
+    }
+
+    /** Primitive sort key for the severity, entropy and reuse columns; -1 for other columns. */
+    int sortKey(int rowIndex, int col) {
+        Row row = rows.get(rowIndex);
+        switch (col) {
+            case COL_SEVERITY: return row.severityOrder;
+            case COL_ENTROPY:  return row.entropyOrder;
+            case COL_REUSE:    return row.reuse;
+            default:           return -1;
+        }
+    }
+
+    Finding findingAt(int rowIndex) {
+        return rowIndex >= 0 && rowIndex < rows.size() ? rows.get(rowIndex).finding : null;
+    }
+
+    Row rowAt(int rowIndex) {
+        return rows.get(rowIndex);
+    }
+
+    boolean contains(Finding finding) {
+        return rowsByFinding.containsKey(finding);
+    }
+
+    /** Compiles a parsed query against the current rows; null means nothing is filtered. */
+    FindingsSearchIndex.Query query(FindingsQuery query) {
+        return index.query(query);
+    }
+
+    boolean matches(FindingsSearchIndex.Query query, int rowIndex) {
+        return query.includes(rows.get(rowIndex).docId);
+    }
+
+    /** Rule names that currently have rows, in first-seen order. */
+    List<String> ruleNames() {
+        return index.rules.values();
+    }
+
+    /** Findings in model order, as a copy. */
+    List<Finding> findings() {
+        List<Finding> findings = new ArrayList<>(rows.size());
+        for (Row row : rows) findings.add(row.finding);
+        return findings;
+    }
+
+    // -------------------------------------------------------------------------
+    // Mutations
+    // -------------------------------------------------------------------------
+
+    /** Appends findings not already shown, then refreshes reuse for the secrets they touch. */
+    void append(Collection<Finding> findings, ToIntFunction<String> reuseLookup) {
+        int first = rows.size();
+        List<String> touchedSecrets = new ArrayList<>();
+        for (Finding finding : findings) {
+            if (rowsByFinding.containsKey(finding)) continue;
+            Row row = new Row(finding, reuseLookup.applyAsInt(finding.getFinding()));
+            row.index = rows.size();
+            row.docId = index.add(finding, row.entropyLevel, row.reuse);
+            rows.add(row);
+            rowsByFinding.put(finding, row);
+            rowsBySecret.computeIfAbsent(finding.getFinding(), ignored -> new ArrayList<>(1)).add(row);
+            touchedSecrets.add(finding.getFinding());
+        }
+        if (rows.size() == first) return;
+        fireTableRowsInserted(first, rows.size() - 1);
+        refreshReuse(touchedSecrets, reuseLookup);
+    }
+
+    /** Removes findings and refreshes the reuse counts of rows that shared their secret. */
+    void remove(Collection<Finding> findings, ToIntFunction<String> reuseLookup) {
+        List<Row> removed = new ArrayList<>();
+        for (Finding finding : findings) {
+            Row row = rowsByFinding.remove(finding);
+            if (row == null) continue;
+            removed.add(row);
+            index.remove(row.docId);
+            List<Row> sameSecret = rowsBySecret.get(finding.getFinding());
+            if (sameSecret != null) {
+                sameSecret.remove(row);
+                if (sameSecret.isEmpty()) rowsBySecret.remove(finding.getFinding());
+            }
+        }
+        if (removed.isEmpty()) return;
+        if (index.needsCompaction()) reindexSearch();
+
+        // One ranged delete per contiguous run, highest first, so lower indices stay valid
+        // and each event matches the rows present when it fires; selection and sort survive
+        int[] indices = new int[removed.size()];
+        for (int i = 0; i < indices.length; i++) indices[i] = removed.get(i).index;
+        Arrays.sort(indices);
+        int end = indices.length - 1;
+        while (end >= 0) {
+            int start = end;
+            while (start > 0 && indices[start - 1] == indices[start] - 1) start--;
+            rows.subList(indices[start], indices[end] + 1).clear();
+            fireTableRowsDeleted(indices[start], indices[end]);
+            end = start - 1;
+        }
+        // Listeners read rows by position, so the stored indices can be fixed once at the end
+        reindexFrom(indices[0]);
+        List<String> touchedSecrets = new ArrayList<>(removed.size());
+        for (Row row : removed) touchedSecrets.add(row.finding.getFinding());
+        refreshReuse(touchedSecrets, reuseLookup);
+    }
+
+    void replaceAll(Collection<Finding> findings, ToIntFunction<String> reuseLookup) {
+        rows.clear();
+        rowsByFinding.clear();
+        rowsBySecret.clear();
+        index.clear();
+        for (Finding finding : findings) {
+            if (rowsByFinding.containsKey(finding)) continue;
+            Row row = new Row(finding, reuseLookup.applyAsInt(finding.getFinding()));
+            row.index = rows.size();
+            row.docId = index.add(finding, row.entropyLevel, row.reuse);
+            rows.add(row);
+            rowsByFinding.put(finding, row);
+            rowsBySecret.computeIfAbsent(finding.getFinding(), ignored -> new ArrayList<>(1)).add(row);
+        }
+        fireTableDataChanged();
+    }
+
+    /** Re-reads reuse counts for the given secrets and fires updates only for rows whose value changed. */
+    void refreshReuse(Collection<String> secrets, ToIntFunction<String> reuseLookup) {
+        int[] changed = new int[8];
+        int changedCount = 0;
+        for (String secret : secrets) {
+            List<Row> sameSecret = rowsBySecret.get(secret);
+            if (sameSecret == null) continue;
+            int reuse = reuseLookup.applyAsInt(secret);
+            for (Row row : sameSecret) {
+                if (row.reuse == reuse) continue;
+                row.reuse = reuse;
+                index.setReuse(row.docId, reuse);
+                if (changedCount == changed.length) changed = Arrays.copyOf(changed, changedCount * 2);
+                changed[changedCount++] = row.index;
+            }
+        }
+        fireRangedUpdates(changed, changedCount);
+    }
+
+    private void fireRangedUpdates(int[] indices, int count) {
+        if (count == 0) return;
+        Arrays.sort(indices, 0, count);
+        int start = indices[0], end = indices[0];
+        for (int i = 1; i < count; i++) {
+            if (indices[i] <= end + 1) {
+                end = Math.max(end, indices[i]);
+                continue;
+            }
+            fireTableRowsUpdated(start, end);
+            start = end = indices[i];
+        }
+        fireTableRowsUpdated(start, end);
+    }
+
+    // Drops tombstoned doc ids by re-adding the surviving rows; compiled queries notice and recompile
+    private void reindexSearch() {
+        index.clear();
+        for (Row row : rows) {
+            if (rowsByFinding.containsKey(row.finding)) row.docId = index.add(row.finding, row.entropyLevel, row.reuse);
+        }
+    }
+
+    private void reindexFrom(int start) {
+        for (int i = start; i < rows.size(); i++) rows.get(i).index = i;
+    }
+
+    static int entropyOrder(String level) {
+        switch (level == null ? "" : level) {
+            case "VERY HIGH": return 4; case "HIGH": return 3; case "MEDIUM": return 2; case "LOW": return 1; default: return 0;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Sorting
+    // -------------------------------------------------------------------------
+
+    /**
+     * Row sorter that compares the severity, entropy and reuse columns on the
+     * precomputed integer keys instead of parsing or ranking strings per comparison.
+     */
+    static final class Sorter extends TableRowSorter<FindingsTableModel> {
+
+        Sorter(FindingsTableModel model) {
+            super(model);
+            setModelWrapper(new KeyedModelWrapper(model));
+            Comparator<Integer> descending = (a, b) -> Integer.compare(b, a);
+            setComparator(COL_SEVERITY, descending);
+            setComparator(COL_ENTROPY, descending);
+            setComparator(COL_REUSE, descending);
+        }
+
+        private static final class KeyedModelWrapper extends ModelWrapper<FindingsTableModel, Integer> {
+            private final FindingsTableModel model;
+
+            KeyedModelWrapper(FindingsTableModel model) {
+                this.model = model;
+            }
+
+            @Override public FindingsTableModel getModel() { return model; }
+            @Override public int getColumnCount()          { return model.getColumnCount(); }
+            @Override public int getRowCount()             { return model.getRowCount(); }
+            @Override public Integer getIdentifier(int row) { return row; }
+
+            @Override
+            public Object getValueAt(int row, int column) {
+                // Small boxed integers come from the Integer cache, so keys cost no allocation
+                int key = model.sortKey(row, column);
+                return key >= 0 ? Integer.valueOf(key) : model.getValueAt(row, column);
+            }
+        }
+    }
+}
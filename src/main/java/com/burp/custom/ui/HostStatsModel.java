@@ -0,0 +1,218 @@
+package com.burp.custom.ui;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-host statistics maintained from add/remove deltas.
+ *
+ * Each host row holds its totals as plain ints and its per-type counts in an
+ * int array indexed through a shared type dictionary, so a delta is a couple of
+ * array writes. The top type is tracked on increment and only rescanned when the
+ * current leader is decremented. Changes fire row events for the touched hosts
+ * only. EDT-confined, like every Swing model.
+ */
+class HostStatsModel extends AbstractTableModel {
+
+    static final int COL_HOST     = 0;
+    static final int COL_TOTAL    = 1;
+    static final int COL_HIGH     = 2;
+    static final int COL_MEDIUM   = 3;
+    static final int COL_LOW      = 4;
+    static final int COL_TOP_TYPE = 5;
+
+    private static final String[] COLUMNS = {"Host", "Total", "HIGH", "MEDIUM", "LOW / INFO", "Top Type"};
+
+    private final List<HostRow> rows = new ArrayList<>();
+    private final Map<String, HostRow> rowsByHost = new HashMap<>();
+    private final Map<String, Integer> typeIds = new HashMap<>();
+    private final List<String> typeNames = new ArrayList<>();
+
+    private int total;
+    private int high;
+    private int medium;
+    private int low;
+
+    // Rows touched since the last fireChanges(), deduplicated through HostRow.dirty
+    private int[] dirtyRows = new int[16];
+    private int dirtyCount;
+
+    private static final class HostRow {
+        final String host;
+        int total;
+        int high;
+        int medium;
+        int low;
+        int[] typeCounts;
+        int topType = -1;
+        int index;
+        boolean dirty;
+
+        HostRow(String host, int typeCapacity) {
+            this.host = host;
+            this.typeCounts = new int[Math.max(4, typeCapacity)];
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // TableModel
+    // -------------------------------------------------------------------------
+
+    @Override public int getRowCount()              { return rows.size(); }
+    @Override public int getColumnCount()           { return COLUMNS.length; }
+    @Override public String getColumnName(int col)  { return COLUMNS[col]; }
+    @Override public boolean isCellEditable(int r, int c) { return false; }
+
+    @Override
+    public Class<?> getColumnClass(int col) {
+        return col == COL_HOST || col == COL_TOP_TYPE ? String.class : Integer.class;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int col) {
+        HostRow row = rows.get(rowIndex);
+        switch (col) {
+            case COL_HOST:     return row.host;
+            case COL_TOTAL:    return row.total;
+            case COL_HIGH:     return row.high;
+            case COL_MEDIUM:   return row.medium;
+            case COL_LOW:      return row.low;
+            case COL_TOP_TYPE: return row.topType >= 0 ? typeNames.get(row.topType) : "-";
+            default:           return null;
+        }
+    }
+
+    int total()  { return total; }
+    int high()   { return high; }
+    int medium() { return medium; }
+    int low()    { return low; }
+
+    // -------------------------------------------------------------------------
+    // Deltas — call fireChanges() once after a batch
+    // -------------------------------------------------------------------------
+
+    void add(String host, String type, String severity) {
+        HostRow row = rowsByHost.get(host);
+        if (row == null) {
+            row = new HostRow(host, typeNames.size());
+            row.index = rows.size();
+            rows.add(row);
+            rowsByHost.put(host, row);
+            fireTableRowsInserted(row.index, row.index);
+        } else {
+            markDirty(row);
+        }
+
+        int typeId = typeId(type);
+        if (typeId >= row.typeCounts.length) {
+            row.typeCounts = Arrays.copyOf(row.typeCounts, Math.max(typeId + 1, row.typeCounts.length * 2));
+        }
+        int count = ++row.typeCounts[typeId];
+        if (row.topType < 0 || count > row.typeCounts[row.topType]) row.topType = typeId;
+
+        row.total++;
+        total++;
+        switch (bucket(severity)) {
+            case 0:  row.high++;   high++;   break;
+            case 1:  row.medium++; medium++; break;
+            default: row.low++;    low++;    break;
+        }
+    }
+
+    void remove(String host, String type, String severity) {
+        HostRow row = rowsByHost.get(host);
+        Integer typeId = typeIds.get(type == null ? "" : type);
+        if (row == null || typeId == null || typeId >= row.typeCounts.length || row.typeCounts[typeId] == 0) return;
+
+        row.typeCounts[typeId]--;
+        if (typeId == row.topType) row.topType = leadingType(row.typeCounts);
+
+        row.total--;
+        total--;
+        switch (bucket(severity)) {
+            case 0:  row.high--;   high--;   break;
+            case 1:  row.medium--; medium--; break;
+            default: row.low--;    low--;    break;
+        }
+
+        if (row.total > 0) {
+            markDirty(row);
+            return;
+        }
+        // Host no longer has findings; flush pending updates first so their indices stay valid
+        fireChanges();
+        rowsByHost.remove(host);
+        rows.remove(row.index);
+        for (int i = row.index; i < rows.size(); i++) rows.get(i).index = i;
+        fireTableRowsDeleted(row.index, row.index);
+    }
+
+    void clear() {
+        rows.clear();
+        rowsByHost.clear();
+        total = high = medium = low = 0;
+        dirtyCount = 0;
+        fireTableDataChanged();
+    }
+
+    /** Fires coalesced update events for every host row touched since the last call. */
+    void fireChanges() {
+        if (dirtyCount == 0) return;
+        int[] indices = new int[dirtyCount];
+        for (int i = 0; i < dirtyCount; i++) {
+            HostRow row = rows.get(dirtyRows[i]);
+            row.dirty = false;
+            indices[i] = row.index;
+        }
+        dirtyCount = 0;
+        Arrays.sort(indices);
+        int start = indices[0], end = indices[0];
+        for (int i = 1; i < indices.length; i++) {
+            if (indices[i] == end + 1) {
+                end = indices[i];
+                continue;
+            }
+            fireTableRowsUpdated(start, end);
+            start = end = indices[i];
+        }
+        fireTableRowsUpdated(start, end);
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private void markDirty(HostRow row) {
+        if (row.dirty) return;
+        row.dirty = true;
+        if (dirtyCount == dirtyRows.length) dirtyRows = Arrays.copyOf(dirtyRows, dirtyCount * 2);
+        dirtyRows[dirtyCount++] = row.index;
+    }
+
+    private int typeId(String type) {
+        String key = type == null ? "" : type;
+        Integer id = typeIds.get(key);
+        if (id != null) return id;
+        typeNames.add(key);
+        typeIds.put(key, typeNames.size() - 1);
+        return typeNames.size() - 1;
+    }
+
+    private static int leadingType(int[] counts) {
+        int best = -1;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0 && (best < 0 || counts[i] > counts[best])) best = i;
+        }
+        return best;
+    }
+
+    private static int bucket(String severity) {
+        if ("HIGH".equalsIgnoreCase(severity)) return 0;
+        if ("MEDIUM".equalsIgnoreCase(severity)) return 1;
+        return 2;
+    }
+}
@@ -0,0 +1,207 @@
+package com.burp.custom.ui;
+
+import com.burp.custom.scan.LatencyHistogram;
+import com.burp.custom.scan.RuleGovernor;
+import com.burp.custom.scan.ScanMetrics;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Scanner pipeline metrics: counters, latency percentiles and a rolling chart of
+ * throughput and queue depth, refreshed once a second on the EDT. Lets an operator
+ * see whether scanning keeps up with traffic, and dump the numbers to a JSON file.
+ */
+public class PerformanceTab extends JPanel {
+
+    private static final int REFRESH_MILLIS = 1_000;
+
+    private final ScanMetrics metrics;
+    private final RuleGovernor governor;
+    private final JLabel pipelineLabel = new JLabel();
+    private final JLabel gatesLabel = new JLabel();
+    private final JLabel throughputLabel = new JLabel();
+    private final JLabel latencyLabel = new JLabel();
+    private final RollingChart chart = new RollingChart();
+    private final Timer timer;
+
+    public PerformanceTab(ScanMetrics metrics, RuleGovernor governor) {
+        this.metrics = metrics;
+        this.governor = governor;
+        setLayout(new BorderLayout(5, 5));
+        setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        JPanel summary = new JPanel(new GridLayout(0, 1, 0, 4));
+        pipelineLabel.setFont(pipelineLabel.getFont().deriveFont(Font.BOLD, 13f));
+        summary.add(pipelineLabel);
+        summary.add(gatesLabel);
+        summary.add(throughputLabel);
+        summary.add(latencyLabel);
+        summary.setBorder(BorderFactory.createEmptyBorder(0, 0, 8, 0));
+        add(summary, BorderLayout.NORTH);
+
+        chart.setBorder(BorderFactory.createTitledBorder("Last " + ScanMetrics.HISTORY + " samples, one per second"));
+        add(chart, BorderLayout.CENTER);
+
+        JButton dumpBtn = new JButton("Dump Metrics to JSON...");
+        dumpBtn.addActionListener(e -> dumpMetrics());
+        JButton suppressionsBtn = new JButton("Rule Suppressions...");
+        suppressionsBtn.setToolTipText("Rules suspended on a host after repeatedly hitting their match cap with only noise");
+        suppressionsBtn.addActionListener(e -> showSuppressions());
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        buttons.add(dumpBtn);
+        buttons.add(suppressionsBtn);
+        add(buttons, BorderLayout.SOUTH);
+
+        timer = new Timer(REFRESH_MILLIS, e -> refresh());
+        timer.start();
+        refresh();
+    }
+
+    public void stop() {
+        timer.stop();
+    }
+
+    private void refresh() {
+        ScanMetrics.Sample sample = metrics.sample();
+        pipelineLabel.setText(String.format("Seen: %d  |  Queued: %d  |  Scanned: %d  |  Truncated: %d  |  Deduped: %d  |  Dropped: %d  |  Queue depth: %d  |  Deferred: %d",
+            metrics.seen(), metrics.queued(), metrics.scanned(), metrics.truncated(), metrics.deduped(), metrics.dropped(),
+            sample.queueDepth(), metrics.deferredDepth()));
+        StringBuilder gates = new StringBuilder("Gated out: ");
+        for (ScanMetrics.Gate gate : ScanMetrics.Gate.values()) {
+            if (gate.ordinal() > 0) gates.append("  |  ");
+            gates.append(gate.name().toLowerCase().replace('_', ' ')).append(' ').append(metrics.gated(gate));
+        }
+        gatesLabel.setText(gates.toString());
+        throughputLabel.setText(String.format("Scanned: %.1f MB total, %.1f KB/s  |  %.1f responses/s  |  %.1f findings/s (%d kept)",
+            metrics.bytesScanned() / 1048576.0, sample.bytesPerSecond() / 1024, sample.scannedPerSecond(),
+            sample.findingsPerSecond(), metrics.findings()));
+        latencyLabel.setText("Scan " + percentiles(metrics.scanLatency()) + "  |  Queue wait " + percentiles(metrics.queueWait())
+            + "  |  UI flush " + percentiles(metrics.edtFlush()));
+        chart.setSamples(metrics.history());
+    }
+
+    private static String percentiles(LatencyHistogram histogram) {
+        return String.format("p50 %.1f ms, p99 %.1f ms", histogram.percentileMillis(0.50), histogram.percentileMillis(0.99));
+    }
+
+    private void dumpMetrics() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Dump Metrics");
+        chooser.setFileFilter(new FileNameExtensionFilter("JSON files", "json"));
+        String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+        chooser.setSelectedFile(new File("jsminer_metrics_" + timestamp + ".json"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        File file = chooser.getSelectedFile();
+        if (!file.getName().endsWith(".json")) file = new File(file.getAbsolutePath() + ".json");
+
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        Map<String, Object> snapshot = metrics.snapshot();
+        snapshot.put("ruleSuppressions", governor.auditTrail());
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            gson.toJson(snapshot, writer);
+            JOptionPane.showMessageDialog(this, "Metrics written to: " + file.getName(),
+                "Metrics Dumped", JOptionPane.INFORMATION_MESSAGE);
+        } catch (IOException | RuntimeException e) {
+            JOptionPane.showMessageDialog(this, "Metrics dump failed: " + e.getMessage(), "Metrics Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void showSuppressions() {
+        DefaultTableModel model = new DefaultTableModel(
+            new String[]{"Suspended", "Rule", "Host", "Match Cap", "Until", "Scans Skipped"}, 0) {
+            @Override public boolean isCellEditable(int row, int column) { return false; }
+        };
+        SimpleDateFormat time = new SimpleDateFormat("HH:mm:ss");
+        List<RuleGovernor.Suppression> trail = governor.auditTrail();
+        // Newest first
+        for (int i = trail.size() - 1; i >= 0; i--) {
+            RuleGovernor.Suppression s = trail.get(i);
+            model.addRow(new Object[]{time.format(new Date(s.atMillis())), s.rule(), s.host(), s.matchCap(),
+                time.format(new Date(s.untilMillis())), s.skippedScans()});
+        }
+        JTable table = new JTable(model);
+        JScrollPane scroll = new JScrollPane(table);
+        scroll.setPreferredSize(new Dimension(720, 320));
+        JOptionPane.showMessageDialog(this, trail.isEmpty() ? new JLabel("No rule has been suspended.") : scroll,
+            "Rule Suppressions", JOptionPane.PLAIN_MESSAGE);
+    }
+
+    /** Line chart of the rolling window; each series is scaled to its own peak, shown in the legend. */
+    private static final class RollingChart extends JComponent {
+
+        private record Series(String name, Color color, ToDoubleFunction<ScanMetrics.Sample> value) { }
+
+        private static final List<Series> SERIES = List.of(
+            new Series("responses/s", new Color(0x1f77b4), ScanMetrics.Sample::responsesPerSecond),
+            new Series("scanned/s", new Color(0x2ca02c), ScanMetrics.Sample::scannedPerSecond),
+            new Series("findings/s", new Color(0xd62728), ScanMetrics.Sample::findingsPerSecond),
+            new Series("queue depth", new Color(0xff7f0e), sample -> sample.queueDepth()));
+
+        private List<ScanMetrics.Sample> samples = List.of();
+
+        RollingChart() {
+            setPreferredSize(new Dimension(600, 220));
+        }
+
+        void setSamples(List<ScanMetrics.Sample> samples) {
+            this.samples = samples;
+            repaint();
+        }
+
+        @Override
+        protected void paintComponent(Graphics graphics) {
+            super.paintComponent(graphics);
+            Graphics2D g = (Graphics2D) graphics.create();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                Insets insets = getInsets();
+                int legendHeight = g.getFontMetrics().getHeight() + 4;
+                int x0 = insets.left + 4, y0 = insets.top + legendHeight;
+                int width = getWidth() - insets.left - insets.right - 8;
+                int height = getHeight() - insets.top - insets.bottom - legendHeight - 4;
+                if (width <= 0 || height <= 0) return;
+                g.setColor(getForeground() != null ? getForeground().darker() : Color.GRAY);
+                g.drawRect(x0, y0, width, height);
+
+                int legendX = x0;
+                for (Series series : SERIES) {
+                    double peak = 0;
+                    for (ScanMetrics.Sample sample : samples) peak = Math.max(peak, series.value().applyAsDouble(sample));
+                    String label = String.format("%s (peak %.1f)", series.name(), peak);
+                    g.setColor(series.color());
+                    g.drawString(label, legendX, insets.top + legendHeight - 6);
+                    legendX += g.getFontMetrics().stringWidth(label) + 16;
+                    if (samples.size() < 2 || peak <= 0) continue;
+
+                    double step = (double) width / (ScanMetrics.HISTORY - 1);
+                    int offset = ScanMetrics.HISTORY - samples.size();
+                    int previousX = -1, previousY = -1;
+                    for (int i = 0; i < samples.size(); i++) {
+                        int x = x0 + (int) Math.round((offset + i) * step);
+                        int y = y0 + height - (int) Math.round(series.value().applyAsDouble(samples.get(i)) / peak * height);
+                        if (previousX >= 0) g.drawLine(previousX, previousY, x, y);
+                        previousX = x;
+                        previousY = y;
+                    }
+                }
+            } finally {
+                g.dispose();
+            }
+        }
+    }
+}
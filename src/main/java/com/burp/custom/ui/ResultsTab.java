@@ -4,90 +4,109 @@ import burp.api.montoya.MontoyaApi;
 import burp.api.montoya.http.message.HttpRequestResponse;
 import burp.api.montoya.http.message.requests.HttpRequest;
 import burp.api.montoya.http.message.responses.HttpResponse;
-import burp.api.montoya.persistence.PersistedObject;
 import burp.api.montoya.ui.editor.EditorOptions;
 import burp.api.montoya.ui.editor.HttpRequestEditor;
 import burp.api.montoya.ui.editor.HttpResponseEditor;
 import com.burp.custom.JsMinerExtension;
+import com.burp.custom.model.EvidenceCache;
 import com.burp.custom.model.EvidenceRecord;
 import com.burp.custom.model.Finding;
-import com.burp.custom.util.EntropyAnalyzer;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
+import com.burp.custom.model.FindingsJournal;
+import com.burp.custom.model.FindingsPageFile;
+import com.burp.custom.model.FindingsStore;
+import com.burp.custom.scan.BulkScanFilter;
+import com.burp.custom.scan.BulkSource;
+import com.burp.custom.scan.ScanEvents;
 
 import javax.swing.*;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
-import javax.swing.table.TableRowSorter;
 import java.awt.*;
 import java.awt.datatransfer.StringSelection;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.lang.reflect.Type;
+import java.io.Writer;
+import java.nio.file.Path;
 import java.text.SimpleDateFormat;
-import java.net.URI;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
 
 public class ResultsTab extends JPanel {
 
     private final MontoyaApi api;
     private final JsMinerExtension extension;
-    private final DefaultTableModel tableModel;
+    private final FindingsTableModel tableModel;
     private final JTable table;
     private final HttpRequestEditor requestEditor;
     private final HttpResponseEditor responseEditor;
-    private final Gson gson;
-    private final Object findingsLock = new Object();
     private volatile StatsTab statsTab;
 
-    private final List<Finding> findingsList = new ArrayList<>();
-    // URL-scoped dedup — same secret on same URL is one finding
-    private final Set<String> uniqueUrlScopedKeys = new HashSet<>();
-    // Global secret dedup — tracks every URL a given secret was found on
-    private final Map<String, Set<String>> secretToUrls = new LinkedHashMap<>();
-    // Map from finding value to table row indices for O(1) reuse-count updates
-    private final Map<String, List<Integer>> findingToRows = new HashMap<>();
-    private final Map<String, EvidenceRecord> evidenceById = new HashMap<>();
-
-    private static final String FINDINGS_KEY = "jsminer_findings_v3";
-    private volatile int globalFindingLimit = 1_000;
-    private volatile int perHostFindingLimit = 100;
+    // Thread-safe, indexed source of truth — workers ingest into it directly
+    private final FindingsStore store = new FindingsStore();
+    // Full HTTP messages kept in heap, up to the configured evidence memory
+    private final EvidenceCache evidenceCache = new EvidenceCache(64L << 20);
+    private volatile long evidenceBudget = 64L << 20;
+    // Set under heap pressure: full messages are released, leaving only the match windows
+    private volatile boolean evidenceReduced;
+    // Evidence currently in the editors; selecting another finding of it keeps their parsed views
+    private EvidenceRecord displayedEvidence;
+
+    // Worker → EDT hand-off, drained at a bounded rate with a per-flush time budget
+    private final UiUpdateBuffer<Finding> pendingRows;
+    private static final int UI_FLUSHES_PER_SECOND = 10;
+    private static final long UI_FLUSH_BUDGET_MS = 25;
+
+    // Snapshot plus append-only journal of adds and deletes in the project's extension data
+    private final FindingsJournal journal;
     private volatile boolean persistRawHttp = true;
-    private boolean persistedFindingsLoaded;
+    private final AtomicBoolean persistedFindingsLoaded = new AtomicBoolean();
+    // Set once the journal has been read; a flush before then could reuse existing segment numbers
+    private volatile boolean journalLoaded;
+    // Set once every recovered finding is in the store; a compaction before then would drop the rest
+    private volatile boolean findingsRestored;
+    private volatile boolean restoreCancelled;
+    private static final int RESTORE_CHUNK = 2_000;
+    // Memory-mapped file for findings beyond the retention limits; null when disabled
+    private FindingsPageFile overflowFile;
 
     private JComboBox<String> severityFilter;
     private JComboBox<String> typeFilter;
     private JComboBox<String> entropyFilter;
+    private JComboBox<String> ruleFilter;
+    private boolean syncingRuleFilter;
     private JTextField searchField;
+    private SavedQueries savedQueries;
+    // Last successfully parsed search text, so re-filtering on other controls does not re-parse
+    private String parsedSearchText = "";
+    private FindingsQuery parsedSearch = FindingsQuery.EMPTY;
     private JLabel statsLabel;
-
-    // Column indices — kept as constants so a column reorder only needs one change here
-    private static final int COL_SEVERITY = 0;
-    private static final int COL_TYPE     = 1;
-    private static final int COL_FINDING  = 2;
-    private static final int COL_RULE     = 3;
-    private static final int COL_ENTROPY  = 4;
-    private static final int COL_REUSE    = 5;
-    private static final int COL_CONTEXT  = 6;
-    private static final int COL_URL      = 7;
+    private JProgressBar loadingBar;
+    private volatile String loadingStatus;
+    private volatile String pressureStatus;
+
+    // Column indices live on the model so a column reorder only needs one change there
+    private static final int COL_SEVERITY = FindingsTableModel.COL_SEVERITY;
+    private static final int COL_TYPE     = FindingsTableModel.COL_TYPE;
+    private static final int COL_FINDING  = FindingsTableModel.COL_FINDING;
+    private static final int COL_RULE     = FindingsTableModel.COL_RULE;
+    private static final int COL_ENTROPY  = FindingsTableModel.COL_ENTROPY;
+    private static final int COL_REUSE    = FindingsTableModel.COL_REUSE;
+    private static final int COL_CONTEXT  = FindingsTableModel.COL_CONTEXT;
+    private static final int COL_URL      = FindingsTableModel.COL_URL;
 
     public ResultsTab(MontoyaApi api, JsMinerExtension extension) {
         this.api       = api;
         this.extension = extension;
-        this.gson      = new GsonBuilder().setPrettyPrinting().create();
+        this.journal   = new FindingsJournal(api.persistence().extensionData());
         setLayout(new BorderLayout());
 
         // ---- Table ----
-        String[] columns = {"Severity", "Type", "Finding", "Rule", "Entropy", "Reuse", "Context", "Source URL"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override public boolean isCellEditable(int r, int c) { return false; }
-        };
+        tableModel = new FindingsTableModel();
         table = new JTable(tableModel);
-        table.setAutoCreateRowSorter(true);
 
         table.getColumnModel().getColumn(COL_SEVERITY).setPreferredWidth(60);
         table.getColumnModel().getColumn(COL_TYPE).setPreferredWidth(65);
@@ -118,8 +137,7 @@ public class ResultsTab extends JPanel {
             @Override public Component getTableCellRendererComponent(JTable t, Object v, boolean sel, boolean foc, int r, int c) {
                 Component comp = super.getTableCellRendererComponent(t, v, sel, foc, r, c);
                 if (!sel) {
-                    int reuse = 1;
-                    try { reuse = Integer.parseInt(String.valueOf(v)); } catch (Exception ignored) {}
+                    int reuse = v instanceof Integer ? (Integer) v : 1;
                     if (reuse > 5)       { comp.setBackground(new Color(255, 50, 50));   comp.setForeground(Color.WHITE); }
                     else if (reuse > 2)  { comp.setBackground(new Color(255, 150, 50));  comp.setForeground(Color.BLACK); }
                     else if (reuse > 1)  { comp.setBackground(new Color(255, 220, 100)); comp.setForeground(Color.BLACK); }
@@ -148,16 +166,20 @@ public class ResultsTab extends JPanel {
             }
         });
 
-        TableRowSorter<DefaultTableModel> sorter = new TableRowSorter<>(tableModel);
-        sorter.setComparator(COL_SEVERITY, (s1, s2) -> Integer.compare(getSeverityOrder((String)s2), getSeverityOrder((String)s1)));
-        sorter.setComparator(COL_ENTROPY,  (s1, s2) -> Integer.compare(getEntropyOrder((String)s2),  getEntropyOrder((String)s1)));
-        sorter.setComparator(COL_REUSE, (s1, s2) -> {
-            int v1 = 1, v2 = 1;
-            try { v1 = Integer.parseInt((String)s1); } catch (Exception ignored) {}
-            try { v2 = Integer.parseInt((String)s2); } catch (Exception ignored) {}
-            return Integer.compare(v2, v1);
+        // Findings from a scan that stopped early are shown in italics
+        table.getColumnModel().getColumn(COL_URL).setCellRenderer(new DefaultTableCellRenderer() {
+            @Override public Component getTableCellRendererComponent(JTable t, Object v, boolean sel, boolean foc, int r, int c) {
+                Component comp = super.getTableCellRendererComponent(t, v, sel, foc, r, c);
+                Finding finding = tableModel.findingAt(t.convertRowIndexToModel(r));
+                boolean truncated = finding != null && finding.isTruncated();
+                comp.setFont(truncated ? comp.getFont().deriveFont(Font.ITALIC) : comp.getFont());
+                setToolTipText(truncated ? "Scan of this response stopped early (time budget, config change or unload); "
+                    + "some rules may not have run over all of it" : null);
+                return comp;
+            }
         });
-        table.setRowSorter(sorter);
+
+        table.setRowSorter(new FindingsTableModel.Sorter(tableModel));
 
         JScrollPane tableScroll = new JScrollPane(table);
 
@@ -193,19 +215,48 @@ public class ResultsTab extends JPanel {
         filterPanel.add(entropyFilter);
 
         filterPanel.add(Box.createHorizontalStrut(8));
-        filterPanel.add(new JLabel("Search:"));
-        searchField = new JTextField(18);
-        searchField.addActionListener(e -> applyFilters());
+        filterPanel.add(new JLabel("Rule:"));
+        ruleFilter = new JComboBox<>(new String[]{"All"});
+        ruleFilter.setPrototypeDisplayValue("Generic API Key Assignment");
+        ruleFilter.addActionListener(e -> { if (!syncingRuleFilter) applyFilters(); });
+        filterPanel.add(ruleFilter);
+
+        filterPanel.add(Box.createHorizontalStrut(8));
+        filterPanel.add(new JLabel("Query:"));
+        searchField = new JTextField(28);
+        searchField.setToolTipText("<html>Free text, or clauses that must all match, e.g.<br>" +
+            "<code>host:*.corp.com severity&gt;=MEDIUM rule~\"AWS\" reuse&gt;2 -url:cdn</code><br>" +
+            "Fields: host, url, value, context, rule, type, severity, entropy, reuse. " +
+            "<code>:</code> match, <code>~</code> contains, <code>= &gt; &gt;= &lt; &lt;=</code> compare, " +
+            "<code>-</code> negates.</html>");
+        // Filtering is index-backed, so it runs on every keystroke
+        searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            @Override public void insertUpdate(javax.swing.event.DocumentEvent e)  { applyFilters(); }
+            @Override public void removeUpdate(javax.swing.event.DocumentEvent e)  { applyFilters(); }
+            @Override public void changedUpdate(javax.swing.event.DocumentEvent e) { applyFilters(); }
+        });
         filterPanel.add(searchField);
         JButton filterBtn = new JButton("Filter");
         filterBtn.addActionListener(e -> applyFilters());
         filterPanel.add(filterBtn);
 
+        savedQueries = new SavedQueries(api.persistence().extensionData());
+        JButton savedBtn = new JButton("Saved \u25BE");
+        savedBtn.setToolTipText("Load, save or delete named queries (stored in the project)");
+        savedBtn.addActionListener(e -> showSavedQueriesMenu(savedBtn));
+        filterPanel.add(savedBtn);
+
         controlPanel.add(filterPanel, BorderLayout.NORTH);
 
         statsLabel = new JLabel("0 findings");
         statsLabel.setBorder(BorderFactory.createEmptyBorder(0, 8, 0, 0));
-        controlPanel.add(statsLabel, BorderLayout.CENTER);
+        loadingBar = new JProgressBar();
+        loadingBar.setPreferredSize(new Dimension(160, loadingBar.getPreferredSize().height));
+        loadingBar.setVisible(false);
+        JPanel statusPanel = new JPanel(new BorderLayout());
+        statusPanel.add(statsLabel, BorderLayout.CENTER);
+        statusPanel.add(loadingBar, BorderLayout.EAST);
+        controlPanel.add(statusPanel, BorderLayout.CENTER);
 
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
 
@@ -222,6 +273,10 @@ public class ResultsTab extends JPanel {
             });
         });
 
+        JButton bulkScanBtn = new JButton("Bulk Scan...");
+        bulkScanBtn.setToolTipText("Scan Site Map and/or Proxy history, optionally limited by URL prefix or host");
+        bulkScanBtn.addActionListener(e -> showBulkScanDialog(bulkScanBtn));
+
         JButton clearBtn      = new JButton("Clear Results");
         JButton saveBtn       = new JButton("Save Results");
         JButton exportJsonBtn = new JButton("Export JSON");
@@ -229,13 +284,30 @@ public class ResultsTab extends JPanel {
 
         clearBtn.addActionListener(e -> clearResults());
         saveBtn.addActionListener(e -> {
-            saveFindings();
-            JOptionPane.showMessageDialog(this, "Results saved.", "Saved", JOptionPane.INFORMATION_MESSAGE);
+            if (!findingsRestored) {
+                JOptionPane.showMessageDialog(this, "Saved findings are still loading; try again once they are shown.",
+                    "Save Results", JOptionPane.INFORMATION_MESSAGE);
+                return;
+            }
+            // A full snapshot costs time proportional to everything retained, so it runs after
+            // any auto-save in progress rather than on the EDT
+            saveBtn.setEnabled(false);
+            boolean queued = extension.runOnAutoSaveThread(() -> {
+                boolean saved = compactPersistedFindings();
+                SwingUtilities.invokeLater(() -> {
+                    saveBtn.setEnabled(true);
+                    if (saved) JOptionPane.showMessageDialog(this, "Results saved.", "Saved", JOptionPane.INFORMATION_MESSAGE);
+                    else JOptionPane.showMessageDialog(this, "Saving failed; see the extension output.", "Save Results",
+                        JOptionPane.ERROR_MESSAGE);
+                });
+            });
+            if (!queued) saveBtn.setEnabled(true);
         });
         exportJsonBtn.addActionListener(e -> exportFindings("json"));
         exportCsvBtn.addActionListener(e -> exportFindings("csv"));
 
         buttonPanel.add(scanBtn);
+        buttonPanel.add(bulkScanBtn);
         buttonPanel.add(Box.createHorizontalStrut(12));
         buttonPanel.add(clearBtn);
         buttonPanel.add(saveBtn);
@@ -251,56 +323,81 @@ public class ResultsTab extends JPanel {
             if (!e.getValueIsAdjusting()) {
                 int viewRow = table.getSelectedRow();
                 if (viewRow >= 0) {
-                    int modelRow = table.convertRowIndexToModel(viewRow);
-                    if (modelRow >= 0 && modelRow < findingsList.size()) {
-                        displayFinding(findingsList.get(modelRow));
-                    }
+                    Finding finding = tableModel.findingAt(table.convertRowIndexToModel(viewRow));
+                    if (finding != null) displayFinding(finding);
                 }
             }
         });
 
         setupContextMenu();
+
+        pendingRows = new UiUpdateBuffer<>(UI_FLUSHES_PER_SECOND, UI_FLUSH_BUDGET_MS, this::appendRows, this::afterRowsFlushed);
+        pendingRows.start();
     }
 
     // -------------------------------------------------------------------------
     // Adding findings
     // -------------------------------------------------------------------------
 
-    public void addFindingsBatch(List<FindingCandidate> candidates) {
-        if (candidates.isEmpty()) return;
-        SwingUtilities.invokeLater(() -> {
-            boolean changed = false;
-            synchronized (findingsLock) {
-                for (FindingCandidate candidate : candidates) {
-                    String urlKey = candidate.url() + "::" + candidate.type() + "::" + candidate.finding();
-                    if (!uniqueUrlScopedKeys.add(urlKey)) continue;
-                    if (findingsList.size() >= globalFindingLimit || hostFindingCountLocked(candidate.url()) >= perHostFindingLimit) {
-                        uniqueUrlScopedKeys.remove(urlKey);
-                        continue;
-                    }
-
-                    EvidenceRecord evidence = evidenceById.get(candidate.evidenceId());
-                    if (evidence == null) {
-                        evidence = new EvidenceRecord(candidate.url(), candidate.requestResponse(), candidate.evidenceId(), candidate.responseHash());
-                        evidenceById.put(candidate.evidenceId(), evidence);
-                    }
-                    Finding finding = new Finding(candidate.type(), candidate.finding(), candidate.ruleName(), candidate.url(),
-                        evidence.getId(), candidate.start(), candidate.end(), candidate.severity(), candidate.context());
-                    findingsList.add(finding);
-                    secretToUrls.computeIfAbsent(candidate.finding(), ignored -> new LinkedHashSet<>()).add(candidate.url());
-                    findingToRows.computeIfAbsent(candidate.finding(), ignored -> new ArrayList<>()).add(findingsList.size() - 1);
-                    EntropyAnalyzer.EntropyResult entropy = EntropyAnalyzer.analyze(candidate.finding());
-                    tableModel.addRow(new Object[]{candidate.severity(), candidate.type(), candidate.finding(), candidate.ruleName(),
-                        entropy.level, String.valueOf(secretToUrls.get(candidate.finding()).size()), candidate.context(), candidate.url()});
-                    changed = true;
-                }
-                if (changed) {
-                    refreshReuseCountsLocked();
-                    statsLabel.setText(findingsList.size() + " finding" + (findingsList.size() == 1 ? "" : "s"));
-                }
-            }
-            if (changed) synchronizeStats();
+    /**
+     * Called from analysis workers; ingestion happens here, only the accepted rows go to the EDT.
+     *
+     * @param truncated whether the scan that found them stopped before every rule had run
+     * @return the findings kept after de-duplication and retention
+     */
+    public List<Finding> addFindingsBatch(List<FindingCandidate> candidates, boolean truncated) {
+        if (candidates.isEmpty()) return List.of();
+        Map<String, FindingCandidate> evidenceSources = new HashMap<>();
+        List<Finding> findings = new ArrayList<>(candidates.size());
+        for (FindingCandidate candidate : candidates) {
+            evidenceSources.putIfAbsent(candidate.evidenceId(), candidate);
+            findings.add(new Finding(candidate.type(), candidate.finding(), candidate.ruleName(), candidate.url(),
+                candidate.evidenceId(), candidate.start(), candidate.end(), candidate.severity(), candidate.context(), truncated));
+        }
+        List<EvidenceRecord> newEvidence = new ArrayList<>();
+        List<Finding> added = store.addAll(findings, evidenceId -> {
+            FindingCandidate source = evidenceSources.get(evidenceId);
+            EvidenceRecord record = new EvidenceRecord(source.url(), source.requestResponse(), evidenceId, source.responseHash());
+            newEvidence.add(record);
+            return record;
         });
+        journal.recordAdded(added, newEvidence);
+        // Findings are attached first, so their windows are retained before any message is spilled
+        for (EvidenceRecord record : newEvidence) evidenceCache.admit(record);
+        pendingRows.publishAll(added);
+        removeEvictedRows();
+        return added;
+    }
+
+    // Evicted rows leave the table; with an overflow file, exports still read them from it
+    private void removeEvictedRows() {
+        List<Finding> evicted = store.drainEvicted();
+        IOException error = store.takeOverflowError();
+        if (error != null) extension.log(JsMinerExtension.LogLevel.ERROR, "Findings overflow file disabled: " + error.getMessage());
+        if (evicted.isEmpty()) return;
+        journal.recordRemoved(evicted);
+        SwingUtilities.invokeLater(() -> removeRows(evicted));
+    }
+
+    private void afterRowsFlushed() {
+        extension.metrics().edtFlush(pendingRows.lastFlushNanos());
+        updateStatsLabel();
+    }
+
+    // One chunk of a coalesced flush; the stats label is refreshed once per flush instead
+    private void appendRows(List<Finding> added) {
+        // Skip rows deleted or cleared since ingestion, or already shown by a rebuild
+        added.removeIf(finding -> !store.contains(finding) || tableModel.contains(finding));
+        if (added.isEmpty()) return;
+        tableModel.append(added, store::reuseCount);
+        StatsTab currentStatsTab = statsTab;
+        if (currentStatsTab != null) currentStatsTab.findingsAdded(added);
+    }
+
+    /** Applies every queued update immediately and stops the flush timer; EDT only. */
+    public void flushPendingUpdates() {
+        pendingRows.flushNow();
+        pendingRows.stop();
     }
 
     public record FindingCandidate(String type, String finding, String ruleName, String url, String evidenceId, String responseHash,
@@ -308,18 +405,88 @@ public class ResultsTab extends JPanel {
 
     public void setStatsTab(StatsTab statsTab) {
         this.statsTab = statsTab;
-        synchronizeStats();
+        SwingUtilities.invokeLater(this::synchronizeStats);
+    }
+
+    public void setRetentionOptions(long findingsMemoryBytes, int perHostLimit, boolean persistRawHttp, boolean overflowToDisk,
+                                    long evidenceMemoryBytes) {
+        this.persistRawHttp = persistRawHttp;
+        evidenceBudget = evidenceMemoryBytes;
+        evidenceCache.setBudget(evidenceReduced ? 0 : evidenceMemoryBytes);
+        setOverflowToDisk(overflowToDisk);
+        List<Finding> pruned = new ArrayList<>(store.setLimits(Integer.MAX_VALUE, perHostLimit));
+        pruned.addAll(store.setMemoryBudget(findingsMemoryBytes));
+        if (pruned.isEmpty()) return;
+        journal.recordRemoved(pruned);
+        Runnable removeRows = () -> removeRows(pruned);
+        if (SwingUtilities.isEventDispatchThread()) removeRows.run();
+        else SwingUtilities.invokeLater(removeRows);
     }
 
-    public void setRetentionOptions(int globalLimit, int perHostLimit, boolean persistRawHttp) {
-        synchronized (findingsLock) {
-            this.globalFindingLimit = Math.max(1, globalLimit);
-            this.perHostFindingLimit = Math.max(1, perHostLimit);
-            this.persistRawHttp = persistRawHttp;
-            pruneToRetentionLimitsLocked();
+    private synchronized void setOverflowToDisk(boolean enabled) {
+        if (enabled == (overflowFile != null)) return;
+        if (enabled) {
+            try {
+                overflowFile = new FindingsPageFile(overflowPath());
+                store.setOverflow(overflowFile);
+                extension.log(JsMinerExtension.LogLevel.INFO, "Findings overflow file: " + overflowFile.path()
+                    + " (" + overflowFile.size() + " findings)");
+            } catch (IOException | RuntimeException e) {
+                extension.log(JsMinerExtension.LogLevel.ERROR, "Cannot open findings overflow file: " + e.getMessage());
+            }
+            return;
         }
-        rebuildTable();
-        synchronizeStats();
+        store.setOverflow(null);
+        closeOverflowFile(false);
+    }
+
+    // Burp does not expose the project file's location, so the file is keyed by project ID
+    private Path overflowPath() {
+        String projectId = api.project().id().replaceAll("[^A-Za-z0-9_-]", "_");
+        return Path.of(System.getProperty("user.home"), ".jsminer", "findings-" + projectId + ".pages");
+    }
+
+    private synchronized void closeOverflowFile(boolean delete) {
+        if (overflowFile == null) return;
+        try {
+            if (delete) overflowFile.delete();
+            else overflowFile.close();
+        } catch (IOException e) {
+            extension.log(JsMinerExtension.LogLevel.WARN, "Failed to close findings overflow file: " + e.getMessage());
+        }
+        overflowFile = null;
+    }
+
+    private void showBulkScanDialog(JButton bulkScanBtn) {
+        List<BulkSource> available = extension.bulkSources();
+        JComboBox<String> sourceCombo = new JComboBox<>();
+        for (BulkSource source : available) sourceCombo.addItem(source.name());
+        sourceCombo.addItem("All sources");
+        JTextField prefixField = new JTextField(28);
+        prefixField.setToolTipText("Only items whose URL starts with this prefix, e.g. https://app.target.com/static/");
+        JTextField hostField = new JTextField(28);
+        hostField.setToolTipText("Only this host and its subdomains, e.g. target.com");
+
+        JPanel form = new JPanel(new GridLayout(0, 2, 5, 5));
+        form.add(new JLabel("Source:"));
+        form.add(sourceCombo);
+        form.add(new JLabel("URL prefix (optional):"));
+        form.add(prefixField);
+        form.add(new JLabel("Host (optional):"));
+        form.add(hostField);
+
+        int choice = JOptionPane.showConfirmDialog(this, form, "Bulk Scan",
+            JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (choice != JOptionPane.OK_OPTION) return;
+
+        int selected = sourceCombo.getSelectedIndex();
+        List<BulkSource> sources = selected < available.size() ? List.of(available.get(selected)) : available;
+        bulkScanBtn.setEnabled(false);
+        bulkScanBtn.setText("Scanning...");
+        extension.scanBulk(sources, new BulkScanFilter(prefixField.getText(), hostField.getText()), () -> {
+            bulkScanBtn.setEnabled(true);
+            bulkScanBtn.setText("Bulk Scan...");
+        });
     }
 
     // -------------------------------------------------------------------------
@@ -328,10 +495,14 @@ public class ResultsTab extends JPanel {
 
     private void displayFinding(Finding finding) {
         EvidenceRecord evidence = evidenceFor(finding);
-        try { requestEditor.setRequest(evidence != null ? evidence.getRequest() : null); }
-        catch (Exception e) { requestEditor.setRequest(null); }
-        try { responseEditor.setResponse(evidence != null ? evidence.getResponse() : null); }
-        catch (Exception e) { responseEditor.setResponse(null); }
+        evidenceCache.touch(evidence);
+        if (evidence == null || evidence != displayedEvidence) {
+            displayedEvidence = evidence;
+            try { requestEditor.setRequest(evidence != null ? evidence.getRequest() : null); }
+            catch (Exception e) { requestEditor.setRequest(null); }
+            try { responseEditor.setResponse(evidence != null ? evidence.getResponse() : null); }
+            catch (Exception e) { responseEditor.setResponse(null); }
+        }
         if (responseEditor.getResponse() != null) {
             responseEditor.setSearchExpression(finding.getFinding());
         }
@@ -378,8 +549,7 @@ public class ResultsTab extends JPanel {
     private Finding getSelectedFinding() {
         int viewRow = table.getSelectedRow();
         if (viewRow < 0) return null;
-        int modelRow = table.convertRowIndexToModel(viewRow);
-        return (modelRow >= 0 && modelRow < findingsList.size()) ? findingsList.get(modelRow) : null;
+        return tableModel.findingAt(table.convertRowIndexToModel(viewRow));
     }
 
     private void copyToClipboard(String text) {
@@ -391,6 +561,7 @@ public class ResultsTab extends JPanel {
         Finding f = getSelectedFinding();
         if (f == null) return;
         EvidenceRecord evidence = evidenceFor(f);
+        evidenceCache.touch(evidence);
         HttpRequest req = evidence != null ? evidence.getRequest() : null;
         if (req == null) return;
 
@@ -400,27 +571,61 @@ public class ResultsTab extends JPanel {
             case "organizer":
                 if (evidence != null && evidence.getRequestResponse() != null) {
                     api.organizer().sendToOrganizer(evidence.getRequestResponse());
-                } else if (evidence != null && evidence.getRequestString() != null && evidence.getResponseString() != null) {
-                    api.organizer().sendToOrganizer(HttpRequestResponse.httpRequestResponse(
-                        HttpRequest.httpRequest(evidence.getRequestString()),
-                        HttpResponse.httpResponse(evidence.getResponseString())));
+                } else if (evidence != null) {
+                    // Persisted evidence: the response may be read from the blob store here
+                    HttpResponse response = evidence.getResponse();
+                    if (response != null) api.organizer().sendToOrganizer(HttpRequestResponse.httpRequestResponse(req, response));
                 }
                 break;
         }
     }
 
     private void deleteSelectedFinding() {
-        int viewRow = table.getSelectedRow();
-        if (viewRow < 0) return;
-        int modelRow = table.convertRowIndexToModel(viewRow);
-        synchronized (findingsLock) {
-            if (modelRow >= 0 && modelRow < findingsList.size()) {
-                findingsList.remove(modelRow);
-                rebuildDerivedStateLocked();
-            }
+        Finding finding = getSelectedFinding();
+        if (finding == null || !store.remove(finding)) return;
+        journal.recordRemoved(List.of(finding));
+        removeRows(new ArrayList<>(List.of(finding)));
+    }
+
+    /**
+     * Deletes the findings that match, both in memory and in the overflow file, e.g. those
+     * of rules that were changed or removed. Safe from any thread; holds up new findings
+     * while the overflow file is compacted.
+     *
+     * @return the number of findings removed
+     */
+    public int retractFindings(Predicate<Finding> retracted) {
+        List<Finding> matching = new ArrayList<>();
+        for (Finding finding : store.snapshot()) {
+            if (retracted.test(finding)) matching.add(finding);
+        }
+        List<Finding> removed = store.removeAll(matching);
+        int dropped = store.removeOverflowIf(retracted);
+        IOException error = store.takeOverflowError();
+        if (error != null) extension.log(JsMinerExtension.LogLevel.ERROR, "Findings overflow file disabled: " + error.getMessage());
+        if (!removed.isEmpty()) journal.recordRemoved(removed);
+        if (removed.size() + dropped > 0) {
+            SwingUtilities.invokeLater(() -> {
+                removeRows(new ArrayList<>(removed));
+                updateStatsLabel();
+            });
         }
-        rebuildTable();
-        synchronizeStats();
+        return removed.size() + dropped;
+    }
+
+    /** The evidence records behind the findings in memory. */
+    public List<EvidenceRecord> evidenceSnapshot() {
+        return store.evidenceSnapshot();
+    }
+
+    // Removes already-deleted findings from the table and stats; pending rows never shown are skipped
+    private void removeRows(List<Finding> removed) {
+        removed.removeIf(finding -> !tableModel.contains(finding));
+        if (removed.isEmpty()) return;
+        tableModel.remove(removed, store::reuseCount);
+        updateStatsLabel();
+        StatsTab currentStatsTab = statsTab;
+        if (currentStatsTab != null) currentStatsTab.findingsRemoved(removed);
     }
 
     // -------------------------------------------------------------------------
@@ -428,27 +633,101 @@ public class ResultsTab extends JPanel {
     // -------------------------------------------------------------------------
 
     private void applyFilters() {
-        String sev     = (String) severityFilter.getSelectedItem();
-        String type    = (String) typeFilter.getSelectedItem();
-        String entropy = (String) entropyFilter.getSelectedItem();
-        String search  = searchField.getText().toLowerCase();
-
-        TableRowSorter<DefaultTableModel> sorter = (TableRowSorter<DefaultTableModel>) table.getRowSorter();
-        sorter.setRowFilter(new javax.swing.RowFilter<DefaultTableModel, Integer>() {
-            @Override public boolean include(Entry<? extends DefaultTableModel, ? extends Integer> entry) {
-                String rowSev    = (String) entry.getValue(COL_SEVERITY);
-                String rowType   = (String) entry.getValue(COL_TYPE);
-                String rowFind   = ((String) entry.getValue(COL_FINDING)).toLowerCase();
-                String rowEnt    = (String) entry.getValue(COL_ENTROPY);
-                String rowUrl    = ((String) entry.getValue(COL_URL)).toLowerCase();
-                String rowCtx    = ((String) entry.getValue(COL_CONTEXT)).toLowerCase();
-                boolean sevMatch = "All".equals(sev)     || sev.equals(rowSev);
-                boolean typMatch = "All".equals(type)    || type.equals(rowType);
-                boolean entMatch = "All".equals(entropy) || entropy.equals(rowEnt);
-                boolean srcMatch = search.isEmpty() || rowFind.contains(search) || rowUrl.contains(search) || rowCtx.contains(search);
-                return sevMatch && typMatch && entMatch && srcMatch;
+        String text = searchField.getText();
+        if (!text.equals(parsedSearchText)) {
+            try {
+                parsedSearch = FindingsQuery.parse(text);
+                parsedSearchText = text;
+                searchField.setBackground(UIManager.getColor("TextField.background"));
+            } catch (IllegalArgumentException e) {
+                // Keep the last valid query applied while the user is mid-edit
+                searchField.setBackground(new Color(255, 220, 220));
+                statsLabel.setText(e.getMessage());
+                return;
             }
+        }
+
+        FindingsQuery combined = parsedSearch;
+        String severity = selectedFilter(severityFilter);
+        String type     = selectedFilter(typeFilter);
+        String entropy  = selectedFilter(entropyFilter);
+        String rule     = selectedFilter(ruleFilter);
+        if (severity != null) combined = combined.and(new FindingsQuery.Clause(FindingsQuery.Field.SEVERITY, FindingsQuery.Op.EQ, severity, false));
+        if (type != null)     combined = combined.and(new FindingsQuery.Clause(FindingsQuery.Field.TYPE, FindingsQuery.Op.EQ, type, false));
+        if (entropy != null)  combined = combined.and(new FindingsQuery.Clause(FindingsQuery.Field.ENTROPY, FindingsQuery.Op.EQ, entropy, false));
+        if (rule != null)     combined = combined.and(new FindingsQuery.Clause(FindingsQuery.Field.RULE, FindingsQuery.Op.EQ, rule, false));
+        FindingsSearchIndex.Query query = tableModel.query(combined);
+
+        FindingsTableModel.Sorter sorter = (FindingsTableModel.Sorter) table.getRowSorter();
+        if (query == null) {
+            sorter.setRowFilter(null);
+            return;
+        }
+        sorter.setRowFilter(new javax.swing.RowFilter<FindingsTableModel, Integer>() {
+            @Override public boolean include(Entry<? extends FindingsTableModel, ? extends Integer> entry) {
+                return entry.getModel().matches(query, entry.getIdentifier());
+            }
+        });
+        updateStatsLabel();
+    }
+
+    private void showSavedQueriesMenu(JButton anchor) {
+        JPopupMenu menu = new JPopupMenu();
+        Map<String, String> saved = savedQueries.all();
+        for (Map.Entry<String, String> entry : saved.entrySet()) {
+            JMenuItem item = new JMenuItem(entry.getKey());
+            item.setToolTipText(entry.getValue());
+            item.addActionListener(e -> searchField.setText(entry.getValue()));
+            menu.add(item);
+        }
+        if (!saved.isEmpty()) menu.addSeparator();
+
+        JMenuItem save = new JMenuItem("Save Current Query...");
+        save.setEnabled(!searchField.getText().isBlank());
+        save.addActionListener(e -> {
+            String name = JOptionPane.showInputDialog(this, "Name for this query:", "Save Query", JOptionPane.PLAIN_MESSAGE);
+            if (name != null && !name.isBlank()) savedQueries.put(name.trim(), searchField.getText().trim());
         });
+        menu.add(save);
+
+        if (!saved.isEmpty()) {
+            JMenu delete = new JMenu("Delete");
+            for (String name : saved.keySet()) {
+                JMenuItem item = new JMenuItem(name);
+                item.addActionListener(e -> savedQueries.remove(name));
+                delete.add(item);
+            }
+            menu.add(delete);
+        }
+        menu.show(anchor, 0, anchor.getHeight());
+    }
+
+    private static String selectedFilter(JComboBox<String> combo) {
+        Object selected = combo.getSelectedItem();
+        return selected == null || "All".equals(selected) ? null : selected.toString();
+    }
+
+    // Keeps the Rule filter listing the rules that currently have rows, preserving the selection
+    private void syncRuleFilter() {
+        List<String> names = tableModel.ruleNames();
+        Collections.sort(names, String.CASE_INSENSITIVE_ORDER);
+        Object selected = ruleFilter.getSelectedItem();
+        // A selected rule with no rows left stays listed until the selection changes
+        if (selected != null && !"All".equals(selected) && !names.contains(selected)) names.add(selected.toString());
+        if (ruleFilter.getItemCount() == names.size() + 1) {
+            boolean same = true;
+            for (int i = 0; i < names.size() && same; i++) same = names.get(i).equals(ruleFilter.getItemAt(i + 1));
+            if (same) return;
+        }
+        syncingRuleFilter = true;
+        try {
+            ruleFilter.removeAllItems();
+            ruleFilter.addItem("All");
+            for (String name : names) ruleFilter.addItem(name);
+            ruleFilter.setSelectedItem(selected != null ? selected : "All");
+        } finally {
+            syncingRuleFilter = false;
+        }
     }
 
     // -------------------------------------------------------------------------
@@ -463,55 +742,111 @@ public class ResultsTab extends JPanel {
             "Security Warning", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
         if (confirm != JOptionPane.YES_OPTION) return;
 
+        boolean json = format.equals("json");
+        JCheckBox ndjson = new JCheckBox("One object per line (NDJSON)");
+        JCheckBox gzip = new JCheckBox("Gzip compress");
+        JCheckBox filteredOnly = new JCheckBox("Only rows shown by the current filter");
+        JPanel options = new JPanel();
+        options.setLayout(new BoxLayout(options, BoxLayout.Y_AXIS));
+        options.setBorder(BorderFactory.createTitledBorder("Options"));
+        if (json) options.add(ndjson);
+        options.add(gzip);
+        options.add(filteredOnly);
+
         JFileChooser chooser = new JFileChooser();
         chooser.setDialogTitle("Export Findings");
-        String ext = format.equals("json") ? "json" : "csv";
-        chooser.setFileFilter(new FileNameExtensionFilter(ext.toUpperCase() + " files", ext));
+        chooser.setAccessory(options);
+        String ext = json ? "json" : "csv";
+        chooser.setFileFilter(new FileNameExtensionFilter(ext.toUpperCase() + " files", ext, "ndjson", "gz"));
         String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
         chooser.setSelectedFile(new File("jsminer_findings_" + timestamp + "." + ext));
 
-        if (chooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
-            File file = chooser.getSelectedFile();
-            if (!file.getName().endsWith("." + ext)) file = new File(file.getAbsolutePath() + "." + ext);
-            try (FileWriter writer = new FileWriter(file)) {
-                if ("json".equals(format)) exportToJson(writer);
-                else exportToCsv(writer);
-                JOptionPane.showMessageDialog(this, "Exported " + findingsList.size() + " findings to: " + file.getName(),
-                    "Export Complete", JOptionPane.INFORMATION_MESSAGE);
-            } catch (IOException e) {
-                JOptionPane.showMessageDialog(this, "Export failed: " + e.getMessage(), "Export Error", JOptionPane.ERROR_MESSAGE);
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        FindingsExporter.Format exportFormat = !json ? FindingsExporter.Format.CSV
+            : ndjson.isSelected() ? FindingsExporter.Format.NDJSON : FindingsExporter.Format.JSON;
+        String suffix = "." + exportFormat.extension + (gzip.isSelected() ? ".gz" : "");
+        File file = chooser.getSelectedFile();
+        String name = file.getName();
+        if (name.endsWith("." + ext) && !name.endsWith(suffix)) name = name.substring(0, name.length() - ext.length() - 1);
+        if (!name.endsWith(suffix)) file = new File(file.getParentFile(), name + suffix);
+
+        // Row references only; the rows themselves are read as they are written
+        List<Iterable<Finding>> parts;
+        long total;
+        if (filteredOnly.isSelected()) {
+            List<Finding> shown = new ArrayList<>(table.getRowCount());
+            for (int row = 0; row < table.getRowCount(); row++) {
+                shown.add(tableModel.findingAt(table.convertRowIndexToModel(row)));
             }
+            parts = List.of(shown);
+            total = shown.size();
+        } else {
+            List<Finding> findings = store.snapshot();
+            parts = List.of(findings, store.overflowFindings());
+            total = findings.size() + store.overflowSize();
         }
+        runExport(file, exportFormat, parts, total);
     }
 
-    private void exportToJson(FileWriter writer) throws IOException {
-        List<Map<String, Object>> data = new ArrayList<>();
-        for (Finding f : findingsList) {
-            Map<String, Object> item = new LinkedHashMap<>();
-            item.put("severity",  f.getSeverity());
-            item.put("type",      f.getType());
-            item.put("finding",   f.getFinding());
-            item.put("ruleName",  f.getRuleName());
-            item.put("url",       f.getUrl());
-            item.put("context",   f.getContext());
-            item.put("timestamp", f.getTimestamp());
-            item.put("reuseCount", secretToUrls.getOrDefault(f.getFinding(), Collections.emptySet()).size());
-            data.add(item);
-        }
-        writer.write(gson.toJson(data));
-    }
-
-    private void exportToCsv(FileWriter writer) throws IOException {
-        // All fields quoted — fixes the original bug where Rule Name was unquoted
-        writer.write("\"Severity\",\"Type\",\"Finding\",\"Rule Name\",\"Entropy\",\"Reuse\",\"Context\",\"URL\"\n");
-        for (Finding f : findingsList) {
-            EntropyAnalyzer.EntropyResult er = EntropyAnalyzer.analyze(f.getFinding());
-            int reuse = secretToUrls.getOrDefault(f.getFinding(), Collections.emptySet()).size();
-            writer.write(String.format("\"%s\",\"%s\",\"%s\",\"%s\",\"%s\",\"%d\",\"%s\",\"%s\"\n",
-                csv(f.getSeverity()), csv(f.getType()), csv(f.getFinding()),
-                csv(f.getRuleName()), csv(er.level), reuse,
-                csv(f.getContext()), csv(f.getUrl())));
-        }
+    // Streams the export on a background thread behind a progress dialog; cancelling deletes the partial file
+    private void runExport(File file, FindingsExporter.Format format, List<Iterable<Finding>> parts, long total) {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        JProgressBar progress = new JProgressBar(0, (int) Math.min(Integer.MAX_VALUE, Math.max(1, total)));
+        progress.setStringPainted(true);
+        progress.setString("0 / " + total);
+        JButton cancel = new JButton("Cancel");
+        cancel.addActionListener(e -> {
+            cancelled.set(true);
+            cancel.setEnabled(false);
+        });
+
+        JDialog dialog = new JDialog(SwingUtilities.getWindowAncestor(this), "Exporting to " + file.getName(),
+            Dialog.ModalityType.MODELESS);
+        dialog.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+        dialog.addWindowListener(new WindowAdapter() {
+            @Override public void windowClosing(WindowEvent e) { cancelled.set(true); }
+        });
+        JPanel content = new JPanel(new BorderLayout(8, 8));
+        content.setBorder(BorderFactory.createEmptyBorder(12, 12, 12, 12));
+        content.add(progress, BorderLayout.CENTER);
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT, 0, 0));
+        buttons.add(cancel);
+        content.add(buttons, BorderLayout.SOUTH);
+        dialog.setContentPane(content);
+        dialog.setSize(360, dialog.getPreferredSize().height);
+        dialog.setLocationRelativeTo(this);
+        dialog.setVisible(true);
+
+        Thread worker = new Thread(() -> {
+            FindingsExporter exporter = new FindingsExporter(format, store::reuseCount, cancelled::get);
+            long written = 0;
+            Exception failure = null;
+            try (Writer out = FindingsExporter.open(file.toPath())) {
+                written = exporter.write(out, parts, count -> SwingUtilities.invokeLater(() -> {
+                    progress.setValue((int) Math.min(Integer.MAX_VALUE, count));
+                    progress.setString(count + " / " + total);
+                }));
+            } catch (IOException | RuntimeException e) {
+                failure = e;
+            }
+            if ((cancelled.get() || failure != null) && !file.delete() && file.exists()) {
+                extension.log(JsMinerExtension.LogLevel.WARN, "Could not delete partial export " + file);
+            }
+            long exported = written;
+            Exception error = failure;
+            SwingUtilities.invokeLater(() -> {
+                dialog.dispose();
+                if (error != null) {
+                    JOptionPane.showMessageDialog(this, "Export failed: " + error.getMessage(), "Export Error",
+                        JOptionPane.ERROR_MESSAGE);
+                } else if (!cancelled.get()) {
+                    JOptionPane.showMessageDialog(this, "Exported " + exported + " findings to: " + file.getName(),
+                        "Export Complete", JOptionPane.INFORMATION_MESSAGE);
+                }
+            });
+        }, "jsminer-export");
+        worker.setDaemon(true);
+        worker.start();
     }
 
     static String csv(String v) {
@@ -525,209 +860,188 @@ public class ResultsTab extends JPanel {
     // Persistence
     // -------------------------------------------------------------------------
 
-    public void saveAllFindings() { saveFindings(); }
+    /**
+     * Writes the adds and deletes since the last call as one journal segment, compacting
+     * into a fresh snapshot once the journal has outgrown it. Runs on the auto-save thread.
+     */
+    public void persistChanges() {
+        if (!journalLoaded) return;
+        try {
+            flushJournal();
+            if (findingsRestored && journal.needsCompaction()) compactPersistedFindings();
+        } catch (Exception e) {
+            extension.log(JsMinerExtension.LogLevel.ERROR, "Failed to save findings: " + e.getMessage());
+        }
+    }
 
-    private void saveFindings() {
+    /** Writes only the pending journal segment; used on unload so it never waits on a full snapshot. */
+    public void flushPersistedChanges() {
+        if (!journalLoaded) return;
         try {
-            List<Finding> snapshot;
-            List<EvidenceRecord> evidenceSnapshot;
-            synchronized (findingsLock) {
-                snapshot = new ArrayList<>(findingsList);
-                evidenceSnapshot = evidenceById.values().stream()
-                    .map(evidence -> evidence.forPersistence(persistRawHttp)).collect(java.util.stream.Collectors.toList());
-            }
-            api.persistence().extensionData().setString(FINDINGS_KEY, gson.toJson(new PersistedFindings(snapshot, evidenceSnapshot)));
+            flushJournal();
         } catch (Exception e) {
             extension.log(JsMinerExtension.LogLevel.ERROR, "Failed to save findings: " + e.getMessage());
         }
     }
 
-    public void loadPersistedFindings() {
-        synchronized (findingsLock) {
-            if (persistedFindingsLoaded) return;
-            persistedFindingsLoaded = true;
+    private void flushJournal() {
+        ScanEvents.PersistenceSave event = ScanEvents.saveStarted("journal");
+        int records = journal.flush(persistRawHttp);
+        if (event != null) event.finish(records);
+    }
+
+    private boolean compactPersistedFindings() {
+        try {
+            ScanEvents.PersistenceSave event = ScanEvents.saveStarted("snapshot");
+            long sealed = journal.seal(persistRawHttp);
+            List<Finding> findings = store.snapshot();
+            journal.compact(sealed, findings, store.evidenceSnapshot(), persistRawHttp);
+            if (event != null) event.finish(findings.size());
+            return true;
+        } catch (Exception e) {
+            extension.log(JsMinerExtension.LogLevel.ERROR, "Failed to save findings: " + e.getMessage());
+            return false;
         }
+    }
+
+    /**
+     * Reads the snapshot and journal, then streams the recovered findings into the store
+     * in chunks; rows reach the table through the same rate-limited buffer as live
+     * findings, so the UI stays responsive however many there are. Runs on the startup
+     * thread and stops early if interrupted or the results are cleared.
+     */
+    public void loadPersistedFindings() {
+        if (!persistedFindingsLoaded.compareAndSet(false, true)) return;
         try {
-            PersistedObject prefs = api.persistence().extensionData();
-            String json = prefs.getString(FINDINGS_KEY);
-            PersistedFindings persisted;
-            if (json == null || json.isEmpty()) {
-                String legacyJson = prefs.getString("jsminer_findings_v2");
-                if (legacyJson == null || legacyJson.isEmpty()) return;
-                Type listType = new TypeToken<ArrayList<Finding>>(){}.getType();
-                List<Finding> legacyFindings = gson.fromJson(legacyJson, listType);
-                persisted = new PersistedFindings(legacyFindings, List.of());
-            } else {
-                persisted = gson.fromJson(json, PersistedFindings.class);
+            showLoading("Reading saved findings...", 0, 0);
+            FindingsJournal.Recovered recovered;
+            try {
+                recovered = journal.load();
+            } finally {
+                journalLoaded = true;
+            }
+            if (recovered.skippedSegments() > 0) {
+                extension.log(JsMinerExtension.LogLevel.WARN, "Skipped " + recovered.skippedSegments() +
+                    " unreadable findings journal segment(s).");
             }
-            if (persisted == null || persisted.findings == null) return;
-
-            synchronized (findingsLock) {
-                if (persisted.evidence != null) {
-                    for (EvidenceRecord evidence : persisted.evidence) {
-                        if (evidence != null && evidence.getId() != null) evidenceById.put(evidence.getId(), evidence);
-                    }
-                }
-                for (Finding f : persisted.findings) {
-                    if (!uniqueUrlScopedKeys.add(f.getUrlScopedKey())) continue;
-                    if (findingsList.size() >= globalFindingLimit || hostFindingCountLocked(f.getUrl()) >= perHostFindingLimit) {
-                        uniqueUrlScopedKeys.remove(f.getUrlScopedKey());
-                        continue;
-                    }
-                    findingsList.add(f);
-                    secretToUrls.computeIfAbsent(f.getFinding(), k -> new LinkedHashSet<>()).add(f.getUrl());
 
-                    int rowIdx = findingsList.size() - 1;
-                    findingToRows.computeIfAbsent(f.getFinding(), k -> new ArrayList<>()).add(rowIdx);
+            // The store only keeps evidence referenced by retained findings, so evidence
+            // for findings rejected by retention is dropped at the next compaction.
+            List<Finding> findings = recovered.findings();
+            for (int from = 0; from < findings.size(); from += RESTORE_CHUNK) {
+                if (restoreCancelled || Thread.currentThread().isInterrupted()) {
+                    // After a clear the store is the whole truth again, so compaction is safe
+                    findingsRestored = restoreCancelled;
+                    return;
                 }
-                // Retention can reject findings while all persisted evidence was loaded above.
-                // Keep only evidence referenced by the retained findings before a later save.
-                removeUnusedEvidenceLocked();
+                List<Finding> chunk = findings.subList(from, Math.min(findings.size(), from + RESTORE_CHUNK));
+                pendingRows.publishAll(store.addAll(chunk, recovered.evidence()::get));
+                removeEvictedRows();
+                showLoading("Loading saved findings", from + chunk.size(), findings.size());
             }
-
-            rebuildTable();
-            synchronizeStats();
-
+            if (!findings.isEmpty()) {
+                extension.log(JsMinerExtension.LogLevel.INFO, "Restored " + findings.size() + " saved finding(s).");
+            }
+            findingsRestored = true;
         } catch (Exception e) {
             extension.log(JsMinerExtension.LogLevel.WARN, "Failed to load findings: " + e.getMessage());
-            api.persistence().extensionData().deleteString(FINDINGS_KEY);
+            journal.deleteAll();
+            findingsRestored = true;
         }
     }
 
-    private void clearResults() {
+    /**
+     * Shows a startup step next to the finding count; {@code total > 0} shows progress,
+     * otherwise the bar is indeterminate. A null status hides the indicator.
+     */
+    public void showLoading(String status, int done, int total) {
+        loadingStatus = status == null ? null : total > 0 ? status + ": " + done + " / " + total : status;
         SwingUtilities.invokeLater(() -> {
-            synchronized (findingsLock) {
-                tableModel.setRowCount(0);
-                findingsList.clear();
-                uniqueUrlScopedKeys.clear();
-                secretToUrls.clear();
-                findingToRows.clear();
-                evidenceById.clear();
+            loadingBar.setVisible(status != null);
+            loadingBar.setIndeterminate(total <= 0);
+            if (total > 0) {
+                loadingBar.setMaximum(total);
+                loadingBar.setValue(done);
             }
+            updateStatsLabel();
+        });
+    }
+
+    /** Releases every full message behind findings while heap is short, and restores the budget after. */
+    public void setEvidenceReduced(boolean reduced) {
+        if (evidenceReduced == reduced) return;
+        evidenceReduced = reduced;
+        evidenceCache.setBudget(reduced ? 0 : evidenceBudget);
+    }
+
+    /** Shows the current load-shedding step next to the finding count; null hides it. */
+    public void showPressureStatus(String status) {
+        pressureStatus = status;
+        SwingUtilities.invokeLater(this::updateStatsLabel);
+    }
+
+    private void clearResults() {
+        restoreCancelled = true;
+        SwingUtilities.invokeLater(() -> {
+            store.clear();
+            evidenceCache.clear();
+            displayedEvidence = null;
+            tableModel.replaceAll(List.of(), store::reuseCount);
             requestEditor.setRequest(null);
             responseEditor.setResponse(null);
-            api.persistence().extensionData().deleteString(FINDINGS_KEY);
-            statsLabel.setText("0 findings");
+            journal.deleteAll();
+            updateStatsLabel();
             synchronizeStats();
         });
     }
 
+    // Full resync of the Stats tab with the rows currently shown; deltas cover everything else
     private void synchronizeStats() {
         StatsTab currentStatsTab = statsTab;
         if (currentStatsTab == null) return;
-        List<Finding> snapshot;
-        synchronized (findingsLock) {
-            snapshot = new ArrayList<>(findingsList);
-        }
-        currentStatsTab.replaceFindings(snapshot);
+        currentStatsTab.replaceFindings(tableModel.findings());
     }
 
     // -------------------------------------------------------------------------
     // Helpers
     // -------------------------------------------------------------------------
 
-    private int getSeverityOrder(String s) {
-        switch (s == null ? "" : s.toUpperCase()) {
-            case "HIGH": return 4; case "MEDIUM": return 3; case "LOW": return 2; case "INFO": return 1; default: return 0;
-        }
-    }
-
-    private int getEntropyOrder(String s) {
-        switch (s == null ? "" : s.toUpperCase()) {
-            case "VERY HIGH": return 4; case "HIGH": return 3; case "MEDIUM": return 2; case "LOW": return 1; default: return 0;
-        }
-    }
-
-    private void rebuildDerivedStateLocked() {
-        uniqueUrlScopedKeys.clear();
-        secretToUrls.clear();
-        findingToRows.clear();
-
-        for (int idx = 0; idx < findingsList.size(); idx++) {
-            Finding finding = findingsList.get(idx);
-            uniqueUrlScopedKeys.add(finding.getUrlScopedKey());
-            secretToUrls.computeIfAbsent(finding.getFinding(), k -> new LinkedHashSet<>()).add(finding.getUrl());
-            findingToRows.computeIfAbsent(finding.getFinding(), k -> new ArrayList<>()).add(idx);
-        }
-
-        removeUnusedEvidenceLocked();
-    }
-
-    private void removeUnusedEvidenceLocked() {
-        evidenceById.keySet().retainAll(findingsList.stream().map(Finding::getEvidenceId)
-            .filter(Objects::nonNull).collect(java.util.stream.Collectors.toSet()));
-    }
-
-    private void pruneToRetentionLimitsLocked() {
-        Map<String, Integer> hostCounts = new HashMap<>();
-        List<Finding> retained = new ArrayList<>();
-        for (Finding finding : findingsList) {
-            if (retained.size() >= globalFindingLimit) break;
-            String host = hostFor(finding.getUrl());
-            int hostCount = hostCounts.getOrDefault(host, 0);
-            if (hostCount >= perHostFindingLimit) continue;
-            retained.add(finding);
-            hostCounts.put(host, hostCount + 1);
-        }
-        if (retained.size() != findingsList.size()) {
-            findingsList.clear();
-            findingsList.addAll(retained);
-        }
-        rebuildDerivedStateLocked();
-    }
-
-    private void rebuildTable() {
-        Runnable rebuild = () -> {
-            synchronized (findingsLock) {
-                tableModel.setRowCount(0);
-                for (Finding finding : findingsList) {
-                    EntropyAnalyzer.EntropyResult entropy = EntropyAnalyzer.analyze(finding.getFinding());
-                    tableModel.addRow(new Object[]{finding.getSeverity(), finding.getType(), finding.getFinding(), finding.getRuleName(),
-                        entropy.level, "1", finding.getContext(), finding.getUrl()});
-                }
-                refreshReuseCountsLocked();
-                statsLabel.setText(findingsList.size() + " finding" + (findingsList.size() == 1 ? "" : "s"));
-            }
-        };
-        if (SwingUtilities.isEventDispatchThread()) rebuild.run();
-        else SwingUtilities.invokeLater(rebuild);
-    }
-
-    private void refreshReuseCountsLocked() {
-        for (Map.Entry<String, List<Integer>> entry : findingToRows.entrySet()) {
-            int reuseCount = secretToUrls.getOrDefault(entry.getKey(), Collections.emptySet()).size();
-            for (int rowIdx : entry.getValue()) {
-                tableModel.setValueAt(String.valueOf(reuseCount), rowIdx, COL_REUSE);
-            }
-        }
+    private void updateStatsLabel() {
+        syncRuleFilter();
+        int count = tableModel.getRowCount();
+        int shown = table.getRowCount();
+        int backlog = pendingRows.backlog();
+        int overflowed = store.overflowSize();
+        String loading = loadingStatus;
+        String pressure = pressureStatus;
+        statsLabel.setText(count + " finding" + (count == 1 ? "" : "s") +
+            (shown != count ? "  |  " + shown + " shown" : "") +
+            (overflowed > 0 ? "  |  " + overflowed + " on disk" : "") +
+            (backlog > 0 ? "  |  UI backlog: " + backlog : "") +
+            (loading != null ? "  |  " + loading : "") +
+            (pressure != null ? "  |  " + pressure : ""));
+        statsLabel.setToolTipText(String.format("UI updates: %d published, %d applied, peak backlog %d, " +
+                "%d flushes, last %.1f ms, max %.1f ms. Findings in memory: %.1f of %.1f MB. " +
+                "Evidence in memory: %d message(s), %.1f of %.1f MB",
+            pendingRows.published(), pendingRows.flushed(), pendingRows.peakBacklog(),
+            pendingRows.flushCount(), pendingRows.lastFlushMillis(), pendingRows.maxFlushMillis(),
+            store.memoryBytes() / 1048576.0, store.memoryBudget() / 1048576.0,
+            evidenceCache.size(), evidenceCache.heapBytes() / 1048576.0, evidenceCache.budgetBytes() / 1048576.0));
     }
 
     public void clearPersistedFindings() {
-        api.persistence().extensionData().deleteString(FINDINGS_KEY);
-    }
-
-    private EvidenceRecord evidenceFor(Finding finding) {
-        synchronized (findingsLock) { return evidenceById.get(finding.getEvidenceId()); }
+        journal.deleteAll();
+        store.setOverflow(null);
+        closeOverflowFile(true);
     }
 
-    private int hostFindingCountLocked(String url) {
-        String host = hostFor(url);
-        int count = 0;
-        for (Finding finding : findingsList) if (host.equals(hostFor(finding.getUrl()))) count++;
-        return count;
+    /** Releases the overflow file; called once on unload after the final flush. */
+    public void closeStorage() {
+        store.setOverflow(null);
+        closeOverflowFile(false);
     }
 
-    private String hostFor(String url) {
-        try { return new URI(url).getHost() != null ? new URI(url).getHost() : url; }
-        catch (Exception ignored) { return url; }
-    }
-
-    private static class PersistedFindings {
-        List<Finding> findings;
-        List<EvidenceRecord> evidence;
-        PersistedFindings(List<Finding> findings, List<EvidenceRecord> evidence) {
-            this.findings = findings;
-            this.evidence = evidence;
-        }
+    private EvidenceRecord evidenceFor(Finding finding) {
+        return store.evidence(finding.getEvidenceId());
     }
 }
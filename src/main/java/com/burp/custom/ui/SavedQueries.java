@@ -0,0 +1,71 @@
+package com.burp.custom.ui;
+
+import burp.api.montoya.persistence.PersistedObject;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Named Results filter queries, stored in the project's extension data so they
+ * travel with the Burp project. EDT-confined.
+ */
+class SavedQueries {
+
+    private static final String SAVED_QUERIES_KEY = "jsminer_saved_queries";
+    private static final Type LIST_TYPE = new TypeToken<ArrayList<SavedQuery>>(){}.getType();
+
+    private final PersistedObject store;
+    private final Gson gson = new Gson();
+    private final Map<String, String> queries = new LinkedHashMap<>();
+
+    private static class SavedQuery {
+        String name;
+        String query;
+
+        SavedQuery(String name, String query) {
+            this.name = name;
+            this.query = query;
+        }
+    }
+
+    SavedQueries(PersistedObject store) {
+        this.store = store;
+        String json = store.getString(SAVED_QUERIES_KEY);
+        if (json == null || json.isBlank()) return;
+        try {
+            List<SavedQuery> saved = gson.fromJson(json, LIST_TYPE);
+            if (saved == null) return;
+            for (SavedQuery entry : saved) {
+                if (entry != null && entry.name != null && entry.query != null) queries.put(entry.name, entry.query);
+            }
+        } catch (JsonParseException e) {
+            // Unreadable entry from an older build: start over rather than fail the tab
+            store.deleteString(SAVED_QUERIES_KEY);
+        }
+    }
+
+    Map<String, String> all() {
+        return new LinkedHashMap<>(queries);
+    }
+
+    void put(String name, String query) {
+        queries.put(name, query);
+        persist();
+    }
+
+    void remove(String name) {
+        if (queries.remove(name) != null) persist();
+    }
+
+    private void persist() {
+        List<SavedQuery> saved = new ArrayList<>(queries.size());
+        queries.forEach((name, query) -> saved.add(new SavedQuery(name, query)));
+        store.setString(SAVED_QUERIES_KEY, gson.toJson(saved, LIST_TYPE));
+    }
+}
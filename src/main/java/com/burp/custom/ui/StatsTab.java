@@ -2,36 +2,28 @@ package com.burp.custom.ui;
 
 import burp.api.montoya.MontoyaApi;
 import com.burp.custom.model.Finding;
+import com.burp.custom.util.UrlUtils;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableRowSorter;
 import java.awt.*;
-import java.net.URI;
-import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Per-host statistics panel.
  * Displays a breakdown of findings grouped by hostname, type, and severity.
- * All mutation happens on the EDT through SwingUtilities.invokeLater().
+ *
+ * Counters are maintained from add/remove deltas published by the Results tab,
+ * so each change costs O(1) per finding and repaints only the affected host rows.
+ * All mutation happens on the EDT.
  */
 public class StatsTab extends JPanel {
 
     private final MontoyaApi api;
 
-    // host → type → severity → count
-    private final ConcurrentHashMap<String, ConcurrentHashMap<String, ConcurrentHashMap<String, AtomicInteger>>> stats
-        = new ConcurrentHashMap<>();
-
-    private final DefaultTableModel tableModel;
+    private final HostStatsModel tableModel = new HostStatsModel();
     private final JLabel totalLabel;
-    private final javax.swing.Timer refreshTimer;
-
-    private final AtomicInteger totalFindings   = new AtomicInteger(0);
-    private final AtomicInteger totalHigh       = new AtomicInteger(0);
-    private final AtomicInteger totalMedium     = new AtomicInteger(0);
-    private final AtomicInteger totalLow        = new AtomicInteger(0);
 
     public StatsTab(MontoyaApi api) {
         this.api = api;
@@ -44,148 +36,73 @@ public class StatsTab extends JPanel {
         totalLabel.setBorder(BorderFactory.createEmptyBorder(0, 0, 8, 0));
         add(totalLabel, BorderLayout.NORTH);
 
-        // ---- Per-host table ----
-        String[] cols = {"Host", "Total", "HIGH", "MEDIUM", "LOW / INFO", "Top Type"};
-        tableModel = new DefaultTableModel(cols, 0) {
-            @Override public boolean isCellEditable(int r, int c) { return false; }
-        };
-
+        // ---- Per-host table, busiest hosts first ----
         JTable table = new JTable(tableModel);
-        table.setAutoCreateRowSorter(true);
-        table.getColumnModel().getColumn(0).setPreferredWidth(280);
-        table.getColumnModel().getColumn(1).setPreferredWidth(60);
-        table.getColumnModel().getColumn(2).setPreferredWidth(60);
-        table.getColumnModel().getColumn(3).setPreferredWidth(70);
-        table.getColumnModel().getColumn(4).setPreferredWidth(80);
-        table.getColumnModel().getColumn(5).setPreferredWidth(100);
+        TableRowSorter<HostStatsModel> sorter = new TableRowSorter<>(tableModel);
+        sorter.setSortKeys(List.of(new RowSorter.SortKey(HostStatsModel.COL_TOTAL, SortOrder.DESCENDING)));
+        sorter.setSortsOnUpdates(true);
+        table.setRowSorter(sorter);
+        table.getColumnModel().getColumn(HostStatsModel.COL_HOST).setPreferredWidth(280);
+        table.getColumnModel().getColumn(HostStatsModel.COL_TOTAL).setPreferredWidth(60);
+        table.getColumnModel().getColumn(HostStatsModel.COL_HIGH).setPreferredWidth(60);
+        table.getColumnModel().getColumn(HostStatsModel.COL_MEDIUM).setPreferredWidth(70);
+        table.getColumnModel().getColumn(HostStatsModel.COL_LOW).setPreferredWidth(80);
+        table.getColumnModel().getColumn(HostStatsModel.COL_TOP_TYPE).setPreferredWidth(100);
 
         add(new JScrollPane(table), BorderLayout.CENTER);
-
-        refreshTimer = new javax.swing.Timer(250, e -> refreshTable());
-        refreshTimer.setRepeats(false);
-
-        // ---- Refresh button ----
-        JButton refreshBtn = new JButton("Refresh");
-        refreshBtn.addActionListener(e -> refreshNow());
-        JPanel btnPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-        btnPanel.add(refreshBtn);
-
-        add(btnPanel, BorderLayout.SOUTH);
     }
 
-    /**
-     * Called from the analysis thread — increments counters atomically,
-     * then schedules a lightweight EDT update.
-     */
+    /** Counts a single finding; safe from any thread. */
     public void recordFinding(String url, String type, String severity) {
-        recordFinding(url, type, severity, true);
+        onEdt(() -> {
+            tableModel.add(UrlUtils.host(url), type, severity);
+            refresh();
+        });
     }
 
-    /** Rebuilds statistics from the current deduplicated Results set. */
-    public void replaceFindings(Collection<Finding> findings) {
-        Runnable replace = () -> {
-            stats.clear();
-            totalFindings.set(0);
-            totalHigh.set(0);
-            totalMedium.set(0);
-            totalLow.set(0);
+    /** Applies findings newly accepted into the Results set. */
+    public void findingsAdded(Collection<Finding> findings) {
+        if (findings.isEmpty()) return;
+        onEdt(() -> {
             for (Finding finding : findings) {
-                recordFinding(finding.getUrl(), finding.getType(), finding.getSeverity(), false);
+                tableModel.add(UrlUtils.host(finding.getUrl()), finding.getType(), finding.getSeverity());
             }
-            refreshTable();
-        };
-        if (SwingUtilities.isEventDispatchThread()) replace.run();
-        else SwingUtilities.invokeLater(replace);
-    }
-
-    private void recordFinding(String url, String type, String severity, boolean refresh) {
-        String host = extractHost(url);
-
-        stats.computeIfAbsent(host, h -> new ConcurrentHashMap<>())
-             .computeIfAbsent(type, t -> new ConcurrentHashMap<>())
-             .computeIfAbsent(severity, s -> new AtomicInteger(0))
-             .incrementAndGet();
-
-        totalFindings.incrementAndGet();
-        switch (severity.toUpperCase()) {
-            case "HIGH":   totalHigh.incrementAndGet();   break;
-            case "MEDIUM": totalMedium.incrementAndGet(); break;
-            default:       totalLow.incrementAndGet();    break;
-        }
-        if (refresh) scheduleRefresh();
-    }
-
-    private void refreshTable() {
-        tableModel.setRowCount(0);
-        totalLabel.setText("Total: " + totalFindings.get() +
-            " findings  |  HIGH: " + totalHigh.get() +
-            "  |  MEDIUM: " + totalMedium.get() +
-            "  |  LOW/INFO: " + totalLow.get());
-
-        // Build rows sorted by total findings desc
-        java.util.List<Map.Entry<String, ConcurrentHashMap<String, ConcurrentHashMap<String, AtomicInteger>>>> entries
-            = new ArrayList<>(stats.entrySet());
-        entries.sort((a, b) -> hostTotal(b.getValue()) - hostTotal(a.getValue()));
-
-        for (Map.Entry<String, ConcurrentHashMap<String, ConcurrentHashMap<String, AtomicInteger>>> entry : entries) {
-            String host = entry.getKey();
-            ConcurrentHashMap<String, ConcurrentHashMap<String, AtomicInteger>> typeMap = entry.getValue();
-
-            int total  = hostTotal(typeMap);
-            int high   = severityTotal(typeMap, "HIGH");
-            int medium = severityTotal(typeMap, "MEDIUM");
-            int low    = severityTotal(typeMap, "LOW") + severityTotal(typeMap, "INFO");
-            String topType = topType(typeMap);
-
-            tableModel.addRow(new Object[]{ host, total, high, medium, low, topType });
-        }
-    }
-
-    private int hostTotal(ConcurrentHashMap<String, ConcurrentHashMap<String, AtomicInteger>> typeMap) {
-        return typeMap.values().stream()
-            .flatMapToInt(m -> m.values().stream().mapToInt(AtomicInteger::get))
-            .sum();
-    }
-
-    private int severityTotal(ConcurrentHashMap<String, ConcurrentHashMap<String, AtomicInteger>> typeMap, String severity) {
-        return typeMap.values().stream()
-            .mapToInt(m -> m.getOrDefault(severity, new AtomicInteger(0)).get())
-            .sum();
+            refresh();
+        });
     }
 
-    private String topType(ConcurrentHashMap<String, ConcurrentHashMap<String, AtomicInteger>> typeMap) {
-        return typeMap.entrySet().stream()
-            .max(Comparator.comparingInt(e ->
-                e.getValue().values().stream().mapToInt(AtomicInteger::get).sum()))
-            .map(Map.Entry::getKey)
-            .orElse("-");
+    /** Applies findings deleted or pruned from the Results set. */
+    public void findingsRemoved(Collection<Finding> findings) {
+        if (findings.isEmpty()) return;
+        onEdt(() -> {
+            for (Finding finding : findings) {
+                tableModel.remove(UrlUtils.host(finding.getUrl()), finding.getType(), finding.getSeverity());
+            }
+            refresh();
+        });
     }
 
-    private String extractHost(String url) {
-        try {
-            URI uri = new URI(url);
-            String host = uri.getHost();
-            return (host != null) ? host : url;
-        } catch (Exception e) {
-            // Fall back to simple string split
-            if (url.contains("://")) {
-                String after = url.split("://", 2)[1];
-                return after.split("[/?#]")[0];
+    /** Rebuilds statistics from the current deduplicated Results set (initial load, clear). */
+    public void replaceFindings(Collection<Finding> findings) {
+        onEdt(() -> {
+            tableModel.clear();
+            for (Finding finding : findings) {
+                tableModel.add(UrlUtils.host(finding.getUrl()), finding.getType(), finding.getSeverity());
             }
-            return url;
-        }
+            refresh();
+        });
     }
 
-    private void scheduleRefresh() {
-        SwingUtilities.invokeLater(refreshTimer::restart);
+    private void refresh() {
+        tableModel.fireChanges();
+        totalLabel.setText("Total: " + tableModel.total() +
+            " findings  |  HIGH: " + tableModel.high() +
+            "  |  MEDIUM: " + tableModel.medium() +
+            "  |  LOW/INFO: " + tableModel.low());
     }
 
-    private void refreshNow() {
-        SwingUtilities.invokeLater(() -> {
-            if (refreshTimer.isRunning()) {
-                refreshTimer.stop();
-            }
-            refreshTable();
-        });
+    private static void onEdt(Runnable task) {
+        if (SwingUtilities.isEventDispatchThread()) task.run();
+        else SwingUtilities.invokeLater(task);
     }
 }
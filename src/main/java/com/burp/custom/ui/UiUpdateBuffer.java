@@ -0,0 +1,104 @@
+package com.burp.custom.ui;
+
+import com.burp.custom.scan.ScanEvents;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Coalesces worker-side updates into one bounded-rate EDT flush.
+ *
+ * Workers only append to a lock-free queue. A single Swing timer drains it at a
+ * fixed rate, handing the sink chunks until the per-flush time budget is spent;
+ * anything left waits for the next tick. EDT cost per frame is therefore bounded
+ * regardless of how fast findings arrive, and the queue length is exposed as backlog.
+ */
+final class UiUpdateBuffer<T> {
+
+    private static final int CHUNK_SIZE = 256;
+
+    private final ConcurrentLinkedQueue<T> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger backlog = new AtomicInteger();
+    private final Consumer<List<T>> sink;
+    private final Runnable afterFlush;
+    private final long budgetNanos;
+    private final Timer timer;
+
+    // Metrics — written on the EDT, read from anywhere
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong flushed = new AtomicLong();
+    private volatile int peakBacklog;
+    private volatile long flushCount;
+    private volatile long lastFlushNanos;
+    private volatile long maxFlushNanos;
+
+    /**
+     * @param sink       applies one chunk of updates on the EDT
+     * @param afterFlush runs once per tick that applied anything, for per-frame work such as labels
+     */
+    UiUpdateBuffer(int flushesPerSecond, long budgetMillis, Consumer<List<T>> sink, Runnable afterFlush) {
+        this.sink = sink;
+        this.afterFlush = afterFlush;
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        this.timer = new Timer(Math.max(1, 1_000 / flushesPerSecond), e -> flush(budgetNanos));
+        this.timer.setCoalesce(true);
+    }
+
+    void start() { timer.start(); }
+
+    void stop()  { timer.stop(); }
+
+    /** Safe from any thread. */
+    void publishAll(Collection<? extends T> items) {
+        if (items.isEmpty()) return;
+        pending.addAll(items);
+        published.addAndGet(items.size());
+        int size = backlog.addAndGet(items.size());
+        if (size > peakBacklog) peakBacklog = size;
+    }
+
+    /** Drains everything regardless of budget; EDT only (used on unload and before full rebuilds). */
+    void flushNow() {
+        flush(Long.MAX_VALUE);
+    }
+
+    private void flush(long budget) {
+        if (pending.isEmpty()) return;
+        long start = System.nanoTime();
+        ScanEvents.FindingsFlushed event = ScanEvents.flushStarted();
+        int rows = 0;
+        do {
+            List<T> chunk = new ArrayList<>(Math.min(CHUNK_SIZE, backlog.get()));
+            T item;
+            while (chunk.size() < CHUNK_SIZE && (item = pending.poll()) != null) chunk.add(item);
+            if (chunk.isEmpty()) break;
+            backlog.addAndGet(-chunk.size());
+            flushed.addAndGet(chunk.size());
+            rows += chunk.size();
+            sink.accept(chunk);
+        } while (System.nanoTime() - start < budget);
+
+        long elapsed = System.nanoTime() - start;
+        lastFlushNanos = elapsed;
+        if (elapsed > maxFlushNanos) maxFlushNanos = elapsed;
+        flushCount++;
+        afterFlush.run();
+        if (event != null) event.finish(rows, backlog());
+    }
+
+    int backlog()             { return Math.max(0, backlog.get()); }
+    int peakBacklog()         { return peakBacklog; }
+    long published()          { return published.get(); }
+    long flushed()            { return flushed.get(); }
+    long flushCount()         { return flushCount; }
+    long lastFlushNanos()     { return lastFlushNanos; }
+    double lastFlushMillis()  { return lastFlushNanos / 1_000_000.0; }
+    double maxFlushMillis()   { return maxFlushNanos / 1_000_000.0; }
+}
@@ -0,0 +1,158 @@
+package com.burp.custom.util;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Tracks how full the old-generation heap is after garbage collection and maps it to a
+ * load-shedding {@link Level}.
+ *
+ * Heap pools that support it get a collection usage threshold at the first step, so the
+ * JVM notifies as soon as a collection leaves the heap that full; a periodic poll then
+ * escalates further and steps back down. Post-collection usage is used rather than live
+ * usage, which is high just before every collection. Levels rise as soon as usage
+ * crosses a step and fall only once it is {@link #RECOVERY_MARGIN} below it, so a heap
+ * hovering at a boundary does not flap. Thresholds already set by Burp or another
+ * extension are left alone.
+ */
+public final class HeapPressureMonitor implements AutoCloseable {
+
+    /** Load-shedding steps; each level includes the ones before it. */
+    public enum Level {
+        NORMAL(0, null),
+        PAUSE_BULK(0.75, "bulk scans paused"),
+        DROP_EVIDENCE(0.82, "bulk scans paused, evidence reduced to match windows"),
+        SHRINK_CACHES(0.88, "bulk scans paused, evidence reduced, caches shrunk"),
+        PAUSE_LIVE(0.94, "all scanning paused");
+
+        final double threshold;
+        final String description;
+
+        Level(double threshold, String description) {
+            this.threshold = threshold;
+            this.description = description;
+        }
+
+        public String description() { return description; }
+
+        public boolean atLeast(Level other) { return ordinal() >= other.ordinal(); }
+    }
+
+    static final double RECOVERY_MARGIN = 0.05;
+    private static final long POLL_MILLIS = 2_000;
+
+    private final Consumer<Level> listener;
+    private final List<MemoryPoolMXBean> pools = new ArrayList<>();
+    // Thresholds this monitor set, to restore on close
+    private final Map<MemoryPoolMXBean, Long> installedThresholds = new LinkedHashMap<>();
+    private final NotificationListener notifications = this::onNotification;
+    private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> poll;
+    private volatile Level level = Level.NORMAL;
+    private volatile double usedFraction;
+
+    /** @param listener called with each new level, on the scheduler thread */
+    public HeapPressureMonitor(Consumer<Level> listener) {
+        this.listener = listener;
+    }
+
+    public synchronized void start(ScheduledExecutorService scheduler) {
+        if (this.scheduler != null) return;
+        this.scheduler = scheduler;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP || !pool.isCollectionUsageThresholdSupported()) continue;
+            pools.add(pool);
+            long max = pool.getUsage().getMax();
+            if (max <= 0 || pool.getCollectionUsageThreshold() > 0) continue;
+            long threshold = (long) (max * Level.PAUSE_BULK.threshold);
+            try {
+                pool.setCollectionUsageThreshold(threshold);
+                installedThresholds.put(pool, threshold);
+            } catch (RuntimeException ignored) {
+                // Pools that reject thresholds are still polled
+            }
+        }
+        if (ManagementFactory.getMemoryMXBean() instanceof NotificationEmitter emitter) {
+            emitter.addNotificationListener(notifications, null, null);
+        }
+        poll = scheduler.scheduleWithFixedDelay(this::evaluate, POLL_MILLIS, POLL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public Level level() { return level; }
+
+    /** Fullest heap pool after its last collection, from 0 to 1. */
+    public double usedFraction() { return usedFraction; }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler == null) return;
+        if (poll != null) poll.cancel(false);
+        if (ManagementFactory.getMemoryMXBean() instanceof NotificationEmitter emitter) {
+            try {
+                emitter.removeNotificationListener(notifications);
+            } catch (Exception ignored) {
+                // Not registered
+            }
+        }
+        for (Map.Entry<MemoryPoolMXBean, Long> entry : installedThresholds.entrySet()) {
+            // Reset only if nobody changed it since
+            if (entry.getKey().getCollectionUsageThreshold() == entry.getValue()) entry.getKey().setCollectionUsageThreshold(0);
+        }
+        installedThresholds.clear();
+        pools.clear();
+        scheduler = null;
+    }
+
+    private void onNotification(Notification notification, Object handback) {
+        if (!MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(notification.getType())) return;
+        ScheduledExecutorService current = scheduler;
+        if (current == null) return;
+        // The JVM's notification thread must not run shedding work
+        try {
+            current.execute(this::evaluate);
+        } catch (RejectedExecutionException ignored) {
+            // Shutting down
+        }
+    }
+
+    private void evaluate() {
+        double used = 0;
+        synchronized (this) {
+            for (MemoryPoolMXBean pool : pools) {
+                MemoryUsage usage = pool.getCollectionUsage();
+                if (usage != null && usage.getMax() > 0) used = Math.max(used, (double) usage.getUsed() / usage.getMax());
+            }
+        }
+        usedFraction = used;
+        Level next = levelFor(level, used);
+        if (next == level) return;
+        level = next;
+        listener.accept(next);
+    }
+
+    /** The level for {@code used}, rising at each step's threshold and falling below it by the recovery margin. */
+    static Level levelFor(Level current, double used) {
+        Level next = Level.NORMAL;
+        for (Level candidate : Level.values()) {
+            double threshold = candidate.ordinal() > current.ordinal()
+                ? candidate.threshold : candidate.threshold - RECOVERY_MARGIN;
+            if (candidate != Level.NORMAL && used >= threshold) next = candidate;
+        }
+        return next;
+    }
+}
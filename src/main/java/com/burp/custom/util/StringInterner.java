@@ -0,0 +1,29 @@
+package com.burp.custom.util;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+/**
+ * Weak string interner: equal strings passed through the same pool come back as
+ * one shared instance, and entries disappear once nothing else references them.
+ * Unlike {@link String#intern()} it keeps nothing alive and can be scoped per use.
+ */
+public final class StringInterner {
+
+    private final WeakHashMap<String, WeakReference<String>> pool = new WeakHashMap<>();
+
+    public String intern(String value) {
+        if (value == null) return null;
+        synchronized (pool) {
+            WeakReference<String> existing = pool.get(value);
+            String shared = existing != null ? existing.get() : null;
+            if (shared != null) return shared;
+            pool.put(value, new WeakReference<>(value));
+            return value;
+        }
+    }
+
+    public int size() {
+        synchronized (pool) { return pool.size(); }
+    }
+}
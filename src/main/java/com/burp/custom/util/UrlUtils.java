@@ -0,0 +1,47 @@
+package com.burp.custom.util;
+
+/**
+ * Allocation-light URL helpers for hot paths. These avoid java.net.URI, which
+ * validates and allocates far more than a host lookup needs.
+ */
+public final class UrlUtils {
+
+    private UrlUtils() { }
+
+    /**
+     * Returns the lower-cased host of an absolute URL, or the input itself when
+     * no host can be located (mirrors the previous URI-based fallback).
+     */
+    public static String host(String url) {
+        if (url == null) return "";
+        int schemeEnd = url.indexOf("://");
+        if (schemeEnd < 0) return url;
+        int start = schemeEnd + 3;
+        int end = start;
+        int length = url.length();
+        while (end < length) {
+            char c = url.charAt(end);
+            if (c == '/' || c == '?' || c == '#') break;
+            end++;
+        }
+        int at = url.lastIndexOf('@', end - 1);
+        if (at >= start) start = at + 1;
+        int portSeparator = end;
+        if (start < end && url.charAt(start) == '[') {
+            int close = url.indexOf(']', start);
+            if (close > 0 && close < end) portSeparator = close + 1;
+        } else {
+            int colon = url.indexOf(':', start);
+            if (colon >= 0 && colon < end) portSeparator = colon;
+        }
+        if (portSeparator <= start) return url;
+        return url.substring(start, portSeparator).toLowerCase();
+    }
+
+    /** Strips the query string, keeping scheme, host and path. */
+    public static String withoutQuery(String url) {
+        if (url == null) return "";
+        int query = url.indexOf('?');
+        return query < 0 ? url : url.substring(0, query);
+    }
+}
@@ -0,0 +1,52 @@
+package com.burp.custom.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EvidenceBlobStoreTest {
+    @Test
+    void deduplicatesByContentAndCompresses() {
+        MemoryData data = new MemoryData();
+        EvidenceBlobStore blobs = new EvidenceBlobStore(data.data);
+        String body = "HTTP/1.1 200 OK\r\n\r\n" + "window.__CONFIG__ = {\"api\": \"/v1\"};\n".repeat(5_000) + "ünïcode";
+
+        String id = blobs.put(body);
+
+        assertEquals(id, blobs.put(new String(body)));
+        assertEquals(1, data.count(EvidenceBlobStore.PREFIX));
+        assertTrue(data.strings.get(EvidenceBlobStore.PREFIX + id).length() < body.length() / 20);
+        assertEquals(body, new EvidenceBlobStore(data.data).get(id));
+    }
+
+    @Test
+    void retainOnlyDeletesUnreferencedBlobs() {
+        MemoryData data = new MemoryData();
+        EvidenceBlobStore blobs = new EvidenceBlobStore(data.data);
+        String kept = blobs.put("kept");
+        String dropped = blobs.put("dropped");
+
+        assertEquals(1, blobs.retainOnly(Set.of(kept)));
+        assertTrue(blobs.contains(kept));
+        assertFalse(blobs.contains(dropped));
+        assertNull(blobs.get(dropped));
+        assertNull(blobs.put(null));
+    }
+
+    @Test
+    void unreadableBlobsReadAsMissing() {
+        MemoryData data = new MemoryData();
+        data.setString(EvidenceBlobStore.PREFIX + "bad", "not base64!");
+        data.setString(EvidenceBlobStore.PREFIX + "format", "AAAA");
+
+        EvidenceBlobStore blobs = new EvidenceBlobStore(data.data);
+        assertNull(blobs.get("bad"));
+        assertNull(blobs.get("format"));
+        assertEquals(2, blobs.size());
+    }
+}
@@ -0,0 +1,145 @@
+package com.burp.custom.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FindingsJournalTest {
+    private static Finding finding(String url, String value) {
+        return new Finding("SECRET", value, "Rule", url, "e1", 0, value.length(), "HIGH", "ctx " + value);
+    }
+
+    private static EvidenceRecord evidence() {
+        return new EvidenceRecord("e1", "https://a.example/app.js", "hash", "GET / HTTP/1.1", "HTTP/1.1 200 OK");
+    }
+
+    private static List<String> values(FindingsJournal.Recovered recovered) {
+        return recovered.findings().stream().map(Finding::getFinding).toList();
+    }
+
+    @Test
+    void replaysSegmentsInOrderWithDeletesBeforeAdds() throws Exception {
+        MemoryData data = new MemoryData();
+        FindingsJournal journal = new FindingsJournal(data.data);
+        journal.recordAdded(List.of(finding("https://a/1.js", "one"), finding("https://a/2.js", "two")), List.of(evidence()));
+        journal.flush(true);
+        journal.recordRemoved(List.of(finding("https://a/1.js", "one")));
+        journal.recordAdded(List.of(finding("https://a/1.js", "one")), List.of());
+        journal.recordAdded(List.of(finding("https://a/3.js", "three")), List.of());
+        journal.recordRemoved(List.of(finding("https://a/3.js", "three")));
+        journal.flush(true);
+
+        FindingsJournal.Recovered recovered = new FindingsJournal(data.data).load();
+
+        assertEquals(List.of("two", "one"), values(recovered));
+        assertNotNull(recovered.evidence().get("e1"));
+        assertEquals(0, recovered.skippedSegments());
+    }
+
+    @Test
+    void compactionFoldsSealedSegmentsIntoTheSnapshot() throws Exception {
+        MemoryData data = new MemoryData();
+        FindingsJournal journal = new FindingsJournal(data.data);
+        journal.recordAdded(List.of(finding("https://a/1.js", "one")), List.of(evidence()));
+        long sealed = journal.seal(false);
+        // Recorded after sealing, so it must survive compaction as a later segment
+        journal.recordAdded(List.of(finding("https://a/2.js", "two")), List.of());
+        journal.flush(false);
+
+        journal.compact(sealed, List.of(finding("https://a/1.js", "one")), List.of(evidence()), false);
+
+        assertEquals(1, data.strings.keySet().stream().filter(key -> key.startsWith(FindingsJournal.SEGMENT_PREFIX)).count());
+        assertEquals(List.of("one", "two"), values(new FindingsJournal(data.data).load()));
+    }
+
+    @Test
+    void recoversFromACrashBetweenSnapshotAndSegmentCleanup() throws Exception {
+        MemoryData data = new MemoryData();
+        FindingsJournal journal = new FindingsJournal(data.data);
+        journal.recordAdded(List.of(finding("https://a/1.js", "one")), List.of());
+        long sealed = journal.seal(true);
+        String staleSegment = data.strings.get(FindingsJournal.SEGMENT_PREFIX + sealed);
+        journal.compact(sealed, List.of(), List.of(), true);
+        // Simulate the covered segment surviving the crash: it deleted "one" before the snapshot
+        data.setString(FindingsJournal.SEGMENT_PREFIX + sealed, staleSegment);
+        data.setString(FindingsJournal.SEGMENT_PREFIX + (sealed + 1), "{not json");
+
+        FindingsJournal reloaded = new FindingsJournal(data.data);
+        FindingsJournal.Recovered recovered = reloaded.load();
+
+        assertTrue(recovered.findings().isEmpty());
+        assertEquals(1, recovered.skippedSegments());
+        assertFalse(data.strings.containsKey(FindingsJournal.SEGMENT_PREFIX + sealed));
+    }
+
+    @Test
+    void migratesTheV2ListAndRequestsCompaction() throws Exception {
+        MemoryData data = new MemoryData();
+        data.setString(FindingsJournal.LEGACY_KEY,
+            "[{\"type\":\"SECRET\",\"finding\":\"legacy\",\"url\":\"https://a/x.js\",\"severity\":\"HIGH\"}]");
+        FindingsJournal journal = new FindingsJournal(data.data);
+
+        assertEquals(List.of("legacy"), values(journal.load()));
+        assertTrue(journal.needsCompaction());
+
+        journal.compact(journal.seal(true), List.of(finding("https://a/x.js", "legacy")), List.of(), true);
+        assertFalse(data.strings.containsKey(FindingsJournal.LEGACY_KEY));
+        assertFalse(journal.needsCompaction());
+    }
+
+    @Test
+    void migratesTheV3JsonSnapshotToBinary() throws Exception {
+        MemoryData data = new MemoryData();
+        data.setString(FindingsJournal.JSON_SNAPSHOT_KEY, "{\"findings\":[{\"type\":\"SECRET\",\"finding\":\"v3\"," +
+            "\"url\":\"https://a/x.js\",\"evidenceId\":\"e1\"}],\"evidence\":[{\"id\":\"e1\",\"url\":\"https://a/x.js\"}]}");
+        FindingsJournal journal = new FindingsJournal(data.data);
+        FindingsJournal.Recovered recovered = journal.load();
+        assertEquals(List.of("v3"), values(recovered));
+        assertTrue(journal.needsCompaction());
+
+        journal.compact(journal.seal(true), recovered.findings(), List.copyOf(recovered.evidence().values()), true);
+
+        assertFalse(data.strings.containsKey(FindingsJournal.JSON_SNAPSHOT_KEY));
+        FindingsJournal.Recovered migrated = new FindingsJournal(data.data).load();
+        assertEquals(List.of("v3"), values(migrated));
+        assertNotNull(migrated.evidence().get("e1"));
+    }
+
+    @Test
+    void deleteAllDiscardsSnapshotsSealedBeforeIt() throws Exception {
+        MemoryData data = new MemoryData();
+        FindingsJournal journal = new FindingsJournal(data.data);
+        journal.recordAdded(List.of(finding("https://a/1.js", "one")), List.of());
+        long sealed = journal.seal(true);
+        journal.deleteAll();
+        journal.compact(sealed, List.of(finding("https://a/1.js", "one")), List.of(), true);
+
+        assertTrue(new FindingsJournal(data.data).load().findings().isEmpty());
+    }
+
+    @Test
+    void storesSharedEvidenceBodiesOnceAndSweepsUnreferencedOnes() throws Exception {
+        MemoryData data = new MemoryData();
+        FindingsJournal journal = new FindingsJournal(data.data);
+        String bundle = "HTTP/1.1 200 OK\r\n\r\n" + "var config = {};".repeat(20_000);
+        EvidenceRecord first = new EvidenceRecord("e1", "https://a/app.js", "h", "GET /app.js HTTP/1.1", bundle);
+        EvidenceRecord second = new EvidenceRecord("e2", "https://b/app.js", "h", "GET /app.js HTTP/1.1", bundle);
+        journal.recordAdded(List.of(finding("https://a/app.js", "one")), List.of(first, second));
+        journal.flush(true);
+
+        // One request and one response blob, however many records share them; the large body is kept
+        assertEquals(2, data.count(EvidenceBlobStore.PREFIX));
+        FindingsJournal.Recovered recovered = new FindingsJournal(data.data).load();
+        EvidenceBlobStore blobs = new EvidenceBlobStore(data.data);
+        assertEquals(recovered.evidence().get("e1").getResponseBlob(), recovered.evidence().get("e2").getResponseBlob());
+        assertEquals(bundle, blobs.get(recovered.evidence().get("e2").getResponseBlob()));
+
+        journal.compact(journal.seal(true), List.of(), List.of(), true);
+        assertEquals(0, data.count(EvidenceBlobStore.PREFIX));
+    }
+}
@@ -0,0 +1,94 @@
+package com.burp.custom.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FindingsPageFileTest {
+    @TempDir
+    Path dir;
+
+    private static Finding finding(int i) {
+        return new Finding("SECRET", "value-" + i, "Rule", "https://a.example/" + i + ".js", "e" + i,
+            i, i + 8, "HIGH", "context " + "x".repeat(i % 300));
+    }
+
+    @Test
+    void roundTripsFindingsAcrossPagesAndReopening() throws Exception {
+        Path path = dir.resolve("findings.pages");
+        int count = 8_000; // several 1 MiB pages
+        try (FindingsPageFile file = new FindingsPageFile(path)) {
+            for (int i = 0; i < count; i++) assertEquals(i, file.append(finding(i)));
+        }
+
+        try (FindingsPageFile file = new FindingsPageFile(path)) {
+            assertEquals(count, file.size());
+            Finding restored = file.read(4_321);
+            Finding original = finding(4_321);
+            assertEquals(original, restored);
+            assertEquals(original.getUrl(), restored.getUrl());
+            assertEquals(original.getContext(), restored.getContext());
+            assertEquals(original.getStart(), restored.getStart());
+            assertTrue(file.contains(finding(7_999)));
+            assertFalse(file.contains(new Finding("SECRET", "value-1", "Rule", "https://b.example/1.js", "e", 0, 1)));
+
+            assertEquals(count, file.append(finding(count)));
+            int seen = 0;
+            for (Finding ignored : file) seen++;
+            assertEquals(count + 1, seen);
+        }
+    }
+
+    @Test
+    void clearForgetsRecordsEvenAfterReopening() throws Exception {
+        Path path = dir.resolve("findings.pages");
+        try (FindingsPageFile file = new FindingsPageFile(path)) {
+            for (int i = 0; i < 5_000; i++) file.append(finding(i));
+            file.clear();
+            file.append(finding(1));
+        }
+
+        try (FindingsPageFile file = new FindingsPageFile(path)) {
+            assertEquals(1, file.size());
+            assertTrue(file.contains(finding(1)));
+            assertFalse(file.contains(finding(2)));
+        }
+    }
+
+    @Test
+    void removeIfCompactsSurvivorsInOrderAcrossPagesAndReopening() throws Exception {
+        Path path = dir.resolve("findings.pages");
+        int count = 8_000;
+        try (FindingsPageFile file = new FindingsPageFile(path)) {
+            for (int i = 0; i < count; i++) file.append(finding(i));
+
+            assertEquals(count * 2 / 3, file.removeIf(f -> f.getStart() % 3 != 0));
+
+            assertEquals(count - count * 2 / 3, file.size());
+            assertEquals(finding(3), file.read(1));
+            assertFalse(file.contains(finding(4)));
+            assertTrue(file.contains(finding(7_998)));
+            file.append(finding(1));
+        }
+
+        try (FindingsPageFile file = new FindingsPageFile(path)) {
+            int expected = 0, seen = 0;
+            for (Finding restored : file) {
+                if (expected < count) {
+                    assertEquals(finding(expected), restored);
+                    assertEquals(finding(expected).getContext(), restored.getContext());
+                    expected += 3;
+                } else {
+                    assertEquals(finding(1), restored);
+                }
+                seen++;
+            }
+            assertEquals(count - count * 2 / 3 + 1, seen);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.burp.custom.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FindingsStoreTest {
+    private static Finding finding(String url, String value, String evidenceId) {
+        return new Finding("SECRET", value, "Rule", url, evidenceId, 0, value.length(), "HIGH", "");
+    }
+
+    private static Finding ranked(String url, String value, String severity) {
+        return new Finding("SECRET", value, "Rule", url, null, 0, value.length(), severity, "");
+    }
+
+    private static EvidenceRecord evidence(String id) {
+        return new EvidenceRecord(id, "https://target.example/", "hash", null, null);
+    }
+
+    @Test
+    void rejectsUrlScopedDuplicatesButCountsReuseAcrossUrls() {
+        FindingsStore store = new FindingsStore();
+
+        List<Finding> added = store.addAll(List.of(
+            finding("https://a.example/app.js", "AKIA1", "e1"),
+            finding("https://a.example/app.js", "AKIA1", "e1"),
+            finding("https://b.example/app.js", "AKIA1", "e2")), FindingsStoreTest::evidence);
+
+        assertEquals(2, added.size());
+        assertEquals(2, store.reuseCount("AKIA1"));
+    }
+
+    @Test
+    void enforcesPerHostLimitWithoutScanningExistingFindings() {
+        FindingsStore store = new FindingsStore();
+        store.setLimits(10, 2);
+
+        store.addAll(List.of(
+            finding("https://a.example/1.js", "s1", "e1"),
+            finding("https://a.example/2.js", "s2", "e1"),
+            finding("https://a.example/3.js", "s3", "e1"),
+            finding("https://b.example/1.js", "s4", "e2")), FindingsStoreTest::evidence);
+
+        assertEquals(2, store.hostCount("a.example"));
+        assertEquals(1, store.hostCount("b.example"));
+        assertEquals(3, store.size());
+    }
+
+    @Test
+    void fullHostMakesRoomForAHigherSeverityFindingFromThatHost() {
+        FindingsStore store = new FindingsStore();
+        store.setLimits(10, 2);
+        Finding info = ranked("https://a.example/1.js", "endpoint-1", "INFO");
+        Finding low = ranked("https://a.example/2.js", "endpoint-2", "LOW");
+        Finding other = ranked("https://b.example/1.js", "endpoint-3", "INFO");
+        store.addAll(List.of(info, low, other), FindingsStoreTest::evidence);
+
+        Finding high = ranked("https://a.example/3.js", "AKIA-secret", "HIGH");
+        assertEquals(List.of(high), store.addAll(List.of(high), FindingsStoreTest::evidence));
+
+        assertEquals(List.of(info), store.drainEvicted());
+        assertTrue(store.contains(low));
+        assertTrue(store.contains(other));
+        assertEquals(2, store.hostCount("a.example"));
+        assertTrue(store.addAll(List.of(ranked("https://a.example/4.js", "endpoint-4", "INFO")),
+            FindingsStoreTest::evidence).isEmpty());
+        assertTrue(store.contains(high));
+    }
+
+    @Test
+    void loweringThePerHostLimitPrunesEachHostsLowestSeverityFirst() {
+        FindingsStore store = new FindingsStore();
+        Finding high = ranked("https://a.example/1.js", "h1", "HIGH");
+        Finding info = ranked("https://a.example/2.js", "i1", "INFO");
+        Finding medium = ranked("https://a.example/3.js", "m1", "MEDIUM");
+        Finding other = ranked("https://b.example/1.js", "i2", "INFO");
+        store.addAll(List.of(high, info, medium, other), FindingsStoreTest::evidence);
+
+        List<Finding> pruned = store.setLimits(10, 1);
+
+        assertEquals(List.of(info, medium), pruned);
+        assertTrue(store.contains(high));
+        assertTrue(store.contains(other));
+        assertTrue(store.drainEvicted().isEmpty());
+    }
+
+    @Test
+    void deleteUpdatesReuseCountersAndReleasesEvidence() {
+        FindingsStore store = new FindingsStore();
+        Finding first = finding("https://a.example/app.js", "token", "e1");
+        Finding second = finding("https://b.example/app.js", "token", "e2");
+        store.addAll(List.of(first, second), FindingsStoreTest::evidence);
+
+        assertTrue(store.remove(first));
+
+        assertEquals(1, store.reuseCount("token"));
+        assertNull(store.evidence("e1"));
+        assertNotNull(store.evidence("e2"));
+        assertEquals(0, store.hostCount("a.example"));
+        assertEquals(1, store.ruleCount("Rule"));
+    }
+
+    @Test
+    void loweringLimitsEvictsTheOldestOfEqualPriority() {
+        FindingsStore store = new FindingsStore();
+        Finding oldest = finding("https://a.example/1.js", "s1", "e1");
+        Finding newest = finding("https://a.example/2.js", "s2", "e1");
+        store.addAll(List.of(oldest, newest), FindingsStoreTest::evidence);
+
+        List<Finding> pruned = store.setLimits(1, 100);
+
+        assertEquals(List.of(oldest), pruned);
+        assertTrue(store.contains(newest));
+    }
+
+    @Test
+    void evictsLowSeverityBeforeHighAndRejectsWhatRanksBelowEverything() {
+        FindingsStore store = new FindingsStore();
+        store.setLimits(2, 100);
+        Finding info = ranked("https://a.example/1.js", "i1", "INFO");
+        Finding high = ranked("https://a.example/2.js", "h1", "HIGH");
+        store.addAll(List.of(info, high), FindingsStoreTest::evidence);
+
+        Finding medium = ranked("https://a.example/3.js", "m1", "MEDIUM");
+        assertEquals(List.of(medium), store.addAll(List.of(medium), FindingsStoreTest::evidence));
+        assertEquals(List.of(info), store.drainEvicted());
+
+        assertTrue(store.addAll(List.of(ranked("https://a.example/4.js", "l1", "LOW")), FindingsStoreTest::evidence).isEmpty());
+        assertTrue(store.contains(high));
+        assertTrue(store.contains(medium));
+    }
+
+    @Test
+    void evictsReusedSecretsBeforeUniqueOnes() {
+        FindingsStore store = new FindingsStore();
+        store.setLimits(3, 100);
+        Finding unique = ranked("https://a.example/1.js", "only-here", "LOW");
+        Finding reused = ranked("https://a.example/2.js", "shared", "LOW");
+        Finding reusedElsewhere = ranked("https://b.example/2.js", "shared", "LOW");
+        store.addAll(List.of(unique, reused, reusedElsewhere), FindingsStoreTest::evidence);
+
+        List<Finding> pruned = store.setLimits(1, 100);
+
+        // Once one copy of the shared secret is gone, the other is as unique as the oldest row
+        assertEquals(List.of(reused, unique), pruned);
+        assertTrue(store.contains(reusedElsewhere));
+    }
+
+    @Test
+    void memoryBudgetAccountsFindingsAndEvidence() {
+        FindingsStore store = new FindingsStore();
+        Finding first = finding("https://a.example/1.js", "s1", "e1");
+        Finding second = finding("https://a.example/2.js", "s2", "e2");
+        store.addAll(List.of(first, second), FindingsStoreTest::evidence);
+        long perFinding = store.memoryBytes() / 2;
+        assertTrue(perFinding > first.estimatedBytes() + FindingsStore.INDEX_BYTES);
+
+        assertEquals(List.of(first), store.setMemoryBudget(perFinding + 1));
+        assertEquals(perFinding, store.memoryBytes());
+
+        assertTrue(store.remove(second));
+        assertEquals(0, store.memoryBytes());
+    }
+
+    @Test
+    void overflowFileTakesTheOldestFindingsInsteadOfRejectingNewOnes(@TempDir Path dir) throws Exception {
+        FindingsStore store = new FindingsStore();
+        store.setLimits(2, 100);
+        try (FindingsPageFile file = new FindingsPageFile(dir.resolve("findings.pages"))) {
+            store.setOverflow(file);
+            Finding oldest = finding("https://a.example/1.js", "s1", "e1");
+            store.addAll(List.of(oldest, finding("https://a.example/2.js", "s2", "e1")), FindingsStoreTest::evidence);
+
+            List<Finding> added = store.addAll(List.of(
+                finding("https://a.example/3.js", "s3", "e2"),
+                finding("https://a.example/1.js", "s1", "e1")), FindingsStoreTest::evidence);
+
+            assertEquals(1, added.size());
+            assertEquals(List.of(oldest), store.drainEvicted());
+            assertEquals(2, store.size());
+            assertEquals(1, store.overflowSize());
+            assertEquals("s1", store.overflowFindings().iterator().next().getFinding());
+            assertNotNull(store.evidence("e1"));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.burp.custom.model;
+
+import burp.api.montoya.persistence.PersistedObject;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/** Extension data backed by a map; a proxy, since persistence code only uses the string methods. */
+final class MemoryData {
+    final Map<String, String> strings = new HashMap<>();
+    final PersistedObject data = (PersistedObject) Proxy.newProxyInstance(PersistedObject.class.getClassLoader(),
+        new Class<?>[]{PersistedObject.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getString":    return strings.get((String) args[0]);
+                case "setString":    strings.put((String) args[0], (String) args[1]); return null;
+                case "deleteString": strings.remove((String) args[0]); return null;
+                case "stringKeys":   return Set.copyOf(strings.keySet());
+                default:             throw new UnsupportedOperationException(method.getName());
+            }
+        });
+
+    void setString(String key, String value) { strings.put(key, value); }
+
+    long count(String prefix) {
+        return strings.keySet().stream().filter(key -> key.startsWith(prefix)).count();
+    }
+}
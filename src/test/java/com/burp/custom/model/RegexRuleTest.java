@@ -2,6 +2,7 @@ package com.burp.custom.model;
 
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -43,4 +44,25 @@ class RegexRuleTest {
 
         assertEquals(EntropyPolicy.NONE, rule.getEntropyPolicy());
     }
+
+    @Test
+    void versionFollowsWhatTheRuleReportsButNotWhetherItIsActive() {
+        RegexRule rule = new RegexRule(true, "Token", "tok_[a-z]{8}", "SECRET", "HIGH");
+        String version = rule.getVersion();
+
+        rule.setActive(false);
+        assertEquals(version, rule.getVersion());
+        rule.setRegex("tok_[a-z]{10}");
+        assertNotEquals(version, rule.getVersion());
+    }
+
+    @Test
+    void rulesWithoutAnIdTakeAStableOneFromTheirName() {
+        RegexRule rule = new RegexRule(true, "Token", "tok_[a-z]{8}", "SECRET");
+
+        assertEquals("name:Token", rule.getId());
+        rule.setName("Renamed");
+        assertEquals("name:Token", rule.getId());
+        assertNotEquals(RegexRule.newId(), RegexRule.newId());
+    }
 }
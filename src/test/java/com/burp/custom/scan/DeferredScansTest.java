@@ -0,0 +1,55 @@
+package com.burp.custom.scan;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeferredScansTest {
+
+    @Test
+    void refusesItemsBeyondTheByteBudget() {
+        DeferredScans<String> deferred = new DeferredScans<>(100, () -> false, item -> { });
+
+        assertTrue(deferred.offer("a", 60));
+        assertFalse(deferred.offer("b", 60));
+        assertTrue(deferred.offer("c", 40));
+        assertEquals(2, deferred.size());
+        assertEquals(100, deferred.bytes());
+
+        assertEquals(2, deferred.close());
+        assertFalse(deferred.offer("d", 1));
+    }
+
+    @Test
+    void runsItemsInOrderOnlyWhileIdle() throws Exception {
+        AtomicBoolean idle = new AtomicBoolean(false);
+        List<String> scanned = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(2);
+        DeferredScans<String> deferred = new DeferredScans<>(1_000, idle::get, item -> {
+            scanned.add(item);
+            done.countDown();
+        });
+        deferred.start("test-deferred");
+        try {
+            deferred.offer("first", 10);
+            deferred.offer("second", 10);
+            Thread.sleep(300);
+            assertTrue(scanned.isEmpty());
+
+            idle.set(true);
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of("first", "second"), scanned);
+            assertEquals(0, deferred.bytes());
+        } finally {
+            deferred.close();
+        }
+    }
+}
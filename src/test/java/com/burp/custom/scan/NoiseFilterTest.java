@@ -0,0 +1,77 @@
+package com.burp.custom.scan;
+
+import com.google.re2j.Pattern;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NoiseFilterTest {
+
+    private static NoiseFilter filter(List<String> patterns, List<String> domains, List<String> prefixes) {
+        return NoiseFilter.compile(patterns.stream().map(Pattern::compile).toList(), domains, prefixes);
+    }
+
+    @Test
+    void combinedPatternsKeepTheirOwnAnchors() {
+        NoiseFilter filter = filter(List.of("^webpack", "\\.xml$", "^[a-z]{2}(-[a-z]{2})?\\.js$"), List.of(), List.of());
+
+        assertTrue(filter.isNoise("SECRET", "webpackChunkApp"));
+        assertTrue(filter.isNoise("FILE", "sitemap.xml"));
+        assertTrue(filter.isNoise("FILE", "en-us.js"));
+        assertFalse(filter.isNoise("SECRET", "my-webpack-token"));
+        assertFalse(filter.isNoise("FILE", "sitemap.xml.bak"));
+        assertTrue(filter.isNoise("SECRET", "abcd"));
+    }
+
+    @Test
+    void domainsMatchTheHostAndItsSubdomainsOnly() {
+        NoiseFilter filter = filter(List.of(), List.of("gstatic.com", "LocalHost", "127.0.0.1"), List.of());
+
+        assertTrue(filter.isNoise("URL", "https://gstatic.com/x.js"));
+        assertTrue(filter.isNoise("URL", "https://fonts.GSTATIC.com/s/roboto"));
+        assertTrue(filter.isNoise("URL", "//www.gstatic.com/recaptcha"));
+        assertTrue(filter.isNoise("URL", "http://user@localhost:8080/admin"));
+        assertTrue(filter.isNoise("ENDPOINT", "http://127.0.0.1/api"));
+        assertTrue(filter.isNoise("ENDPOINT", "fonts.gstatic.com/css"));
+
+        assertFalse(filter.isNoise("URL", "https://notgstatic.com/x.js"));
+        assertFalse(filter.isNoise("URL", "https://gstatic.com.evil.io/x.js"));
+        assertFalse(filter.isNoise("URL", "https://app.example/redirect?to=gstatic.com"));
+        assertFalse(filter.isNoise("ENDPOINT", "/proxy/gstatic.com/x"));
+        assertFalse(filter.isNoise("SECRET", "https://gstatic.com/x.js"));
+    }
+
+    @Test
+    void domainEntryWithAPathAlsoRequiresThePathPrefix() {
+        NoiseFilter filter = filter(List.of(), List.of("googleapis.com/ajax", "https://*.jsdelivr.net/"), List.of());
+
+        assertTrue(filter.isNoise("URL", "https://ajax.googleapis.com/ajax/libs/jquery.js"));
+        assertFalse(filter.isNoise("URL", "https://maps.googleapis.com/maps/api/js"));
+        assertTrue(filter.isNoise("URL", "https://cdn.jsdelivr.net/npm/x"));
+    }
+
+    @Test
+    void modulePrefixesApplyToEndpointsAndFiles() {
+        NoiseFilter filter = filter(List.of(), List.of(), List.of("./node_modules", "../lib"));
+
+        assertTrue(filter.isNoise("FILE", "./node_modules/react/index.js"));
+        assertTrue(filter.isNoise("ENDPOINT", "../lib/util"));
+        assertFalse(filter.isNoise("FILE", "./src/index.js"));
+        assertFalse(filter.isNoise("URL", "../lib/util"));
+    }
+
+    @Test
+    void equalityFollowsTheNormalizedLists() {
+        NoiseFilter first = filter(List.of("^chunk\\."), List.of("Example.com."), List.of("./src"));
+        NoiseFilter second = filter(List.of("^chunk\\."), List.of(" example.com"), List.of("./src", ""));
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertNotEquals(first, filter(List.of(), List.of("example.com"), List.of("./src")));
+    }
+}
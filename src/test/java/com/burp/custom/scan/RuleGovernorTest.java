@@ -0,0 +1,123 @@
+package com.burp.custom.scan;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuleGovernorTest {
+
+    private record Rule(String name, String severity) { }
+
+    private static RuleProfiler.Stats stats(String rule, long matches, long afterNoise) {
+        return new RuleProfiler.Stats(rule, 500, 1_000_000, 500_000, matches, afterNoise, 0, false);
+    }
+
+    @Test
+    void ordersBySeverityThenBySurvivingShare() {
+        RuleGovernor governor = new RuleGovernor(100);
+        List<Rule> rules = List.of(new Rule("endpoints", "INFO"), new Rule("noisy-key", "HIGH"),
+            new Rule("aws", "HIGH"), new Rule("paths", "LOW"), new Rule("new-key", "HIGH"));
+        Map<String, RuleProfiler.Stats> stats = Map.of(
+            "noisy-key", stats("noisy-key", 1_000, 50),
+            "aws", stats("aws", 1_000, 900),
+            "endpoints", stats("endpoints", 50_000, 40_000));
+
+        List<Rule> ordered = governor.prioritize(rules, Rule::name, Rule::severity, stats);
+
+        assertEquals(List.of("new-key", "aws", "noisy-key", "paths", "endpoints"),
+            ordered.stream().map(Rule::name).toList());
+    }
+
+    @Test
+    void lowersCapsForRulesWhoseMatchesAreMostlyNoise() {
+        RuleGovernor governor = new RuleGovernor(100);
+        RuleGovernor.Control noisy = governor.control("noisy", "noisy");
+        RuleGovernor.Control clean = governor.control("clean", "clean");
+        RuleGovernor.Control fresh = governor.control("fresh", "fresh");
+
+        governor.refresh(Map.of(
+            "noisy", stats("noisy", 10_000, 100),
+            "clean", stats("clean", 10_000, 6_000),
+            "fresh", stats("fresh", 20, 0)));
+
+        assertEquals(RuleGovernor.MIN_MATCH_CAP, noisy.matchCap());
+        assertEquals(100, clean.matchCap());
+        assertEquals(100, fresh.matchCap());
+        assertEquals(40, governor.matchCap(stats("mixed", 1_000, 200)));
+
+        governor.reset();
+        assertEquals(100, noisy.matchCap());
+    }
+
+    @Test
+    void suspendsPerHostAfterRepeatedAllNoiseCapsAndAuditsIt() {
+        AtomicLong now = new AtomicLong(1_000);
+        RuleGovernor governor = new RuleGovernor(100, now::get);
+        RuleGovernor.Control control = governor.control("r1", "broad");
+
+        assertNull(control.recordScan("cdn.example", 100, 0));
+        assertNull(control.recordScan("cdn.example", 100, 0));
+        assertNull(control.recordScan("app.example", 100, 0));
+        RuleGovernor.Suppression suppression = control.recordScan("cdn.example", 100, 0);
+
+        assertNotNull(suppression);
+        assertEquals("broad", suppression.rule());
+        assertTrue(control.suspended("cdn.example"));
+        assertTrue(control.suspended("cdn.example"));
+        assertFalse(control.suspended("app.example"));
+        assertEquals(2, governor.auditTrail().get(0).skippedScans());
+
+        now.addAndGet(RuleGovernor.SUSPEND_MILLIS);
+        assertFalse(control.suspended("cdn.example"));
+        assertEquals(1, governor.auditTrail().size());
+    }
+
+    @Test
+    void anyRealMatchOrUncappedScanResetsTheStrikes() {
+        RuleGovernor governor = new RuleGovernor(100);
+        RuleGovernor.Control control = governor.control("r1", "broad");
+
+        control.recordScan("cdn.example", 100, 0);
+        control.recordScan("cdn.example", 100, 0);
+        control.recordScan("cdn.example", 100, 1);
+        control.recordScan("cdn.example", 100, 0);
+        control.recordScan("cdn.example", 100, 0);
+        control.recordScan("cdn.example", 40, 0);
+        control.recordScan("cdn.example", 100, 0);
+
+        assertFalse(control.suspended("cdn.example"));
+        assertTrue(governor.auditTrail().isEmpty());
+    }
+
+    @Test
+    void stateFollowsTheRuleIdAcrossRenamesUntilTheRuleIsGone() {
+        AtomicLong now = new AtomicLong(1_000);
+        RuleGovernor governor = new RuleGovernor(100, now::get);
+        RuleGovernor.Control control = governor.control("r1", "broad");
+        governor.refresh(Map.of("r1", stats("r1", 10_000, 100)));
+        RuleGovernor.Control sameName = governor.control("r2", "broad");
+
+        assertSame(control, governor.control("r1", "renamed"));
+        assertEquals(RuleGovernor.MIN_MATCH_CAP, control.matchCap());
+        assertEquals(100, sameName.matchCap());
+        control.recordScan("cdn.example", 10, 0);
+        control.recordScan("cdn.example", 10, 0);
+        assertEquals("renamed", control.recordScan("cdn.example", 10, 0).rule());
+
+        governor.retainOnly(Set.of("r2"));
+        assertNotSame(control, governor.control("r1", "renamed"));
+        assertSame(sameName, governor.control("r2", "broad"));
+        assertEquals(1, governor.auditTrail().size());
+    }
+}
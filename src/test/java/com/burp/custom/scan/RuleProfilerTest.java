@@ -0,0 +1,64 @@
+package com.burp.custom.scan;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuleProfilerTest {
+
+    private static void scan(RuleProfiler profiler, String rule, long nanosPerScan, int scans) {
+        RuleProfiler.Profile profile = profiler.profile(rule);
+        for (int i = 0; i < scans; i++) profile.record(nanosPerScan, 1_000, 2, 1);
+    }
+
+    @Test
+    void flagsOnlyCostlyRulesThatKeepLittle() {
+        RuleProfiler profiler = new RuleProfiler();
+        scan(profiler, "cheap-a", 10_000, 200);
+        scan(profiler, "cheap-b", 12_000, 200);
+        scan(profiler, "cheap-c", 11_000, 200);
+        scan(profiler, "slow-barren", 500_000, 200);
+        scan(profiler, "slow-productive", 500_000, 200);
+        for (int i = 0; i < 50; i++) profiler.findingKept("slow-productive");
+
+        Map<String, RuleProfiler.Stats> stats = profiler.stats();
+
+        assertTrue(stats.get("slow-barren").slow());
+        assertFalse(stats.get("slow-productive").slow());
+        assertFalse(stats.get("cheap-a").slow());
+        assertEquals(200_000, stats.get("cheap-a").bytes());
+        assertEquals(200, stats.get("cheap-a").afterNoise());
+    }
+
+    @Test
+    void profilesSurviveLookupByNameAndReset() {
+        RuleProfiler profiler = new RuleProfiler();
+        scan(profiler, "rule", 1_000, 5);
+        scan(profiler, "rule", 1_000, 5);
+        profiler.findingKept("rule");
+        profiler.findingKept("unknown");
+
+        assertEquals(10, profiler.stats().get("rule").scans());
+        assertEquals(1, profiler.stats().get("rule").kept());
+
+        profiler.reset();
+        assertEquals(0, profiler.stats().get("rule").scans());
+        assertFalse(profiler.stats().containsKey("unknown"));
+    }
+
+    @Test
+    void prunesProfilesOfRulesNoLongerInTheRuleset() {
+        RuleProfiler profiler = new RuleProfiler();
+        scan(profiler, "kept-id", 1_000, 5);
+        scan(profiler, "removed-id", 1_000, 5);
+
+        profiler.retainOnly(Set.of("kept-id", "new-id"));
+
+        assertEquals(Set.of("kept-id"), profiler.stats().keySet());
+    }
+}
@@ -0,0 +1,63 @@
+package com.burp.custom.scan;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RulesetDeltaTest {
+
+    private static RulesetDelta.RuleVersion rule(String id, String name, String version) {
+        return new RulesetDelta.RuleVersion(id, name, version);
+    }
+
+    @Test
+    void identicalRulesetsHaveNoChanges() {
+        List<RulesetDelta.RuleVersion> rules = List.of(rule("a", "AWS", "v1"), rule("b", "Slack", "v1"));
+
+        RulesetDelta delta = RulesetDelta.between(rules, List.of(rules.get(1), rules.get(0)));
+
+        assertTrue(delta.isEmpty());
+        assertTrue(delta.idsToRun().isEmpty());
+        assertTrue(delta.removedRuleNames().isEmpty());
+        assertTrue(delta.supersededRuleNames().isEmpty());
+    }
+
+    @Test
+    void runsAddedAndModifiedRulesAndRetractsRemovedAndPreviousNames() {
+        RulesetDelta delta = RulesetDelta.between(
+            List.of(rule("a", "AWS", "v1"), rule("b", "Slack", "v1"), rule("c", "Endpoints", "v1")),
+            List.of(rule("a", "AWS", "v1"), rule("b", "Slack Token", "v2"), rule("d", "Stripe", "v1")));
+
+        assertEquals(List.of(rule("d", "Stripe", "v1")), delta.added());
+        assertEquals(List.of(rule("b", "Slack Token", "v2")), delta.modified());
+        assertEquals(List.of(rule("c", "Endpoints", "v1")), delta.removed());
+        assertEquals(Set.of("b", "d"), delta.idsToRun());
+        assertEquals(Set.of("Endpoints"), delta.removedRuleNames());
+        assertEquals(Set.of("Slack"), delta.supersededRuleNames());
+        assertEquals("1 added, 1 changed, 1 removed", delta.toString());
+    }
+
+    @Test
+    void keepsFindingsOfNamesStillUsedByUnchangedRules() {
+        RulesetDelta delta = RulesetDelta.between(
+            List.of(rule("a", "Generic Key", "v1"), rule("b", "Generic Key", "v1")),
+            List.of(rule("a", "Generic Key", "v1")));
+
+        assertEquals(1, delta.removed().size());
+        assertTrue(delta.removedRuleNames().isEmpty());
+    }
+
+    @Test
+    void removedRuleSharingAModifiedRulesPreviousNameIsOnlyRetractedWhereThatRuleRuns() {
+        RulesetDelta delta = RulesetDelta.between(
+            List.of(rule("a", "Token", "v1"), rule("b", "Token", "v1"), rule("c", "Key", "v1")),
+            List.of(rule("a", "Token", "v2")));
+
+        assertEquals(Set.of("Key"), delta.removedRuleNames());
+        assertEquals(Set.of("Token"), delta.supersededRuleNames());
+    }
+}
@@ -0,0 +1,74 @@
+package com.burp.custom.scan;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScanEventsTest {
+
+    @AfterEach
+    void disable() {
+        ScanEvents.setEnabled(false);
+    }
+
+    @Test
+    void emittersAreInertWhileDisabled() {
+        ScanEvents.setEnabled(false);
+        assertNull(ScanEvents.responseScanStarted());
+        assertNull(ScanEvents.ruleStarted());
+        assertNull(ScanEvents.flushStarted());
+        assertNull(ScanEvents.saveStarted("journal"));
+    }
+
+    @Test
+    void enabledEventsReachARecording() throws Exception {
+        assertTrue(ScanEvents.setEnabled(true));
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("com.burp.custom.jsminer.ResponseScanned");
+            recording.enable("com.burp.custom.jsminer.RuleEvaluated").withThreshold(Duration.ZERO);
+            recording.enable("com.burp.custom.jsminer.QueueRejected");
+            recording.start();
+
+            ScanEvents.ruleStarted().finish("AWS Key", 4_096, 3, 1);
+            ScanEvents.responseScanStarted().finish("example.com", 4_096, 12, 1);
+            ScanEvents.queueRejected("live", 1_000, false);
+            recording.stop();
+
+            Path file = Files.createTempFile("jsminer", ".jfr");
+            try {
+                recording.dump(file);
+                events = RecordingFile.readAllEvents(file);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        RecordedEvent rule = only(events, "com.burp.custom.jsminer.RuleEvaluated");
+        assertEquals("AWS Key", rule.getString("rule"));
+        assertEquals(3, rule.getInt("matches"));
+        RecordedEvent scan = only(events, "com.burp.custom.jsminer.ResponseScanned");
+        assertEquals("example.com", scan.getString("host"));
+        assertEquals(4_096, scan.getLong("bytes"));
+        RecordedEvent rejected = only(events, "com.burp.custom.jsminer.QueueRejected");
+        assertEquals("live", rejected.getString("source"));
+        assertEquals(1_000, rejected.getInt("queueDepth"));
+    }
+
+    private static RecordedEvent only(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream().filter(e -> e.getEventType().getName().equals(name)).toList();
+        assertEquals(1, matching.size(), name);
+        return matching.get(0);
+    }
+}
@@ -0,0 +1,52 @@
+package com.burp.custom.scan;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScanMetricsTest {
+
+    @Test
+    void histogramPercentilesStayWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 99; i++) histogram.record(1_000_000);
+        histogram.record(250_000_000);
+
+        assertEquals(100, histogram.count());
+        assertEquals(1.0, histogram.percentileMillis(0.50), 0.125);
+        assertEquals(1.0, histogram.percentileMillis(0.99), 0.125);
+        assertEquals(250.0, histogram.percentileMillis(1.0), 250.0 * 0.125);
+    }
+
+    @Test
+    void bucketsCoverContiguousRanges() {
+        for (long micros = 0; micros < 100_000; micros++) {
+            int bucket = LatencyHistogram.bucket(micros);
+            assertTrue(micros < LatencyHistogram.upperBoundMicros(bucket), "upper bound of " + micros);
+            assertTrue(bucket == 0 || micros >= LatencyHistogram.upperBoundMicros(bucket - 1), "lower bound of " + micros);
+        }
+    }
+
+    @Test
+    void samplesTurnCountersIntoRatesAndKeepARollingWindow() {
+        ScanMetrics metrics = new ScanMetrics();
+        metrics.setQueueDepth(() -> 7);
+        metrics.sample();
+        metrics.responseSeen();
+        metrics.responseScanned(2_048, 1_000_000);
+        metrics.responseGated(ScanMetrics.Gate.MIME_TYPE);
+
+        ScanMetrics.Sample sample = metrics.sample();
+        for (int i = 0; i < ScanMetrics.HISTORY; i++) metrics.sample();
+
+        assertTrue(sample.scannedPerSecond() > 0);
+        assertEquals(7, sample.queueDepth());
+        assertEquals(ScanMetrics.HISTORY, metrics.history().size());
+        Map<?, ?> gates = (Map<?, ?>) metrics.snapshot().get("gatedOut");
+        assertEquals(1L, gates.get("MIME_TYPE"));
+        assertEquals(2_048L, ((Map<?, ?>) metrics.snapshot().get("counters")).get("bytesScanned"));
+    }
+}
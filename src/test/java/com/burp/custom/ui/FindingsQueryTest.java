@@ -0,0 +1,52 @@
+package com.burp.custom.ui;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FindingsQueryTest {
+
+    @Test
+    void parsesFieldsOperatorsQuotesAndNegation() {
+        List<FindingsQuery.Clause> clauses =
+            FindingsQuery.parse("host:*.corp.com sev>=medium rule~\"AWS Key\" reuse>2 -url:cdn token").clauses();
+
+        assertEquals(6, clauses.size());
+        assertEquals(new FindingsQuery.Clause(FindingsQuery.Field.HOST, FindingsQuery.Op.MATCH, "*.corp.com", false), clauses.get(0));
+        assertEquals(new FindingsQuery.Clause(FindingsQuery.Field.SEVERITY, FindingsQuery.Op.GE, "MEDIUM", false), clauses.get(1));
+        assertEquals(new FindingsQuery.Clause(FindingsQuery.Field.RULE, FindingsQuery.Op.CONTAINS, "AWS Key", false), clauses.get(2));
+        assertEquals(new FindingsQuery.Clause(FindingsQuery.Field.REUSE, FindingsQuery.Op.GT, "2", false), clauses.get(3));
+        assertEquals(new FindingsQuery.Clause(FindingsQuery.Field.URL, FindingsQuery.Op.MATCH, "cdn", true), clauses.get(4));
+        assertEquals(new FindingsQuery.Clause(FindingsQuery.Field.TEXT, FindingsQuery.Op.CONTAINS, "token", false), clauses.get(5));
+    }
+
+    @Test
+    void wordsWithoutAKnownFieldAreFreeText() {
+        List<FindingsQuery.Clause> clauses = FindingsQuery.parse("https://api.example.com/v1 -").clauses();
+
+        assertEquals(2, clauses.size());
+        assertEquals("https://api.example.com/v1", clauses.get(0).value());
+        assertEquals(FindingsQuery.Field.TEXT, clauses.get(1).field());
+        assertTrue(FindingsQuery.parse("   ").isEmpty());
+    }
+
+    @Test
+    void rejectsMalformedClauses() {
+        assertThrows(IllegalArgumentException.class, () -> FindingsQuery.parse("reuse>lots"));
+        assertThrows(IllegalArgumentException.class, () -> FindingsQuery.parse("severity>=URGENT"));
+        assertThrows(IllegalArgumentException.class, () -> FindingsQuery.parse("url>cdn"));
+        assertThrows(IllegalArgumentException.class, () -> FindingsQuery.parse("rule:"));
+        assertThrows(IllegalArgumentException.class, () -> FindingsQuery.parse("rule:\"unterminated"));
+    }
+
+    @Test
+    void globMatchingIsCaseInsensitive() {
+        assertTrue(FindingsQuery.globMatches("api-*.Corp.com", "api-eu.corp.com"));
+        assertFalse(FindingsQuery.globMatches("api-*.corp.com", "www.corp.com"));
+    }
+}
@@ -0,0 +1,95 @@
+package com.burp.custom.ui;
+
+import com.burp.custom.model.Finding;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FindingsSearchIndexTest {
+    private static Finding finding(String url, String value, String rule, String severity, String context) {
+        return new Finding("SECRET", value, rule, url, "e", 0, value.length(), severity, context);
+    }
+
+    private static FindingsSearchIndex.Query query(FindingsSearchIndex index, String text) {
+        return index.query(FindingsQuery.parse(text));
+    }
+
+    @Test
+    void trigramSearchMatchesValueUrlAndContextCaseInsensitively() {
+        FindingsSearchIndex index = new FindingsSearchIndex();
+        int stripe = index.add(finding("https://a.example/app.js", "sk_live_ABCDEF", "Stripe", "HIGH", "key = ..."), "HIGH", 1);
+        int url = index.add(finding("https://cdn.Example/Vendor.js", "/api/v1/users", "Path", "INFO", ""), "LOW", 1);
+        int ctx = index.add(finding("https://b.example/x.js", "value", "Generic", "LOW", "const Token = 1"), "LOW", 1);
+
+        FindingsSearchIndex.Query byValue = query(index, "LIVE_abc");
+        assertTrue(byValue.includes(stripe));
+        assertFalse(byValue.includes(url));
+
+        FindingsSearchIndex.Query byUrl = query(index, "vendor");
+        assertTrue(byUrl.includes(url));
+        assertFalse(byUrl.includes(stripe));
+
+        FindingsSearchIndex.Query byContext = query(index, "token");
+        assertTrue(byContext.includes(ctx));
+        assertFalse(byContext.includes(stripe));
+    }
+
+    @Test
+    void trigramCandidatesAreVerifiedAgainstTheFullSubstring() {
+        FindingsSearchIndex index = new FindingsSearchIndex();
+        // Contains every trigram of "abcabd" but not the substring itself
+        int doc = index.add(finding("https://a/x.js", "abcaxx bcabd", "Rule", "LOW", ""), "LOW", 1);
+        assertFalse(query(index, "abcabd").includes(doc));
+    }
+
+    @Test
+    void facetsIntersectWithSearchAndCoverRowsAddedAfterCompilation() {
+        FindingsSearchIndex index = new FindingsSearchIndex();
+        int high = index.add(finding("https://a/1.js", "token-one", "Rule A", "HIGH", ""), "HIGH", 1);
+        int low = index.add(finding("https://a/2.js", "token-two", "Rule A", "LOW", ""), "LOW", 1);
+
+        FindingsSearchIndex.Query query = query(index, "severity:HIGH rule:\"Rule A\" token");
+        assertTrue(query.includes(high));
+        assertFalse(query.includes(low));
+
+        int later = index.add(finding("https://a/3.js", "token-three", "Rule A", "HIGH", ""), "MEDIUM", 1);
+        int otherRule = index.add(finding("https://a/4.js", "token-four", "Rule B", "HIGH", ""), "MEDIUM", 1);
+        assertTrue(query.includes(later));
+        assertFalse(query.includes(otherRule));
+    }
+
+    @Test
+    void compiledQueryCombinesHostSeverityRuleReuseAndNegation() {
+        FindingsSearchIndex index = new FindingsSearchIndex();
+        int match = index.add(finding("https://api.corp.com/app.js", "AKIA1", "AWS Access Key", "HIGH", ""), "HIGH", 3);
+        int cdn = index.add(finding("https://cdn.corp.com/app.js", "AKIA2", "AWS Access Key", "HIGH", ""), "HIGH", 3);
+        int lowReuse = index.add(finding("https://www.corp.com/app.js", "AKIA3", "AWS Access Key", "MEDIUM", ""), "HIGH", 1);
+        int info = index.add(finding("https://corp.com/app.js", "AKIA4", "aws region", "INFO", ""), "LOW", 5);
+        int otherHost = index.add(finding("https://corp.net/app.js", "AKIA5", "AWS Access Key", "HIGH", ""), "HIGH", 5);
+
+        FindingsSearchIndex.Query query = query(index, "host:*.corp.com severity>=MEDIUM rule~\"AWS\" reuse>2 -url:cdn");
+        assertTrue(query.includes(match));
+        assertFalse(query.includes(cdn));
+        assertFalse(query.includes(lowReuse));
+        assertFalse(query.includes(info));
+        assertFalse(query.includes(otherHost));
+
+        // Reuse is read per row, so it tracks later changes without recompiling
+        index.setReuse(lowReuse, 4);
+        assertTrue(query.includes(lowReuse));
+    }
+
+    @Test
+    void removedDocsDropOutAndEmptyQueriesMeanNoFilter() {
+        FindingsSearchIndex index = new FindingsSearchIndex();
+        int doc = index.add(finding("https://a/1.js", "secret-value", "Rule", "HIGH", ""), "HIGH", 1);
+        index.remove(doc);
+
+        assertFalse(query(index, "secret").includes(doc));
+        assertEquals(0, index.size());
+        assertNull(query(index, "  "));
+    }
+}
@@ -0,0 +1,95 @@
+package com.burp.custom.ui;
+
+import com.burp.custom.model.Finding;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.event.TableModelEvent;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FindingsTableModelTest {
+    private static Finding finding(String url, String value, String severity) {
+        return new Finding("SECRET", value, "Rule", url, "e", 0, value.length(), severity, "");
+    }
+
+    @Test
+    void reuseChangesFireUpdatesOnlyForRowsSharingTheSecret() {
+        FindingsTableModel model = new FindingsTableModel();
+        Map<String, Integer> reuse = new HashMap<>();
+        reuse.put("shared", 1);
+        reuse.put("other", 1);
+        model.append(List.of(finding("https://a/1.js", "shared", "HIGH"), finding("https://a/2.js", "other", "LOW")),
+            secret -> reuse.getOrDefault(secret, 0));
+
+        List<TableModelEvent> events = new ArrayList<>();
+        model.addTableModelListener(events::add);
+        reuse.put("shared", 2);
+        model.append(List.of(finding("https://b/1.js", "shared", "HIGH")), secret -> reuse.getOrDefault(secret, 0));
+
+        assertEquals(2, events.size());
+        assertEquals(TableModelEvent.INSERT, events.get(0).getType());
+        assertEquals(TableModelEvent.UPDATE, events.get(1).getType());
+        assertEquals(0, events.get(1).getFirstRow());
+        assertEquals(0, events.get(1).getLastRow());
+        assertEquals(2, model.getValueAt(2, FindingsTableModel.COL_REUSE));
+    }
+
+    @Test
+    void sortKeysArePrecomputedOrdinals() {
+        FindingsTableModel model = new FindingsTableModel();
+        model.append(List.of(finding("https://a/1.js", "value-one", "HIGH"), finding("https://a/2.js", "value-two", "INFO")),
+            secret -> 3);
+
+        assertEquals(4, model.sortKey(0, FindingsTableModel.COL_SEVERITY));
+        assertEquals(1, model.sortKey(1, FindingsTableModel.COL_SEVERITY));
+        assertEquals(3, model.sortKey(1, FindingsTableModel.COL_REUSE));
+        assertEquals(-1, model.sortKey(0, FindingsTableModel.COL_URL));
+    }
+
+    @Test
+    void removingOneRowKeepsLaterRowsAddressable() {
+        FindingsTableModel model = new FindingsTableModel();
+        Finding first = finding("https://a/1.js", "first", "HIGH");
+        Finding second = finding("https://a/2.js", "second", "LOW");
+        Finding third = finding("https://a/3.js", "third", "LOW");
+        model.append(List.of(first, second, third), secret -> 1);
+
+        model.remove(List.of(first), secret -> 1);
+        model.remove(List.of(third), secret -> 1);
+
+        assertEquals(1, model.getRowCount());
+        assertEquals(second, model.findingAt(0));
+    }
+
+    @Test
+    void bulkRemovalFiresOneRangedDeletePerRunFromTheEnd() {
+        FindingsTableModel model = new FindingsTableModel();
+        List<Finding> findings = new ArrayList<>();
+        for (int i = 0; i < 6; i++) findings.add(finding("https://a/" + i + ".js", "value-" + i, "LOW"));
+        model.append(findings, secret -> 1);
+        List<TableModelEvent> events = new ArrayList<>();
+        List<Integer> rowCounts = new ArrayList<>();
+        model.addTableModelListener(event -> {
+            events.add(event);
+            rowCounts.add(model.getRowCount());
+        });
+
+        model.remove(List.of(findings.get(4), findings.get(1), findings.get(5), findings.get(2)), secret -> 1);
+
+        assertEquals(2, events.size());
+        assertEquals(TableModelEvent.DELETE, events.get(0).getType());
+        assertEquals(4, events.get(0).getFirstRow());
+        assertEquals(5, events.get(0).getLastRow());
+        assertEquals(4, (int) rowCounts.get(0));
+        assertEquals(1, events.get(1).getFirstRow());
+        assertEquals(2, events.get(1).getLastRow());
+        assertEquals(2, (int) rowCounts.get(1));
+        assertEquals(findings.get(3), model.findingAt(1));
+        model.remove(List.of(findings.get(3)), secret -> 1);
+        assertEquals(List.of(findings.get(0)), model.findings());
+    }
+}
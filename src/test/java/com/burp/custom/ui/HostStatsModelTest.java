@@ -0,0 +1,68 @@
+package com.burp.custom.ui;
+
+import org.junit.jupiter.api.Test;
+
+import javax.swing.event.TableModelEvent;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HostStatsModelTest {
+
+    @Test
+    void deltasUpdateOnlyTheTouchedHostRow() {
+        HostStatsModel model = new HostStatsModel();
+        model.add("a.example", "SECRET", "HIGH");
+        model.add("b.example", "URL", "INFO");
+        model.fireChanges();
+
+        List<TableModelEvent> events = new ArrayList<>();
+        model.addTableModelListener(events::add);
+        model.add("b.example", "URL", "MEDIUM");
+        model.add("b.example", "URL", "LOW");
+        model.fireChanges();
+
+        assertEquals(1, events.size());
+        assertEquals(TableModelEvent.UPDATE, events.get(0).getType());
+        assertEquals(1, events.get(0).getFirstRow());
+        assertEquals(1, events.get(0).getLastRow());
+        assertEquals(3, model.getValueAt(1, HostStatsModel.COL_TOTAL));
+        assertEquals(1, model.getValueAt(1, HostStatsModel.COL_MEDIUM));
+        assertEquals(2, model.getValueAt(1, HostStatsModel.COL_LOW));
+        assertEquals(4, model.total());
+        assertEquals(1, model.high());
+    }
+
+    @Test
+    void topTypeFollowsIncrementsAndRescansWhenLeaderDrops() {
+        HostStatsModel model = new HostStatsModel();
+        model.add("a.example", "SECRET", "HIGH");
+        model.add("a.example", "URL", "INFO");
+        model.add("a.example", "URL", "INFO");
+        assertEquals("URL", model.getValueAt(0, HostStatsModel.COL_TOP_TYPE));
+
+        model.remove("a.example", "URL", "INFO");
+        model.remove("a.example", "URL", "INFO");
+        assertEquals("SECRET", model.getValueAt(0, HostStatsModel.COL_TOP_TYPE));
+    }
+
+    @Test
+    void hostRowIsDeletedWhenItsLastFindingIsRemoved() {
+        HostStatsModel model = new HostStatsModel();
+        model.add("a.example", "SECRET", "HIGH");
+        model.add("b.example", "SECRET", "HIGH");
+        model.add("c.example", "SECRET", "LOW");
+        model.fireChanges();
+
+        model.remove("b.example", "SECRET", "HIGH");
+        model.remove("b.example", "SECRET", "HIGH");
+        model.add("c.example", "SECRET", "LOW");
+        model.fireChanges();
+
+        assertEquals(2, model.getRowCount());
+        assertEquals("c.example", model.getValueAt(1, HostStatsModel.COL_HOST));
+        assertEquals(2, model.getValueAt(1, HostStatsModel.COL_TOTAL));
+        assertEquals(3, model.total());
+    }
+}
@@ -0,0 +1,25 @@
+package com.burp.custom.util;
+
+import com.burp.custom.util.HeapPressureMonitor.Level;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HeapPressureMonitorTest {
+
+    @Test
+    void escalatesThroughEveryStepCrossed() {
+        assertEquals(Level.NORMAL, HeapPressureMonitor.levelFor(Level.NORMAL, 0.50));
+        assertEquals(Level.PAUSE_BULK, HeapPressureMonitor.levelFor(Level.NORMAL, 0.76));
+        assertEquals(Level.SHRINK_CACHES, HeapPressureMonitor.levelFor(Level.NORMAL, 0.90));
+        assertEquals(Level.PAUSE_LIVE, HeapPressureMonitor.levelFor(Level.PAUSE_BULK, 0.97));
+    }
+
+    @Test
+    void recoversOnlyOnceUsageFallsBelowTheMargin() {
+        assertEquals(Level.PAUSE_LIVE, HeapPressureMonitor.levelFor(Level.PAUSE_LIVE, 0.91));
+        assertEquals(Level.SHRINK_CACHES, HeapPressureMonitor.levelFor(Level.PAUSE_LIVE, 0.88));
+        assertEquals(Level.PAUSE_BULK, HeapPressureMonitor.levelFor(Level.PAUSE_BULK, 0.72));
+        assertEquals(Level.NORMAL, HeapPressureMonitor.levelFor(Level.PAUSE_BULK, 0.69));
+    }
+}